@@ -0,0 +1,86 @@
+package com.example.benchmark;
+
+import com.example.dao.CustomerDAO;
+import com.example.model.Customer;
+import com.example.util.ConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CustomerDAO hot paths against the stand-in database. Throughput and
+ * SampleTime (latency percentiles) are both reported; run with -prof gc for
+ * allocation per operation.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CustomerDAOBenchmark {
+    
+    @Param({ "50000" })
+    public int customers;
+    
+    @Param({ "10" })
+    public int poolSize;
+    
+    private CustomerDAO dao;
+    private AtomicLong nextId;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        StandInDatabase.configure(poolSize);
+        StandInDatabase.createSchema();
+        StandInDatabase.seedCustomers(customers);
+        dao = new CustomerDAO();
+        nextId = new AtomicLong(customers);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ConnectionManager.shutdown();
+    }
+    
+    @Benchmark
+    public Customer findById() throws SQLException {
+        return dao.findById(ThreadLocalRandom.current().nextLong(1, customers + 1));
+    }
+    
+    /**
+     * Reads the whole table each call, so it is measured single-threaded in its own unit.
+     */
+    @Benchmark
+    @Threads(1)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<Customer> findAll() throws SQLException {
+        return dao.findAll();
+    }
+    
+    @Benchmark
+    public long insert() throws SQLException {
+        long id = nextId.incrementAndGet();
+        dao.insert(StandInDatabase.customer(id, new Random(id)));
+        return id;
+    }
+}
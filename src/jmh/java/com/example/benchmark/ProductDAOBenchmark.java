@@ -0,0 +1,67 @@
+package com.example.benchmark;
+
+import com.example.dao.ProductDAO;
+import com.example.model.Product;
+import com.example.util.ConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductDAO.findById against the stand-in database, with the entity cache
+ * off and on so its effect shows up side by side.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ProductDAOBenchmark {
+    
+    @Param({ "20000" })
+    public int products;
+    
+    @Param({ "10" })
+    public int poolSize;
+    
+    @Param({ "false", "true" })
+    public boolean cacheEnabled;
+    
+    private ProductDAO dao;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        StandInDatabase.configure(poolSize);
+        System.setProperty("db.cache.product.enabled", String.valueOf(cacheEnabled));
+        StandInDatabase.createSchema();
+        StandInDatabase.seedProducts(products);
+        dao = new ProductDAO();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ConnectionManager.shutdown();
+    }
+    
+    @Benchmark
+    public Product findById() throws SQLException {
+        return dao.findById(ThreadLocalRandom.current().nextLong(1, products + 1));
+    }
+}
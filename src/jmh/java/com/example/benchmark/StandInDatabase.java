@@ -0,0 +1,135 @@
+package com.example.benchmark;
+
+import com.example.dao.CustomerDAO;
+import com.example.dao.ProductDAO;
+import com.example.model.Customer;
+import com.example.model.Product;
+import com.example.util.BatchResult;
+import com.example.util.ConnectionManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * In-process H2 database standing in for Informix during benchmarks.
+ * The DAO statements under test are plain SQL apart from Informix's CURRENT,
+ * which is declared as a constant. The tables are seeded through the DAOs'
+ * own insertAll so that the data goes through the same code as production.
+ */
+public final class StandInDatabase {
+    
+    public static final String URL = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+    
+    private static final String[] SCHEMA = {
+        "CREATE CONSTANT IF NOT EXISTS CURRENT VALUE CURRENT_TIMESTAMP",
+        "CREATE TABLE IF NOT EXISTS customer (customer_id BIGINT PRIMARY KEY, first_name VARCHAR(50), "
+            + "last_name VARCHAR(50), email VARCHAR(100), phone VARCHAR(20), address VARCHAR(200), city VARCHAR(50), "
+            + "state VARCHAR(2), zip_code VARCHAR(10), country VARCHAR(50), created_date TIMESTAMP, "
+            + "modified_date TIMESTAMP, status VARCHAR(20), credit_limit DECIMAL(12,2), customer_type VARCHAR(20))",
+        "CREATE TABLE IF NOT EXISTS product (product_id BIGINT PRIMARY KEY, product_code VARCHAR(30), "
+            + "product_name VARCHAR(100), description VARCHAR(500), category VARCHAR(50), sub_category VARCHAR(50), "
+            + "price DECIMAL(12,2), cost DECIMAL(12,2), stock_quantity INT, reorder_level INT, supplier VARCHAR(100), "
+            + "manufacturer VARCHAR(100), created_date TIMESTAMP, modified_date TIMESTAMP, status VARCHAR(20), "
+            + "barcode VARCHAR(30))"
+    };
+    
+    private static final String[] STATES = { "CA", "NY", "TX", "FL", "IL", "WA", "MA", "OR" };
+    private static final String[] CATEGORIES = { "Electronics", "Garden", "Kitchen", "Office", "Sports", "Toys" };
+    
+    private StandInDatabase() {}
+    
+    /**
+     * Points ConnectionManager at the stand-in database. Must run before the
+     * first DAO call in the JVM.
+     */
+    public static void configure(int poolSize) {
+        System.setProperty("db.url", URL);
+        System.setProperty("db.driver", "org.h2.Driver");
+        System.setProperty("db.username", "sa");
+        System.setProperty("db.password", "");
+        System.setProperty("db.pool.minSize", String.valueOf(poolSize));
+        System.setProperty("db.pool.maxSize", String.valueOf(poolSize));
+    }
+    
+    public static void createSchema() throws SQLException {
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.createStatement();
+            for (String ddl : SCHEMA) {
+                stmt.execute(ddl);
+            }
+            stmt.execute("DELETE FROM customer");
+            stmt.execute("DELETE FROM product");
+        } finally {
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    public static void seedCustomers(int count) throws SQLException {
+        Random random = new Random(42);
+        List<Customer> batch = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            batch.add(customer(id, random));
+            if (batch.size() == 1000 || id == count) {
+                check(new CustomerDAO().insertAll(batch));
+                batch.clear();
+            }
+        }
+    }
+    
+    public static void seedProducts(int count) throws SQLException {
+        Random random = new Random(7);
+        List<Product> batch = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            batch.add(product(id, random));
+            if (batch.size() == 1000 || id == count) {
+                check(new ProductDAO().insertAll(batch));
+                batch.clear();
+            }
+        }
+    }
+    
+    public static Customer customer(long id, Random random) {
+        Customer customer = new Customer(id, "First" + id, "Last" + (id % 5000), "customer" + id + "@example.com");
+        customer.setPhone(String.format("555-%03d-%04d", random.nextInt(1000), random.nextInt(10000)));
+        customer.setAddress(random.nextInt(9999) + " Main Street");
+        customer.setCity("City" + random.nextInt(500));
+        customer.setState(STATES[random.nextInt(STATES.length)]);
+        customer.setZipCode(String.format("%05d", random.nextInt(100000)));
+        customer.setCountry("USA");
+        customer.setStatus(random.nextInt(10) == 0 ? "INACTIVE" : "ACTIVE");
+        customer.setCreditLimit(BigDecimal.valueOf(500 + random.nextInt(20000), 0));
+        customer.setCustomerType(random.nextInt(4) == 0 ? "PREMIUM" : "REGULAR");
+        return customer;
+    }
+    
+    public static Product product(long id, Random random) {
+        Product product = new Product(id, "Product " + id, BigDecimal.valueOf(100 + random.nextInt(100000), 2));
+        product.setProductCode("P-" + id);
+        product.setDescription("Description of product " + id);
+        product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        product.setSubCategory("Sub" + random.nextInt(20));
+        product.setCost(product.getPrice().multiply(BigDecimal.valueOf(6, 1)));
+        product.setStockQuantity(random.nextInt(500));
+        product.setReorderLevel(10 + random.nextInt(40));
+        product.setSupplier("Supplier" + random.nextInt(100));
+        product.setManufacturer("Maker" + random.nextInt(50));
+        product.setStatus("ACTIVE");
+        product.setBarcode(String.format("%012d", id));
+        return product;
+    }
+    
+    private static void check(BatchResult<?> result) {
+        if (result.hasFailures()) {
+            throw new IllegalStateException("Seeding failed: " + result.getFailures().get(0).getCause());
+        }
+    }
+}
@@ -5,7 +5,9 @@ import java.io.InputStream;
 import java.util.Properties;
 
 /**
- * Database configuration class for Informix connection settings
+ * Database configuration class for Informix connection settings.
+ * Any key in database.properties can be overridden with a system property
+ * of the same name, e.g. -Ddb.url=... to point at a stand-in driver.
  */
 public class DatabaseConfig {
     
@@ -23,18 +25,165 @@ public class DatabaseConfig {
     }
     
     public static String getUrl() {
-        return properties.getProperty("db.url", "jdbc:informix-sqli://localhost:9088/testdb:INFORMIXSERVER=informix");
+        return getProperty("db.url", "jdbc:informix-sqli://localhost:9088/testdb:INFORMIXSERVER=informix");
     }
     
     public static String getUsername() {
-        return properties.getProperty("db.username", "informix");
+        return getProperty("db.username", "informix");
     }
     
     public static String getPassword() {
-        return properties.getProperty("db.password", "informix");
+        return getProperty("db.password", "informix");
     }
     
     public static String getDriver() {
-        return properties.getProperty("db.driver", "com.informix.jdbc.IfxDriver");
+        return getProperty("db.driver", "com.informix.jdbc.IfxDriver");
+    }
+    
+    // Connection pool settings
+    public static int getPoolMinSize() {
+        return getInt("db.pool.minSize", 2);
+    }
+    
+    public static int getPoolMaxSize() {
+        return getInt("db.pool.maxSize", 10);
+    }
+    
+    public static long getPoolAcquireTimeoutMillis() {
+        return getLong("db.pool.acquireTimeoutMillis", 30000L);
+    }
+    
+    public static long getPoolIdleTimeoutMillis() {
+        return getLong("db.pool.idleTimeoutMillis", 600000L);
+    }
+    
+    public static int getPoolValidationTimeoutSeconds() {
+        return getInt("db.pool.validationTimeoutSeconds", 5);
+    }
+    
+    public static int getStatementCacheSize() {
+        return getInt("db.statementCache.size", 64);
+    }
+    
+    public static int getBatchSize() {
+        return getInt("db.batch.size", 500);
+    }
+    
+    public static int getFetchSize() {
+        return getInt("db.fetchSize", 1000);
+    }
+    
+    // Largest IN list generated by the findByIds/deleteByIds methods, rounded down to a power of two
+    public static int getInListMaxSize() {
+        return getInt("db.inList.maxSize", 256);
+    }
+    
+    public static int getInListParallelism() {
+        return getInt("db.inList.parallelism", 4);
+    }
+    
+    // Entity cache settings, per entity name (e.g. db.cache.customer.enabled)
+    public static boolean isEntityCacheEnabled(String entity) {
+        return getBoolean("db.cache." + entity + ".enabled", false);
+    }
+    
+    public static int getEntityCacheMaxSize(String entity) {
+        return getInt("db.cache." + entity + ".maxSize", 10000);
+    }
+    
+    public static long getEntityCacheTtlMillis(String entity) {
+        return getLong("db.cache." + entity + ".ttlMillis", 60000L);
+    }
+    
+    // Snapshot caches such as the category tree, per name (e.g. db.snapshot.category.ttlMillis); 0 never expires
+    public static long getSnapshotTtlMillis(String name) {
+        return getLong("db.snapshot." + name + ".ttlMillis", 300000L);
+    }
+    
+    // Coalescing of identical concurrent reads, per DAO name (e.g. db.singleFlight.product.enabled)
+    public static boolean isSingleFlightEnabled(String name) {
+        return getBoolean("db.singleFlight." + name + ".enabled", false);
+    }
+    
+    // AsyncDAO settings; by default at most as many calls in flight as the pool has connections
+    public static int getAsyncMaxConcurrency() {
+        return getInt("db.async.maxConcurrency", getPoolMaxSize());
+    }
+    
+    public static boolean isAsyncVirtualThreads() {
+        return getBoolean("db.async.virtualThreads", true);
+    }
+    
+    // Stock reservation ledger settings
+    public static int getStockLockStripes() {
+        return getInt("db.stock.lockStripes", 64);
+    }
+    
+    public static long getStockFlushIntervalMillis() {
+        return getLong("db.stock.flushIntervalMillis", 200L);
+    }
+    
+    public static long getStockReservationTtlMillis() {
+        return getLong("db.stock.reservationTtlMillis", 900000L);
+    }
+    
+    // Materialized counters: how often every counter is re-run, and how long an unread one is kept
+    public static long getCounterReconcileMillis() {
+        return getLong("db.counters.reconcileMillis", 60000L);
+    }
+    
+    public static long getCounterIdleMillis() {
+        return getLong("db.counters.idleMillis", 600000L);
+    }
+    
+    // ReportEngine: reports running at once and the default query timeout
+    public static int getReportMaxConcurrency() {
+        return getInt("db.reports.maxConcurrency", 4);
+    }
+    
+    public static int getReportTimeoutSeconds() {
+        return getInt("db.reports.timeoutSeconds", 600);
+    }
+    
+    // File exports: size of the pooled direct buffers and how many idle ones are kept
+    public static int getExportBufferSize() {
+        return getInt("db.export.bufferSize", 65536);
+    }
+    
+    public static int getExportPooledBuffers() {
+        return getInt("db.export.pooledBuffers", 32);
+    }
+    
+    // Statement instrumentation settings
+    public static boolean isQueryMetricsEnabled() {
+        return getBoolean("db.metrics.enabled", true);
+    }
+    
+    public static boolean isQueryMetricsRowCountEnabled() {
+        return getBoolean("db.metrics.countRows", true);
+    }
+    
+    public static long getSlowQueryThresholdMillis() {
+        return getLong("db.slowQuery.thresholdMillis", 1000L);
+    }
+    
+    public static String getProperty(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        return value != null ? value : properties.getProperty(key, defaultValue);
+    }
+    
+    public static int getInt(String key, int defaultValue) {
+        String value = getProperty(key, null);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+    
+    public static long getLong(String key, long defaultValue) {
+        String value = getProperty(key, null);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+    
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getProperty(key, null);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
     }
 }
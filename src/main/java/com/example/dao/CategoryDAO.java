@@ -1,9 +1,22 @@
 package com.example.dao;
 
+import com.example.config.DatabaseConfig;
 import com.example.model.Category;
+import com.example.util.ColumnMapper;
 import com.example.util.ConnectionManager;
+import com.example.util.InListQuery;
+import com.example.util.Projections;
+import com.example.util.ResultSetStream;
+import com.example.util.SnapshotCache;
+import com.example.util.SqlCatalog;
+import com.example.util.TransactionTemplate;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Category entity
@@ -18,6 +31,10 @@ public class CategoryDAO {
     private static final String SELECT_BY_ID = "SELECT category_id, category_name, parent_category_id, description, display_order, status, created_date, modified_date FROM category WHERE category_id = ?";
     private static final String SELECT_ALL = "SELECT category_id, category_name, parent_category_id, description, display_order, status, created_date, modified_date FROM category";
     
+    private static final String SELECT_BY_ID_IN = SELECT_ALL + " WHERE category_id IN ";
+    
+    private static final String DELETE_BY_ID_IN = "DELETE FROM category WHERE category_id IN ";
+    
     // Search queries - SQL strings 3261-3290
     private static final String SELECT_BY_NAME = "SELECT category_id, category_name, parent_category_id, description, display_order, status, created_date, modified_date FROM category WHERE category_name = ?";
     private static final String SELECT_BY_PARENT_ID = "SELECT category_id, category_name, parent_category_id, description, display_order, status, created_date, modified_date FROM category WHERE parent_category_id = ?";
@@ -61,6 +78,165 @@ public class CategoryDAO {
     private static final String EXISTS_BY_NAME = "SELECT COUNT(*) FROM category WHERE category_name = ?";
     private static final String CHECK_DUPLICATE_NAME = "SELECT COUNT(*) FROM category WHERE category_name = ? AND category_id != ?";
     private static final String CHECK_CIRCULAR_REFERENCE = "SELECT COUNT(*) FROM category WHERE category_id = ? AND parent_category_id = ?";
+    private static final String SELECT_PARENT_FOR_UPDATE = "SELECT parent_category_id FROM category WHERE category_id = ? FOR UPDATE";
+    
+    private static final ColumnMapper<Category> CATEGORY_MAPPER = ColumnMapper.builder(Category::new)
+        .longValue("category_id", Category::setCategoryId)
+        .string("category_name", Category::setCategoryName)
+        .nullableLong("parent_category_id", Category::setParentCategoryId)
+        .string("description", Category::setDescription)
+        .intValue("display_order", Category::setDisplayOrder)
+        .string("status", Category::setStatus)
+        .date("created_date", Category::setCreatedDate)
+        .date("modified_date", Category::setModifiedDate)
+        .build();
+    
+    static {
+        SqlCatalog.register(CategoryDAO.class);
+    }
+    
+    // The whole table as a tree, rebuilt after a delete or once db.snapshot.category.ttlMillis old, and patched after a move
+    private static final SnapshotCache<CategoryTree> TREE = new SnapshotCache<>(
+        () -> CategoryTree.build(Projections.list(SELECT_ALL, CATEGORY_MAPPER)), DatabaseConfig.getSnapshotTtlMillis("category"));
     
     public CategoryDAO() {}
+    
+    /**
+     * The cached category tree, for breadcrumbs and subtrees without a round
+     * trip per level. Loaded from the table on first use.
+     */
+    public CategoryTree getTree() throws SQLException {
+        return TREE.get();
+    }
+    
+    /**
+     * Drops the cached tree so the next read rebuilds it, e.g. after
+     * categories were changed by another process or plain SQL.
+     */
+    public void refreshTree() {
+        TREE.invalidate();
+    }
+    
+    /**
+     * Moves a category under a new parent, or to the root with null.
+     *
+     * @throws IllegalArgumentException if the new parent is the category
+     *         itself or one of its descendants; nothing is written
+     */
+    public void moveCategory(long categoryId, Long newParentId) throws SQLException {
+        reparent(MOVE_CATEGORY, categoryId, newParentId);
+    }
+    
+    /**
+     * Same as moveCategory, through the UPDATE_PARENT statement.
+     */
+    public void updateParent(long categoryId, Long newParentId) throws SQLException {
+        reparent(UPDATE_PARENT, categoryId, newParentId);
+    }
+    
+    /**
+     * Writes the move and then walks up from the new parent in the same
+     * transaction, locking each ancestor row, so the check sees moves made
+     * by other nodes and a concurrent move that would close a cycle with
+     * this one waits for it or fails with a deadlock instead of committing.
+     */
+    private void reparent(String sql, long categoryId, Long newParentId) throws SQLException {
+        int updated = TransactionTemplate.execute(tx -> {
+            int count = write(sql, categoryId, newParentId);
+            if (count > 0 && isAncestorOrSelf(categoryId, newParentId)) {
+                throw new IllegalArgumentException("Moving category " + categoryId + " under " + newParentId
+                    + " would create a cycle");
+            }
+            return count;
+        });
+        if (updated > 0) {
+            TREE.update(tree -> tree.withParent(categoryId, newParentId));
+        }
+    }
+    
+    /**
+     * True if categoryId is the given category or one of its ancestors in
+     * the table. A cycle elsewhere in the chain ends the walk.
+     */
+    private boolean isAncestorOrSelf(long categoryId, Long descendantId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(SELECT_PARENT_FOR_UPDATE);
+            Set<Long> seen = new HashSet<>();
+            Long id = descendantId;
+            while (id != null && seen.add(id)) {
+                if (id == categoryId) {
+                    return true;
+                }
+                stmt.setLong(1, id);
+                rs = stmt.executeQuery();
+                Long parent = null;
+                if (rs.next()) {
+                    long value = rs.getLong(1);
+                    parent = rs.wasNull() ? null : value;
+                }
+                rs.close();
+                rs = null;
+                id = parent;
+            }
+            return false;
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    private int write(String sql, long categoryId, Long newParentId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            if (newParentId != null) {
+                stmt.setLong(1, newParentId);
+            } else {
+                stmt.setNull(1, Types.BIGINT);
+            }
+            stmt.setLong(2, categoryId);
+            return stmt.executeUpdate();
+        } finally {
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Loads the categories with the given ids, in the order given, using a few
+     * IN-list queries instead of one round trip per id. Ids with no row are skipped.
+     */
+    public List<Category> findByIds(Collection<Long> categoryIds) throws SQLException {
+        return InListQuery.select(SELECT_BY_ID_IN, categoryIds, CATEGORY_MAPPER, Category::getCategoryId);
+    }
+    
+    /**
+     * Deletes the categories with the given ids and returns the number of rows removed.
+     */
+    public int deleteByIds(Collection<Long> categoryIds) throws SQLException {
+        try {
+            return InListQuery.update(DELETE_BY_ID_IN, categoryIds);
+        } finally {
+            TREE.invalidate();
+        }
+    }
+    
+    /**
+     * Streams every row of the category table without materializing it.
+     * The stream holds a pooled connection until it is closed.
+     */
+    public Stream<Category> streamAll() throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, CATEGORY_MAPPER);
+    }
+    
+    public Stream<Category> streamAll(int fetchSize) throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, fetchSize, CATEGORY_MAPPER);
+    }
 }
@@ -0,0 +1,248 @@
+package com.example.dao;
+
+import com.example.model.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the whole category table arranged as a tree.
+ * Categories are stored in preorder, so every subtree is a contiguous range:
+ * descendants are a slice, "is ancestor of" is two comparisons, and a path
+ * to the root is one step per level. Siblings are ordered by display order,
+ * then name.
+ *
+ * Rows whose parent is missing are treated as roots. Rows caught in a parent
+ * cycle, which the database does not prevent, are also made roots and logged.
+ * Every Category handed out is a copy.
+ */
+public final class CategoryTree {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTree.class);
+    
+    private static final Comparator<Category> SIBLING_ORDER = Comparator
+        .comparing(Category::getDisplayOrder, Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+        .thenComparing(Category::getCategoryName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+        .thenComparing(Category::getCategoryId);
+    
+    // All arrays are indexed by preorder position
+    private final Category[] categories;
+    private final int[] parent;
+    private final int[] depth;
+    // Descendants of position i are the positions i + 1 up to, not including, subtreeEnd[i]
+    private final int[] subtreeEnd;
+    private final Map<Long, Integer> positions;
+    
+    private CategoryTree(Category[] categories, int[] parent) {
+        int n = categories.length;
+        this.categories = categories;
+        this.parent = parent;
+        this.depth = new int[n];
+        this.subtreeEnd = new int[n];
+        this.positions = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            positions.put(categories[i].getCategoryId(), i);
+            depth[i] = parent[i] < 0 ? 0 : depth[parent[i]] + 1;
+            subtreeEnd[i] = i + 1;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            if (parent[i] >= 0) {
+                subtreeEnd[parent[i]] = Math.max(subtreeEnd[parent[i]], subtreeEnd[i]);
+            }
+        }
+    }
+    
+    /**
+     * Builds the tree from every row of the category table. The rows are copied.
+     */
+    public static CategoryTree build(Collection<Category> rows) {
+        Map<Long, Category> byId = new HashMap<>(rows.size() * 2);
+        for (Category row : rows) {
+            byId.put(row.getCategoryId(), new Category(row));
+        }
+        Map<Long, List<Category>> children = new HashMap<>();
+        List<Category> roots = new ArrayList<>();
+        for (Category category : byId.values()) {
+            Long parentId = category.getParentCategoryId();
+            if (parentId == null || !byId.containsKey(parentId)) {
+                roots.add(category);
+            } else {
+                children.computeIfAbsent(parentId, k -> new ArrayList<>()).add(category);
+            }
+        }
+        for (List<Category> siblings : children.values()) {
+            siblings.sort(SIBLING_ORDER);
+        }
+        roots.sort(SIBLING_ORDER);
+        
+        int n = byId.size();
+        Category[] ordered = new Category[n];
+        int[] parent = new int[n];
+        Map<Long, Integer> placed = new HashMap<>(n * 2);
+        int next = 0;
+        for (Category root : roots) {
+            next = place(root, -1, children, ordered, parent, placed, next);
+        }
+        if (next < n) {
+            List<Category> unreached = new ArrayList<>();
+            for (Category category : byId.values()) {
+                if (!placed.containsKey(category.getCategoryId())) {
+                    unreached.add(category);
+                }
+            }
+            unreached.sort(Comparator.comparing(Category::getCategoryId));
+            for (Category category : unreached) {
+                if (!placed.containsKey(category.getCategoryId())) {
+                    logger.warn("Category {} is part of a parent cycle; treating it as a root", category.getCategoryId());
+                    next = place(category, -1, children, ordered, parent, placed, next);
+                }
+            }
+        }
+        return new CategoryTree(ordered, parent);
+    }
+    
+    /**
+     * Lays out a subtree in preorder without recursion, since a corrupt
+     * table could be deep enough to overflow the stack.
+     */
+    private static int place(Category top, int topParent, Map<Long, List<Category>> children, Category[] ordered,
+                             int[] parent, Map<Long, Integer> placed, int next) {
+        List<Category> stack = new ArrayList<>();
+        List<Integer> stackParents = new ArrayList<>();
+        stack.add(top);
+        stackParents.add(topParent);
+        while (!stack.isEmpty()) {
+            Category category = stack.remove(stack.size() - 1);
+            int parentPosition = stackParents.remove(stackParents.size() - 1);
+            if (placed.containsKey(category.getCategoryId())) {
+                continue;
+            }
+            int position = next++;
+            ordered[position] = category;
+            parent[position] = parentPosition;
+            placed.put(category.getCategoryId(), position);
+            List<Category> kids = children.getOrDefault(category.getCategoryId(), Collections.emptyList());
+            for (int i = kids.size() - 1; i >= 0; i--) {
+                stack.add(kids.get(i));
+                stackParents.add(position);
+            }
+        }
+        return next;
+    }
+    
+    /**
+     * A tree with one category moved under a new parent (null for a root),
+     * leaving this tree unchanged.
+     */
+    public CategoryTree withParent(long categoryId, Long newParentId) {
+        List<Category> rows = new ArrayList<>(categories.length);
+        for (Category category : categories) {
+            if (category.getCategoryId() == categoryId) {
+                Category moved = new Category(category);
+                moved.setParentCategoryId(newParentId);
+                rows.add(moved);
+            } else {
+                rows.add(category);
+            }
+        }
+        return build(rows);
+    }
+    
+    public int size() {
+        return categories.length;
+    }
+    
+    public boolean contains(long categoryId) {
+        return positions.containsKey(categoryId);
+    }
+    
+    public Category get(long categoryId) {
+        Integer position = positions.get(categoryId);
+        return position != null ? new Category(categories[position]) : null;
+    }
+    
+    public List<Category> getRoots() {
+        List<Category> roots = new ArrayList<>();
+        for (int i = 0; i < categories.length; i = subtreeEnd[i]) {
+            roots.add(new Category(categories[i]));
+        }
+        return roots;
+    }
+    
+    public List<Category> getChildren(long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return Collections.emptyList();
+        }
+        List<Category> children = new ArrayList<>();
+        for (int i = position + 1; i < subtreeEnd[position]; i = subtreeEnd[i]) {
+            children.add(new Category(categories[i]));
+        }
+        return children;
+    }
+    
+    /**
+     * Every category below this one, in preorder; empty for an unknown id.
+     */
+    public List<Category> getDescendants(long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return Collections.emptyList();
+        }
+        List<Category> descendants = new ArrayList<>(subtreeEnd[position] - position - 1);
+        for (int i = position + 1; i < subtreeEnd[position]; i++) {
+            descendants.add(new Category(categories[i]));
+        }
+        return descendants;
+    }
+    
+    /**
+     * The breadcrumb from the root down to this category, inclusive; empty for an unknown id.
+     */
+    public List<Category> getPath(long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return Collections.emptyList();
+        }
+        Category[] path = new Category[depth[position] + 1];
+        for (int i = position, level = depth[position]; i >= 0; i = parent[i], level--) {
+            path[level] = new Category(categories[i]);
+        }
+        return List.of(path);
+    }
+    
+    /**
+     * Levels above the category, 0 for a root and -1 for an unknown id.
+     */
+    public int getDepth(long categoryId) {
+        Integer position = positions.get(categoryId);
+        return position != null ? depth[position] : -1;
+    }
+    
+    /**
+     * True if ancestorId is a proper ancestor of categoryId.
+     */
+    public boolean isAncestor(long ancestorId, long categoryId) {
+        Integer ancestor = positions.get(ancestorId);
+        Integer descendant = positions.get(categoryId);
+        return ancestor != null && descendant != null
+            && ancestor < descendant && descendant < subtreeEnd[ancestor];
+    }
+    
+    /**
+     * True if making newParentId the parent of categoryId would close a loop,
+     * i.e. the new parent is the category itself or one of its descendants.
+     */
+    public boolean wouldCreateCycle(long categoryId, Long newParentId) {
+        return newParentId != null
+            && (Objects.equals(newParentId, categoryId) || isAncestor(categoryId, newParentId));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.dao;
+
+import com.example.model.Customer;
+import com.example.util.Column;
+import com.example.util.Table;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Typed columns of the customer table for {@link CustomerDAO#query()}.
+ */
+public final class CustomerColumns {
+    
+    public static final Table<Customer> TABLE = new Table<>("customer");
+    
+    public static final Column<Customer, Long> CUSTOMER_ID = TABLE.column("customer_id", Long.class);
+    public static final Column<Customer, String> FIRST_NAME = TABLE.column("first_name", String.class);
+    public static final Column<Customer, String> LAST_NAME = TABLE.column("last_name", String.class);
+    public static final Column<Customer, String> EMAIL = TABLE.column("email", String.class);
+    public static final Column<Customer, String> PHONE = TABLE.column("phone", String.class);
+    public static final Column<Customer, String> ADDRESS = TABLE.column("address", String.class);
+    public static final Column<Customer, String> CITY = TABLE.column("city", String.class);
+    public static final Column<Customer, String> STATE = TABLE.column("state", String.class);
+    public static final Column<Customer, String> ZIP_CODE = TABLE.column("zip_code", String.class);
+    public static final Column<Customer, String> COUNTRY = TABLE.column("country", String.class);
+    public static final Column<Customer, Date> CREATED_DATE = TABLE.column("created_date", Date.class);
+    public static final Column<Customer, Date> MODIFIED_DATE = TABLE.column("modified_date", Date.class);
+    public static final Column<Customer, String> STATUS = TABLE.column("status", String.class);
+    public static final Column<Customer, BigDecimal> CREDIT_LIMIT = TABLE.column("credit_limit", BigDecimal.class);
+    public static final Column<Customer, String> CUSTOMER_TYPE = TABLE.column("customer_type", String.class);
+    
+    private CustomerColumns() {}
+}
@@ -1,13 +1,33 @@
 package com.example.dao;
 
 import com.example.model.Customer;
+import com.example.model.CustomerContact;
+import com.example.model.CustomerSummary;
+import com.example.util.BatchExecutor;
+import com.example.util.BatchResult;
+import com.example.util.ColumnMapper;
 import com.example.util.ConnectionManager;
+import com.example.util.EntityCache;
+import com.example.util.InListQuery;
+import com.example.util.KeysetPager;
+import com.example.util.MaterializedCounters;
+import com.example.util.Page;
+import com.example.util.Projections;
+import com.example.util.QueryBuilder;
+import com.example.util.ReportQuery;
+import com.example.util.ResultSetStream;
+import com.example.util.SqlCatalog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Customer entity with extensive SQL operations
@@ -16,6 +36,11 @@ public class CustomerDAO {
     
     private static final Logger logger = LoggerFactory.getLogger(CustomerDAO.class);
     
+    // Listing names embedded in continuation tokens
+    private static final String PAGE_BY_ID = "customer.id";
+    
+    private static final String PAGE_BY_CREATED_DATE = "customer.createdDate";
+    
     // Basic CRUD SQL Strings
     private static final String INSERT_CUSTOMER = "INSERT INTO customer (customer_id, first_name, last_name, email, phone, address, city, state, zip_code, country, created_date, modified_date, status, credit_limit, customer_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT, CURRENT, ?, ?, ?)";
     
@@ -27,6 +52,10 @@ public class CustomerDAO {
     
     private static final String SELECT_ALL = "SELECT customer_id, first_name, last_name, email, phone, address, city, state, zip_code, country, created_date, modified_date, status, credit_limit, customer_type FROM customer";
     
+    private static final String SELECT_BY_ID_IN = SELECT_ALL + " WHERE customer_id IN ";
+    
+    private static final String DELETE_BY_ID_IN = "DELETE FROM customer WHERE customer_id IN ";
+    
     // Search queries
     private static final String SELECT_BY_EMAIL = "SELECT customer_id, first_name, last_name, email, phone, address, city, state, zip_code, country, created_date, modified_date, status, credit_limit, customer_type FROM customer WHERE email = ?";
     
@@ -351,6 +380,15 @@ public class CustomerDAO {
     
     private static final String SELECT_PAGE_GENERIC = "SELECT SKIP ? FIRST ? customer_id, first_name, last_name, email FROM customer ORDER BY customer_id";
     
+    // Keyset pagination: seek past the last key seen instead of skipping rows
+    private static final String SELECT_PAGE_FIRST = "SELECT FIRST ? customer_id, first_name, last_name, email, phone, address, city, state, zip_code, country, created_date, modified_date, status, credit_limit, customer_type FROM customer ORDER BY customer_id";
+    
+    private static final String SELECT_PAGE_AFTER_ID = "SELECT FIRST ? customer_id, first_name, last_name, email, phone, address, city, state, zip_code, country, created_date, modified_date, status, credit_limit, customer_type FROM customer WHERE customer_id > ? ORDER BY customer_id";
+    
+    private static final String SELECT_PAGE_BY_CREATED_DATE_FIRST = "SELECT FIRST ? customer_id, first_name, last_name, email, phone, address, city, state, zip_code, country, created_date, modified_date, status, credit_limit, customer_type FROM customer ORDER BY created_date, customer_id";
+    
+    private static final String SELECT_PAGE_BY_CREATED_DATE_AFTER = "SELECT FIRST ? customer_id, first_name, last_name, email, phone, address, city, state, zip_code, country, created_date, modified_date, status, credit_limit, customer_type FROM customer WHERE created_date >= ? AND (created_date > ? OR customer_id > ?) ORDER BY created_date, customer_id";
+    
     // Additional field combinations
     private static final String SELECT_BY_FIRST_AND_EMAIL = "SELECT customer_id, first_name, last_name, email FROM customer WHERE first_name = ? AND email = ?";
     
@@ -563,30 +601,81 @@ public class CustomerDAO {
     
     private static final String SELECT_INVALID_STATUS = "SELECT customer_id, first_name, last_name, status FROM customer WHERE status NOT IN ('ACTIVE', 'INACTIVE', 'PENDING', 'SUSPENDED')";
     
+    private static final ColumnMapper<Customer> CUSTOMER_MAPPER = ColumnMapper.builder(Customer::new)
+        .longValue("customer_id", Customer::setCustomerId)
+        .string("first_name", Customer::setFirstName)
+        .string("last_name", Customer::setLastName)
+        .string("email", Customer::setEmail)
+        .string("phone", Customer::setPhone)
+        .string("address", Customer::setAddress)
+        .string("city", Customer::setCity)
+        .string("state", Customer::setState)
+        .string("zip_code", Customer::setZipCode)
+        .string("country", Customer::setCountry)
+        .date("created_date", Customer::setCreatedDate)
+        .date("modified_date", Customer::setModifiedDate)
+        .string("status", Customer::setStatus)
+        .bigDecimal("credit_limit", Customer::setCreditLimit)
+        .string("customer_type", Customer::setCustomerType)
+        .build();
+    
+    static {
+        SqlCatalog.register(CustomerDAO.class);
+    }
+    
+    // Read-through cache for findById, enabled with db.cache.customer.enabled
+    private static final EntityCache<Long, Customer> CACHE = EntityCache.fromConfig("customer", Customer::new);
+    
     public CustomerDAO() {
     }
     
+    /**
+     * The findById cache shared by all CustomerDAO instances, for statistics.
+     */
+    public static EntityCache<Long, Customer> getCache() {
+        return CACHE;
+    }
+    
+    /**
+     * Starts an ad hoc query over the customer table, built from {@link CustomerColumns}.
+     * Prefer it to adding another SELECT_BY_* constant for a new combination of filters.
+     */
+    public QueryBuilder<Customer> query() {
+        return QueryBuilder.from(CustomerColumns.TABLE, CUSTOMER_MAPPER);
+    }
+    
+    /**
+     * Report and export statements for {@link com.example.util.ReportEngine}
+     * and {@link com.example.util.Exporter}.
+     */
+    public ReportQuery emailListExport() {
+        return ReportQuery.of(SELECT_EMAIL_LIST);
+    }
+    
+    public ReportQuery phoneListExport() {
+        return ReportQuery.of(SELECT_PHONE_LIST);
+    }
+    
+    public ReportQuery creditReport() {
+        return ReportQuery.of(SELECT_CREDIT_REPORT);
+    }
+    
+    public ReportQuery customerSummaryReport() {
+        return ReportQuery.of(SELECT_CUSTOMER_SUMMARY_REPORT);
+    }
+    
     public void insert(Customer customer) throws SQLException {
+        MaterializedCounters.PendingWrite counting = beginCountedWrite();
         Connection conn = null;
         PreparedStatement stmt = null;
         try {
             conn = ConnectionManager.getConnection();
             stmt = conn.prepareStatement(INSERT_CUSTOMER);
-            stmt.setLong(1, customer.getCustomerId());
-            stmt.setString(2, customer.getFirstName());
-            stmt.setString(3, customer.getLastName());
-            stmt.setString(4, customer.getEmail());
-            stmt.setString(5, customer.getPhone());
-            stmt.setString(6, customer.getAddress());
-            stmt.setString(7, customer.getCity());
-            stmt.setString(8, customer.getState());
-            stmt.setString(9, customer.getZipCode());
-            stmt.setString(10, customer.getCountry());
-            stmt.setString(11, customer.getStatus());
-            stmt.setBigDecimal(12, customer.getCreditLimit());
-            stmt.setString(13, customer.getCustomerType());
+            bindInsert(stmt, customer);
             stmt.executeUpdate();
+            countInserted(customer);
         } finally {
+            counting.end();
             if (stmt != null) stmt.close();
             ConnectionManager.closeConnection(conn);
         }
@@ -598,41 +687,324 @@ public class CustomerDAO {
         try {
             conn = ConnectionManager.getConnection();
             stmt = conn.prepareStatement(UPDATE_CUSTOMER);
-            stmt.setString(1, customer.getFirstName());
-            stmt.setString(2, customer.getLastName());
-            stmt.setString(3, customer.getEmail());
-            stmt.setString(4, customer.getPhone());
-            stmt.setString(5, customer.getAddress());
-            stmt.setString(6, customer.getCity());
-            stmt.setString(7, customer.getState());
-            stmt.setString(8, customer.getZipCode());
-            stmt.setString(9, customer.getCountry());
-            stmt.setString(10, customer.getStatus());
-            stmt.setBigDecimal(11, customer.getCreditLimit());
-            stmt.setString(12, customer.getCustomerType());
-            stmt.setLong(13, customer.getCustomerId());
+            bindUpdate(stmt, customer);
             stmt.executeUpdate();
         } finally {
+            CACHE.invalidate(customer.getCustomerId());
+            statusesChanged();
             if (stmt != null) stmt.close();
             ConnectionManager.closeConnection(conn);
         }
     }
     
+    /**
+     * Inserts customers with JDBC batching, committing every db.batch.size rows.
+     * Rows that fail are reported in the result instead of aborting the load.
+     */
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        MaterializedCounters.PendingWrite counting = beginCountedWrite();
+        try {
+            return countInserted(customers, BatchExecutor.execute(INSERT_CUSTOMER, customers, CustomerDAO::bindInsert));
+        } finally {
+            counting.end();
+        }
+    }
+    
+    public BatchResult<Customer> insertAll(Collection<Customer> customers, int batchSize) throws SQLException {
+        MaterializedCounters.PendingWrite counting = beginCountedWrite();
+        try {
+            return countInserted(customers, BatchExecutor.execute(INSERT_CUSTOMER, customers, CustomerDAO::bindInsert, batchSize));
+        } finally {
+            counting.end();
+        }
+    }
+    
+    /**
+     * Updates customers with JDBC batching. A customer whose row no longer
+     * exists is reported as a failure.
+     */
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        try {
+            return BatchExecutor.execute(UPDATE_CUSTOMER, customers, CustomerDAO::bindUpdate);
+        } finally {
+            for (Customer customer : customers) {
+                CACHE.invalidate(customer.getCustomerId());
+            }
+            statusesChanged();
+        }
+    }
+    
+    public BatchResult<Customer> updateAll(Collection<Customer> customers, int batchSize) throws SQLException {
+        try {
+            return BatchExecutor.execute(UPDATE_CUSTOMER, customers, CustomerDAO::bindUpdate, batchSize);
+        } finally {
+            for (Customer customer : customers) {
+                CACHE.invalidate(customer.getCustomerId());
+            }
+            statusesChanged();
+        }
+    }
+    
     public void delete(Long customerId) throws SQLException {
+        MaterializedCounters.PendingWrite counting = beginCountedWrite();
         Connection conn = null;
         PreparedStatement stmt = null;
         try {
             conn = ConnectionManager.getConnection();
             stmt = conn.prepareStatement(DELETE_CUSTOMER);
             stmt.setLong(1, customerId);
-            stmt.executeUpdate();
+            countDeleted(stmt.executeUpdate());
         } finally {
+            counting.end();
+            CACHE.invalidate(customerId);
             if (stmt != null) stmt.close();
             ConnectionManager.closeConnection(conn);
         }
     }
     
+    public int updateFirstName(Long customerId, String firstName) throws SQLException {
+        return updateById(UPDATE_FIRST_NAME, customerId, firstName);
+    }
+    
+    public int updateLastName(Long customerId, String lastName) throws SQLException {
+        return updateById(UPDATE_LAST_NAME, customerId, lastName);
+    }
+    
+    public int updateEmail(Long customerId, String email) throws SQLException {
+        return updateById(UPDATE_EMAIL, customerId, email);
+    }
+    
+    public int updatePhone(Long customerId, String phone) throws SQLException {
+        return updateById(UPDATE_PHONE, customerId, phone);
+    }
+    
+    public int updateAddress(Long customerId, String address) throws SQLException {
+        return updateById(UPDATE_ADDRESS, customerId, address);
+    }
+    
+    public int updateCity(Long customerId, String city) throws SQLException {
+        return updateById(UPDATE_CITY, customerId, city);
+    }
+    
+    public int updateState(Long customerId, String state) throws SQLException {
+        return updateById(UPDATE_STATE, customerId, state);
+    }
+    
+    public int updateZipCode(Long customerId, String zipCode) throws SQLException {
+        return updateById(UPDATE_ZIP_CODE, customerId, zipCode);
+    }
+    
+    public int updateCountry(Long customerId, String country) throws SQLException {
+        return updateById(UPDATE_COUNTRY, customerId, country);
+    }
+    
+    public int updateStatus(Long customerId, String status) throws SQLException {
+        try {
+            return updateById(UPDATE_STATUS, customerId, status);
+        } finally {
+            statusesChanged();
+        }
+    }
+    
+    public int updateCreditLimit(Long customerId, BigDecimal creditLimit) throws SQLException {
+        return updateById(UPDATE_CREDIT_LIMIT, customerId, creditLimit);
+    }
+    
+    public int updateCustomerType(Long customerId, String customerType) throws SQLException {
+        return updateById(UPDATE_CUSTOMER_TYPE, customerId, customerType);
+    }
+    
+    public int updateName(Long customerId, String firstName, String lastName) throws SQLException {
+        return updateById(UPDATE_NAME_CASE, customerId, firstName, lastName);
+    }
+    
+    public int updateContactInfo(Long customerId, String email, String phone) throws SQLException {
+        return updateById(UPDATE_CONTACT_INFO, customerId, email, phone);
+    }
+    
+    public int updateLocation(Long customerId, String address, String city, String state, String zipCode) throws SQLException {
+        return updateById(UPDATE_LOCATION, customerId, address, city, state, zipCode);
+    }
+    
+    /**
+     * Raises the credit limit by the given amount.
+     */
+    public int increaseCreditLimit(Long customerId, BigDecimal amount) throws SQLException {
+        return updateById(INCREASE_CREDIT_LIMIT, customerId, amount);
+    }
+    
+    /**
+     * Raises the credit limit by the given percentage, e.g. 10 for 10%.
+     */
+    public int increaseCreditLimitByPercent(Long customerId, BigDecimal percent) throws SQLException {
+        return updateById(UPDATE_CREDIT_BY_PERCENTAGE, customerId, percent);
+    }
+    
+    /**
+     * Sets the credit limit to the average of all active customers.
+     */
+    public int resetCreditLimitToAverage(Long customerId) throws SQLException {
+        return updateById(UPDATE_CREDIT_TO_AVG, customerId);
+    }
+    
+    /**
+     * Sets the status of every customer of the given type.
+     */
+    public int updateStatusByType(String status, String customerType) throws SQLException {
+        try {
+            return updateMany(UPDATE_STATUS_BY_TYPE, status, customerType);
+        } finally {
+            statusesChanged();
+        }
+    }
+    
+    /**
+     * Sets the status of every customer in the given city.
+     */
+    public int updateStatusByCity(String status, String city) throws SQLException {
+        try {
+            return updateMany(UPDATE_STATUS_BY_CITY, status, city);
+        } finally {
+            statusesChanged();
+        }
+    }
+    
+    /**
+     * Sets the status of every customer in the given state.
+     */
+    public int updateStatusByState(String status, String state) throws SQLException {
+        try {
+            return updateMany(UPDATE_STATUS_BY_STATE, status, state);
+        } finally {
+            statusesChanged();
+        }
+    }
+    
+    /**
+     * Sets the credit limit of every customer of the given type.
+     */
+    public int updateCreditLimitByType(BigDecimal creditLimit, String customerType) throws SQLException {
+        return updateMany(UPDATE_CREDIT_LIMIT_BY_TYPE, creditLimit, customerType);
+    }
+    
+    /**
+     * Sets the type of every customer whose credit limit exceeds the given amount.
+     */
+    public int updateTypeByCreditLimit(String customerType, BigDecimal minCreditLimit) throws SQLException {
+        return updateMany(UPDATE_TYPE_BY_CREDIT_LIMIT, customerType, minCreditLimit);
+    }
+    
+    /**
+     * Raises the credit limit of every active customer by 10%.
+     */
+    public int increaseActiveCreditLimits() throws SQLException {
+        return updateMany(UPDATE_ALL_CREDIT_INCREASE);
+    }
+    
+    /**
+     * Registers an insert or delete with the counts it adds deltas to; call
+     * it before the statement runs.
+     */
+    private static MaterializedCounters.PendingWrite beginCountedWrite() {
+        return MaterializedCounters.beginWrite(COUNT_ALL, COUNT_ACTIVE, COUNT_INACTIVE, COUNT_BY_STATUS);
+    }
+    
+    /**
+     * Adds the inserted customers to the materialized counts.
+     */
+    private static void countInserted(Customer customer) {
+        MaterializedCounters.add(COUNT_ALL, 1);
+        String status = customer.getStatus();
+        if (status != null) {
+            MaterializedCounters.add(COUNT_BY_STATUS, 1, status);
+            if ("ACTIVE".equals(status)) {
+                MaterializedCounters.add(COUNT_ACTIVE, 1);
+            } else if ("INACTIVE".equals(status)) {
+                MaterializedCounters.add(COUNT_INACTIVE, 1);
+            }
+        }
+    }
+    
+    private static BatchResult<Customer> countInserted(Collection<Customer> customers, BatchResult<Customer> result) {
+        Set<Integer> failed = new HashSet<>();
+        for (BatchResult.Failure<Customer> failure : result.getFailures()) {
+            failed.add(failure.getIndex());
+        }
+        int index = 0;
+        for (Customer customer : customers) {
+            if (!failed.contains(index++)) {
+                countInserted(customer);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Which status a deleted row had is not known, so the per-status counts are re-run.
+     */
+    private static void countDeleted(int deleted) {
+        if (deleted > 0) {
+            MaterializedCounters.add(COUNT_ALL, -deleted);
+            statusesChanged();
+        }
+    }
+    
+    private static void statusesChanged() {
+        MaterializedCounters.markStale(COUNT_ACTIVE);
+        MaterializedCounters.markStale(COUNT_INACTIVE);
+        MaterializedCounters.markStale(COUNT_BY_STATUS);
+    }
+    
+    /**
+     * Runs a single-row UPDATE whose last parameter is the customer id, then drops
+     * that customer from the findById cache.
+     */
+    private int updateById(String sql, Long customerId, Object... values) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, values[i]);
+            }
+            stmt.setLong(values.length + 1, customerId);
+            return stmt.executeUpdate();
+        } finally {
+            CACHE.invalidate(customerId);
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Runs an UPDATE that may touch any number of customers, then clears the findById cache.
+     */
+    private int updateMany(String sql, Object... values) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, values[i]);
+            }
+            return stmt.executeUpdate();
+        } finally {
+            CACHE.invalidateAll();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Looks the customer up in the findById cache first when it is enabled.
+     */
     public Customer findById(Long customerId) throws SQLException {
+        return CACHE.getOrLoad(customerId, this::loadById);
+    }
+    
+    private Customer loadById(Long customerId) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -642,7 +1014,7 @@ public class CustomerDAO {
             stmt.setLong(1, customerId);
             rs = stmt.executeQuery();
             if (rs.next()) {
-                return extractCustomer(rs);
+                return CUSTOMER_MAPPER.mapRow(rs);
             }
             return null;
         } finally {
@@ -652,6 +1024,27 @@ public class CustomerDAO {
         }
     }
     
+    /**
+     * Counts served from {@link MaterializedCounters}: each query runs once,
+     * the write methods of this DAO keep the result current, and a background
+     * reconcile corrects for writes made elsewhere.
+     */
+    public long countAll() throws SQLException {
+        return MaterializedCounters.count(COUNT_ALL).get();
+    }
+    
+    public long countActive() throws SQLException {
+        return MaterializedCounters.count(COUNT_ACTIVE).get();
+    }
+    
+    public long countInactive() throws SQLException {
+        return MaterializedCounters.count(COUNT_INACTIVE).get();
+    }
+    
+    public long countByStatus(String status) throws SQLException {
+        return MaterializedCounters.count(COUNT_BY_STATUS, status).get();
+    }
+    
     public List<Customer> findAll() throws SQLException {
         Connection conn = null;
         Statement stmt = null;
@@ -662,7 +1055,7 @@ public class CustomerDAO {
             stmt = conn.createStatement();
             rs = stmt.executeQuery(SELECT_ALL);
             while (rs.next()) {
-                customers.add(extractCustomer(rs));
+                customers.add(CUSTOMER_MAPPER.mapRow(rs));
             }
             return customers;
         } finally {
@@ -672,23 +1065,169 @@ public class CustomerDAO {
         }
     }
     
-    private Customer extractCustomer(ResultSet rs) throws SQLException {
-        Customer customer = new Customer();
-        customer.setCustomerId(rs.getLong("customer_id"));
-        customer.setFirstName(rs.getString("first_name"));
-        customer.setLastName(rs.getString("last_name"));
-        customer.setEmail(rs.getString("email"));
-        customer.setPhone(rs.getString("phone"));
-        customer.setAddress(rs.getString("address"));
-        customer.setCity(rs.getString("city"));
-        customer.setState(rs.getString("state"));
-        customer.setZipCode(rs.getString("zip_code"));
-        customer.setCountry(rs.getString("country"));
-        customer.setCreatedDate(rs.getDate("created_date"));
-        customer.setModifiedDate(rs.getDate("modified_date"));
-        customer.setStatus(rs.getString("status"));
-        customer.setCreditLimit(rs.getBigDecimal("credit_limit"));
-        customer.setCustomerType(rs.getString("customer_type"));
-        return customer;
+    /**
+     * Distinct email addresses of active customers, in alphabetical order.
+     */
+    public List<String> findEmailList() throws SQLException {
+        return Projections.strings(SELECT_EMAIL_LIST);
+    }
+    
+    /**
+     * Distinct phone numbers of active customers, sorted.
+     */
+    public List<String> findPhoneList() throws SQLException {
+        return Projections.strings(SELECT_PHONE_LIST);
+    }
+    
+    /**
+     * Active customers that can be reached by email or phone. Only the id,
+     * name, email and phone fields are populated.
+     *
+     * @see #findContacts()
+     */
+    public List<Customer> findContactList() throws SQLException {
+        return Projections.list(SELECT_CONTACT_LIST, CUSTOMER_MAPPER);
+    }
+    
+    /**
+     * Same rows as findContactList, as records holding only the contact columns.
+     */
+    public List<CustomerContact> findContacts() throws SQLException {
+        return Projections.list(SELECT_CONTACT_LIST, rs -> new CustomerContact(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)));
+    }
+    
+    public long[] findIdsByStatus(String status) throws SQLException {
+        return Projections.longs(SELECT_IDS_BY_STATUS, status);
+    }
+    
+    public List<String> findDistinctCities() throws SQLException {
+        return Projections.strings(SELECT_DISTINCT_CITIES);
+    }
+    
+    /**
+     * A page of customers in id order, skipping the first offset rows. Prefer
+     * findPage for deep paging; SKIP still reads every skipped row.
+     */
+    public List<CustomerSummary> findSummaryPage(int offset, int limit) throws SQLException {
+        return Projections.list(SELECT_PAGE_GENERIC, rs -> new CustomerSummary(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)), offset, limit);
+    }
+    
+    /**
+     * Loads the customers with the given ids, in the order given, using a few
+     * IN-list queries instead of one round trip per id. Ids already in the
+     * findById cache are not queried. Ids with no row are skipped.
+     */
+    public List<Customer> findByIds(Collection<Long> customerIds) throws SQLException {
+        return CACHE.getAllOrLoad(customerIds,
+            missing -> InListQuery.select(SELECT_BY_ID_IN, missing, CUSTOMER_MAPPER, Customer::getCustomerId), Customer::getCustomerId);
+    }
+    
+    /**
+     * Deletes the customers with the given ids and returns the number of rows removed.
+     */
+    public int deleteByIds(Collection<Long> customerIds) throws SQLException {
+        MaterializedCounters.PendingWrite counting = beginCountedWrite();
+        try {
+            int deleted = InListQuery.update(DELETE_BY_ID_IN, customerIds);
+            countDeleted(deleted);
+            return deleted;
+        } finally {
+            counting.end();
+            for (Long id : customerIds) {
+                if (id != null) {
+                    CACHE.invalidate(id);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Streams every row of the customer table without materializing it.
+     * The stream holds a pooled connection until it is closed.
+     */
+    public Stream<Customer> streamAll() throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, CUSTOMER_MAPPER);
+    }
+    
+    public Stream<Customer> streamAll(int fetchSize) throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, fetchSize, CUSTOMER_MAPPER);
+    }
+    
+    /**
+     * Returns up to limit customers with an id greater than lastId, in id order.
+     * Pass null for the first page.
+     */
+    public Page<Customer> findPageAfter(Long lastId, int limit) throws SQLException {
+        if (lastId == null) {
+            return KeysetPager.fetch(SELECT_PAGE_FIRST, PAGE_BY_ID, limit, CUSTOMER_MAPPER, CustomerDAO::idKey);
+        }
+        return KeysetPager.fetch(SELECT_PAGE_AFTER_ID, PAGE_BY_ID, limit, CUSTOMER_MAPPER, CustomerDAO::idKey, lastId);
+    }
+    
+    /**
+     * Returns the page of customers, in id order, that follows the given
+     * continuation token. Pass null for the first page.
+     */
+    public Page<Customer> findPage(String continuationToken, int limit) throws SQLException {
+        if (continuationToken == null) {
+            return findPageAfter(null, limit);
+        }
+        return findPageAfter((Long) KeysetPager.decode(PAGE_BY_ID, continuationToken, Long.class)[0], limit);
+    }
+    
+    /**
+     * Returns the page of customers ordered by created date, oldest first, that
+     * follows the given continuation token. Ties on created date are broken by id.
+     */
+    public Page<Customer> findPageOrderByCreatedDate(String continuationToken, int limit) throws SQLException {
+        if (continuationToken == null) {
+            return KeysetPager.fetch(SELECT_PAGE_BY_CREATED_DATE_FIRST, PAGE_BY_CREATED_DATE, limit,
+                CUSTOMER_MAPPER, CustomerDAO::createdDateKey);
+        }
+        Object[] key = KeysetPager.decode(PAGE_BY_CREATED_DATE, continuationToken, Timestamp.class, Long.class);
+        return KeysetPager.fetch(SELECT_PAGE_BY_CREATED_DATE_AFTER, PAGE_BY_CREATED_DATE, limit,
+            CUSTOMER_MAPPER, CustomerDAO::createdDateKey, key[0], key[0], key[1]);
+    }
+    
+    private static Object[] idKey(ResultSet rs) throws SQLException {
+        return new Object[] { rs.getLong("customer_id") };
+    }
+    
+    private static Object[] createdDateKey(ResultSet rs) throws SQLException {
+        return new Object[] { rs.getTimestamp("created_date"), rs.getLong("customer_id") };
+    }
+    
+    private static void bindInsert(PreparedStatement stmt, Customer customer) throws SQLException {
+        stmt.setLong(1, customer.getCustomerId());
+        stmt.setString(2, customer.getFirstName());
+        stmt.setString(3, customer.getLastName());
+        stmt.setString(4, customer.getEmail());
+        stmt.setString(5, customer.getPhone());
+        stmt.setString(6, customer.getAddress());
+        stmt.setString(7, customer.getCity());
+        stmt.setString(8, customer.getState());
+        stmt.setString(9, customer.getZipCode());
+        stmt.setString(10, customer.getCountry());
+        stmt.setString(11, customer.getStatus());
+        stmt.setBigDecimal(12, customer.getCreditLimit());
+        stmt.setString(13, customer.getCustomerType());
+    }
+    
+    private static void bindUpdate(PreparedStatement stmt, Customer customer) throws SQLException {
+        stmt.setString(1, customer.getFirstName());
+        stmt.setString(2, customer.getLastName());
+        stmt.setString(3, customer.getEmail());
+        stmt.setString(4, customer.getPhone());
+        stmt.setString(5, customer.getAddress());
+        stmt.setString(6, customer.getCity());
+        stmt.setString(7, customer.getState());
+        stmt.setString(8, customer.getZipCode());
+        stmt.setString(9, customer.getCountry());
+        stmt.setString(10, customer.getStatus());
+        stmt.setBigDecimal(11, customer.getCreditLimit());
+        stmt.setString(12, customer.getCustomerType());
+        stmt.setLong(13, customer.getCustomerId());
     }
 }
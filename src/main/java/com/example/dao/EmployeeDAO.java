@@ -1,9 +1,22 @@
 package com.example.dao;
 
+import com.example.config.DatabaseConfig;
 import com.example.model.Employee;
+import com.example.util.ColumnMapper;
 import com.example.util.ConnectionManager;
+import com.example.util.InListQuery;
+import com.example.util.Projections;
+import com.example.util.ResultSetStream;
+import com.example.util.SnapshotCache;
+import com.example.util.SqlCatalog;
+import com.example.util.TransactionTemplate;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Employee entity
@@ -18,6 +31,12 @@ public class EmployeeDAO {
     private static final String SELECT_BY_ID = "SELECT employee_id, first_name, last_name, email, phone, department, position, manager_id, hire_date, birth_date, status, address, city, state, zip_code, created_date, modified_date FROM employee WHERE employee_id = ?";
     private static final String SELECT_ALL = "SELECT employee_id, first_name, last_name, email, phone, department, position, manager_id, hire_date, birth_date, status, address, city, state, zip_code, created_date, modified_date FROM employee";
     
+    private static final String SELECT_BY_ID_IN = SELECT_ALL + " WHERE employee_id IN ";
+    
+    private static final String DELETE_BY_ID_IN = "DELETE FROM employee WHERE employee_id IN ";
+    
+    private static final String SELECT_HIERARCHY = "SELECT employee_id, manager_id, department FROM employee";
+    
     // Search queries - SQL strings 2211-2250
     private static final String SELECT_BY_EMAIL = "SELECT employee_id, first_name, last_name, email, phone, department, position, manager_id, hire_date, birth_date, status, address, city, state, zip_code, created_date, modified_date FROM employee WHERE email = ?";
     private static final String SELECT_BY_PHONE = "SELECT employee_id, first_name, last_name, email, phone, department, position, manager_id, hire_date, birth_date, status, address, city, state, zip_code, created_date, modified_date FROM employee WHERE phone = ?";
@@ -67,6 +86,7 @@ public class EmployeeDAO {
     private static final String UPDATE_DEPARTMENT = "UPDATE employee SET department = ?, modified_date = CURRENT WHERE employee_id = ?";
     private static final String UPDATE_POSITION = "UPDATE employee SET position = ?, modified_date = CURRENT WHERE employee_id = ?";
     private static final String UPDATE_MANAGER = "UPDATE employee SET manager_id = ?, modified_date = CURRENT WHERE employee_id = ?";
+    private static final String SELECT_MANAGER_FOR_UPDATE = "SELECT manager_id FROM employee WHERE employee_id = ? FOR UPDATE";
     private static final String UPDATE_STATUS = "UPDATE employee SET status = ?, modified_date = CURRENT WHERE employee_id = ?";
     private static final String UPDATE_ADDRESS = "UPDATE employee SET address = ?, city = ?, state = ?, zip_code = ?, modified_date = CURRENT WHERE employee_id = ?";
     private static final String PROMOTE_EMPLOYEE = "UPDATE employee SET position = ?, modified_date = CURRENT WHERE employee_id = ?";
@@ -116,5 +136,182 @@ public class EmployeeDAO {
     private static final String SELECT_HEADCOUNT_BY_DEPT = "SELECT department, COUNT(*) as headcount FROM employee WHERE status = 'ACTIVE' GROUP BY department ORDER BY headcount DESC";
     private static final String SELECT_TURNOVER_REPORT = "SELECT department, COUNT(CASE WHEN status = 'INACTIVE' THEN 1 END) as left, COUNT(CASE WHEN status = 'ACTIVE' THEN 1 END) as active FROM employee GROUP BY department";
     
+    private static final ColumnMapper<Employee> EMPLOYEE_MAPPER = ColumnMapper.builder(Employee::new)
+        .longValue("employee_id", Employee::setEmployeeId)
+        .string("first_name", Employee::setFirstName)
+        .string("last_name", Employee::setLastName)
+        .string("email", Employee::setEmail)
+        .string("phone", Employee::setPhone)
+        .string("department", Employee::setDepartment)
+        .string("position", Employee::setPosition)
+        .nullableLong("manager_id", Employee::setManagerId)
+        .date("hire_date", Employee::setHireDate)
+        .date("birth_date", Employee::setBirthDate)
+        .string("status", Employee::setStatus)
+        .string("address", Employee::setAddress)
+        .string("city", Employee::setCity)
+        .string("state", Employee::setState)
+        .string("zip_code", Employee::setZipCode)
+        .date("created_date", Employee::setCreatedDate)
+        .date("modified_date", Employee::setModifiedDate)
+        .build();
+    
+    static {
+        SqlCatalog.register(EmployeeDAO.class);
+    }
+    
+    // Reporting lines of the whole table, rebuilt after a delete or once db.snapshot.employee.ttlMillis old,
+    // and patched after a manager change or transfer
+    private static final SnapshotCache<EmployeeHierarchy> HIERARCHY = new SnapshotCache<>(() -> EmployeeHierarchy.build(
+        Projections.list(SELECT_HIERARCHY, rs -> new EmployeeHierarchy.Row(
+            rs.getLong(1), rs.getObject(2, Long.class), rs.getString(3)))), DatabaseConfig.getSnapshotTtlMillis("employee"));
+    
     public EmployeeDAO() {}
+    
+    /**
+     * The cached reporting hierarchy, for reporting chains and report counts
+     * without a round trip per level. Loaded from the table on first use.
+     */
+    public EmployeeHierarchy getHierarchy() throws SQLException {
+        return HIERARCHY.get();
+    }
+    
+    /**
+     * Drops the cached hierarchy so the next read rebuilds it, e.g. after
+     * hires or manager changes made by another process or plain SQL.
+     */
+    public void refreshHierarchy() {
+        HIERARCHY.invalidate();
+    }
+    
+    /**
+     * Makes the employee report to a new manager, or to no one with null.
+     * The change is written and then checked by walking up from the new
+     * manager in the same transaction, locking each row on the way, so the
+     * check sees changes made by other nodes and is rolled back on a cycle.
+     *
+     * @throws IllegalArgumentException if the new manager is the employee
+     *         or someone who already reports to them; nothing is written
+     */
+    public void updateManager(long employeeId, Long managerId) throws SQLException {
+        int updated = TransactionTemplate.execute(tx -> {
+            int count = writeManager(employeeId, managerId);
+            if (count > 0 && reportsTo(managerId, employeeId)) {
+                throw new IllegalArgumentException("Employee " + employeeId + " cannot report to " + managerId
+                    + " without creating a cycle");
+            }
+            return count;
+        });
+        if (updated > 0) {
+            HIERARCHY.update(hierarchy -> hierarchy.withManager(employeeId, managerId));
+        }
+    }
+    
+    /**
+     * True if the employee is the given manager or somewhere above them in
+     * the table. A cycle elsewhere in the chain ends the walk.
+     */
+    private boolean reportsTo(Long employeeId, long managerId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(SELECT_MANAGER_FOR_UPDATE);
+            Set<Long> seen = new HashSet<>();
+            Long id = employeeId;
+            while (id != null && seen.add(id)) {
+                if (id == managerId) {
+                    return true;
+                }
+                stmt.setLong(1, id);
+                rs = stmt.executeQuery();
+                Long manager = null;
+                if (rs.next()) {
+                    long value = rs.getLong(1);
+                    manager = rs.wasNull() ? null : value;
+                }
+                rs.close();
+                rs = null;
+                id = manager;
+            }
+            return false;
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    private int writeManager(long employeeId, Long managerId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(UPDATE_MANAGER);
+            if (managerId != null) {
+                stmt.setLong(1, managerId);
+            } else {
+                stmt.setNull(1, Types.BIGINT);
+            }
+            stmt.setLong(2, employeeId);
+            return stmt.executeUpdate();
+        } finally {
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Moves the employee to another department.
+     */
+    public void transferEmployee(long employeeId, String department) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        int updated;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(TRANSFER_EMPLOYEE);
+            stmt.setString(1, department);
+            stmt.setLong(2, employeeId);
+            updated = stmt.executeUpdate();
+        } finally {
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+        if (updated > 0) {
+            HIERARCHY.update(hierarchy -> hierarchy.withDepartment(employeeId, department));
+        }
+    }
+    
+    /**
+     * Loads the employees with the given ids, in the order given, using a few
+     * IN-list queries instead of one round trip per id. Ids with no row are skipped.
+     */
+    public List<Employee> findByIds(Collection<Long> employeeIds) throws SQLException {
+        return InListQuery.select(SELECT_BY_ID_IN, employeeIds, EMPLOYEE_MAPPER, Employee::getEmployeeId);
+    }
+    
+    /**
+     * Deletes the employees with the given ids and returns the number of rows removed.
+     */
+    public int deleteByIds(Collection<Long> employeeIds) throws SQLException {
+        try {
+            return InListQuery.update(DELETE_BY_ID_IN, employeeIds);
+        } finally {
+            HIERARCHY.invalidate();
+        }
+    }
+    
+    /**
+     * Streams every row of the employee table without materializing it.
+     * The stream holds a pooled connection until it is closed.
+     */
+    public Stream<Employee> streamAll() throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, EMPLOYEE_MAPPER);
+    }
+    
+    public Stream<Employee> streamAll(int fetchSize) throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, fetchSize, EMPLOYEE_MAPPER);
+    }
 }
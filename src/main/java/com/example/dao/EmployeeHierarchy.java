@@ -0,0 +1,289 @@
+package com.example.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Immutable index of the reporting lines in the employee table, built from
+ * employee.manager_id. Direct and transitive report counts are precomputed,
+ * so reporting chains and counts take one step per management level and no
+ * round trips. A manager or department change produces a patched copy that
+ * only recomputes the affected chains, instead of reloading the table.
+ *
+ * Every employee is included whatever their status. A manager_id pointing
+ * at no known employee is treated as no manager, and a manager cycle stops
+ * the chain where it repeats.
+ */
+public final class EmployeeHierarchy {
+    
+    /**
+     * Span of control of the managers in one department.
+     */
+    public record SpanOfControl(String department, int employees, int managers, int maxDirectReports,
+                                double averageDirectReports) {
+    }
+    
+    /**
+     * The columns of one employee that the index is built from.
+     */
+    public record Row(long employeeId, Long managerId, String department) {
+    }
+    
+    private static final int NO_MANAGER = -1;
+    
+    // Sorted, so an id is found by binary search; the other arrays are indexed the same way
+    private final long[] ids;
+    private final int[] manager;
+    private final String[] department;
+    private final int[] directReports;
+    private final int[] totalReports;
+    private final Map<String, int[]> members;
+    
+    private EmployeeHierarchy(long[] ids, int[] manager, String[] department, int[] directReports,
+                              int[] totalReports, Map<String, int[]> members) {
+        this.ids = ids;
+        this.manager = manager;
+        this.department = department;
+        this.directReports = directReports;
+        this.totalReports = totalReports;
+        this.members = members;
+    }
+    
+    /**
+     * Builds the index from one row per employee.
+     */
+    public static EmployeeHierarchy build(List<Row> rows) {
+        List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingLong(Row::employeeId));
+        int n = sorted.size();
+        long[] ids = new long[n];
+        String[] department = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = sorted.get(i).employeeId();
+            department[i] = sorted.get(i).department();
+        }
+        int[] manager = new int[n];
+        int[] directReports = new int[n];
+        for (int i = 0; i < n; i++) {
+            Long managerId = sorted.get(i).managerId();
+            int m = managerId != null ? Arrays.binarySearch(ids, managerId) : NO_MANAGER;
+            manager[i] = m >= 0 && m != i ? m : NO_MANAGER;
+            if (manager[i] != NO_MANAGER) {
+                directReports[manager[i]]++;
+            }
+        }
+        int[] totalReports = new int[n];
+        int[] seen = new int[n];
+        for (int i = 0; i < n; i++) {
+            // Stamp each walk with i + 1 so a cycle is noticed on the first repeat
+            seen[i] = i + 1;
+            for (int m = manager[i]; m != NO_MANAGER && seen[m] != i + 1; m = manager[m]) {
+                seen[m] = i + 1;
+                totalReports[m]++;
+            }
+        }
+        return new EmployeeHierarchy(ids, manager, department, directReports, totalReports, index(department));
+    }
+    
+    public int size() {
+        return ids.length;
+    }
+    
+    public boolean contains(long employeeId) {
+        return Arrays.binarySearch(ids, employeeId) >= 0;
+    }
+    
+    /**
+     * The employee's manager, their manager, and so on up to the top; empty
+     * for an unknown employee or one with no manager.
+     */
+    public long[] getReportingChain(long employeeId) {
+        int i = Arrays.binarySearch(ids, employeeId);
+        if (i < 0) {
+            return new long[0];
+        }
+        long[] chain = new long[8];
+        int length = 0;
+        // Marks each position walked so a cycle above the employee stops at its first repeat
+        BitSet seen = new BitSet();
+        seen.set(i);
+        for (int m = manager[i]; m != NO_MANAGER && !seen.get(m); m = manager[m]) {
+            seen.set(m);
+            if (length == chain.length) {
+                chain = Arrays.copyOf(chain, length * 2);
+            }
+            chain[length++] = ids[m];
+        }
+        return Arrays.copyOf(chain, length);
+    }
+    
+    /**
+     * True if managerId appears anywhere in the employee's reporting chain.
+     */
+    public boolean reportsTo(long employeeId, long managerId) {
+        for (long id : getReportingChain(employeeId)) {
+            if (id == managerId) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public int getDirectReportCount(long employeeId) {
+        int i = Arrays.binarySearch(ids, employeeId);
+        return i >= 0 ? directReports[i] : 0;
+    }
+    
+    /**
+     * Everyone below the employee at any depth.
+     */
+    public int getTotalReportCount(long employeeId) {
+        int i = Arrays.binarySearch(ids, employeeId);
+        return i >= 0 ? totalReports[i] : 0;
+    }
+    
+    /**
+     * The managers with the most reports at any depth, most first. Unlike
+     * MANAGER_WITH_MOST_REPORTS, indirect reports count too.
+     */
+    public long[] getTopManagersByTotalReports(int limit) {
+        List<Integer> managers = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (totalReports[i] > 0) {
+                managers.add(i);
+            }
+        }
+        managers.sort((a, b) -> totalReports[b] != totalReports[a]
+            ? Integer.compare(totalReports[b], totalReports[a]) : Long.compare(ids[a], ids[b]));
+        long[] top = new long[Math.min(limit, managers.size())];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = ids[managers.get(i)];
+        }
+        return top;
+    }
+    
+    /**
+     * Span of control for one department: how many of its employees manage
+     * someone, and how many direct reports they have. Null for an unknown department.
+     */
+    public SpanOfControl getSpanOfControl(String dept) {
+        int[] staff = members.get(dept);
+        if (staff == null) {
+            return null;
+        }
+        int managers = 0;
+        int reports = 0;
+        int max = 0;
+        for (int i : staff) {
+            if (directReports[i] > 0) {
+                managers++;
+                reports += directReports[i];
+                max = Math.max(max, directReports[i]);
+            }
+        }
+        return new SpanOfControl(dept, staff.length, managers, max, managers == 0 ? 0.0 : (double) reports / managers);
+    }
+    
+    /**
+     * Span of control for every department, in department order.
+     */
+    public List<SpanOfControl> getSpanOfControlByDepartment() {
+        List<SpanOfControl> spans = new ArrayList<>(members.size());
+        for (String dept : members.keySet()) {
+            spans.add(getSpanOfControl(dept));
+        }
+        return spans;
+    }
+    
+    /**
+     * True if making managerId the employee's manager would put the employee
+     * above themselves.
+     */
+    public boolean wouldCreateCycle(long employeeId, Long managerId) {
+        return managerId != null && (managerId == employeeId || reportsTo(managerId, employeeId));
+    }
+    
+    /**
+     * A copy with the employee reporting to a new manager (null for none).
+     * Only the report counts along the old and new chains are recomputed.
+     * Returns null if the employee is not in this index, so the caller
+     * rebuilds from the table.
+     */
+    public EmployeeHierarchy withManager(long employeeId, Long managerId) {
+        int e = Arrays.binarySearch(ids, employeeId);
+        if (e < 0) {
+            return null;
+        }
+        int newManager = NO_MANAGER;
+        if (managerId != null) {
+            newManager = Arrays.binarySearch(ids, managerId);
+            if (newManager < 0) {
+                return null;
+            }
+        }
+        int[] manager = this.manager.clone();
+        int[] directReports = this.directReports.clone();
+        int[] totalReports = this.totalReports.clone();
+        int moved = totalReports[e] + 1;
+        int oldManager = manager[e];
+        if (oldManager != NO_MANAGER) {
+            directReports[oldManager]--;
+            adjustChain(manager, totalReports, oldManager, e, -moved);
+        }
+        manager[e] = newManager;
+        if (newManager != NO_MANAGER) {
+            directReports[newManager]++;
+            adjustChain(manager, totalReports, newManager, e, moved);
+        }
+        return new EmployeeHierarchy(ids, manager, department, directReports, totalReports, members);
+    }
+    
+    /**
+     * A copy with the employee moved to another department, or null if the
+     * employee is not in this index.
+     */
+    public EmployeeHierarchy withDepartment(long employeeId, String dept) {
+        int e = Arrays.binarySearch(ids, employeeId);
+        if (e < 0) {
+            return null;
+        }
+        if (Objects.equals(department[e], dept)) {
+            return this;
+        }
+        String[] department = this.department.clone();
+        department[e] = dept;
+        return new EmployeeHierarchy(ids, manager, department, directReports, totalReports, index(department));
+    }
+    
+    /**
+     * Adds delta to the total report count of start and every manager above
+     * it, stopping if the chain loops back.
+     */
+    private static void adjustChain(int[] manager, int[] totalReports, int start, int stop, int delta) {
+        int steps = 0;
+        for (int m = start; m != NO_MANAGER && m != stop && steps <= manager.length; m = manager[m], steps++) {
+            totalReports[m] += delta;
+        }
+    }
+    
+    private static Map<String, int[]> index(String[] department) {
+        Map<String, List<Integer>> byDept = new HashMap<>();
+        for (int i = 0; i < department.length; i++) {
+            if (department[i] != null) {
+                byDept.computeIfAbsent(department[i], k -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> members = new TreeMap<>();
+        for (Map.Entry<String, List<Integer>> entry : byDept.entrySet()) {
+            members.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return members;
+    }
+}
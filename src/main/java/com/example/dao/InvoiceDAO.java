@@ -1,9 +1,21 @@
 package com.example.dao;
 
 import com.example.model.Invoice;
+import com.example.util.AggregateBatch;
+import com.example.util.AggregateResult;
+import com.example.util.ColumnMapper;
 import com.example.util.ConnectionManager;
+import com.example.util.InListQuery;
+import com.example.util.MaterializedCounters;
+import com.example.util.ReportQuery;
+import com.example.util.ResultSetStream;
+import com.example.util.SqlCatalog;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Invoice entity
@@ -18,6 +30,10 @@ public class InvoiceDAO {
     private static final String SELECT_BY_ID = "SELECT invoice_id, order_id, customer_id, invoice_number, invoice_date, due_date, subtotal, tax_amount, total_amount, paid_amount, payment_status, notes, created_date, modified_date FROM invoice WHERE invoice_id = ?";
     private static final String SELECT_ALL = "SELECT invoice_id, order_id, customer_id, invoice_number, invoice_date, due_date, subtotal, tax_amount, total_amount, paid_amount, payment_status, notes, created_date, modified_date FROM invoice";
     
+    private static final String SELECT_BY_ID_IN = SELECT_ALL + " WHERE invoice_id IN ";
+    
+    private static final String DELETE_BY_ID_IN = "DELETE FROM invoice WHERE invoice_id IN ";
+    
     // Search queries - SQL strings 2611-2650
     private static final String SELECT_BY_INVOICE_NUMBER = "SELECT invoice_id, order_id, customer_id, invoice_number, invoice_date, due_date, subtotal, tax_amount, total_amount, paid_amount, payment_status, notes, created_date, modified_date FROM invoice WHERE invoice_number = ?";
     private static final String SELECT_BY_ORDER_ID = "SELECT invoice_id, order_id, customer_id, invoice_number, invoice_date, due_date, subtotal, tax_amount, total_amount, paid_amount, payment_status, notes, created_date, modified_date FROM invoice WHERE order_id = ?";
@@ -109,5 +125,175 @@ public class InvoiceDAO {
     private static final String SELECT_MONTHLY_RECEIVABLES = "SELECT YEAR(invoice_date) as year, MONTH(invoice_date) as month, SUM(total_amount - paid_amount) as receivables FROM invoice WHERE payment_status != 'PAID' GROUP BY year, month ORDER BY year DESC, month DESC";
     private static final String SELECT_INVOICE_COMPLETION_RATE = "SELECT COUNT(CASE WHEN payment_status = 'PAID' THEN 1 END) * 100.0 / NULLIF(COUNT(*), 0) as completion_rate FROM invoice WHERE invoice_date BETWEEN ? AND ?";
     
+    private static final ColumnMapper<Invoice> INVOICE_MAPPER = ColumnMapper.builder(Invoice::new)
+        .longValue("invoice_id", Invoice::setInvoiceId)
+        .longValue("order_id", Invoice::setOrderId)
+        .longValue("customer_id", Invoice::setCustomerId)
+        .string("invoice_number", Invoice::setInvoiceNumber)
+        .date("invoice_date", Invoice::setInvoiceDate)
+        .date("due_date", Invoice::setDueDate)
+        .bigDecimal("subtotal", Invoice::setSubtotal)
+        .bigDecimal("tax_amount", Invoice::setTaxAmount)
+        .bigDecimal("total_amount", Invoice::setTotalAmount)
+        .bigDecimal("paid_amount", Invoice::setPaidAmount)
+        .string("payment_status", Invoice::setPaymentStatus)
+        .string("notes", Invoice::setNotes)
+        .date("created_date", Invoice::setCreatedDate)
+        .date("modified_date", Invoice::setModifiedDate)
+        .build();
+    
+    static {
+        SqlCatalog.register(InvoiceDAO.class);
+    }
+    
     public InvoiceDAO() {}
+    
+    public void insert(Invoice invoice) throws SQLException {
+        MaterializedCounters.PendingWrite counting = beginCountedWrite();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(INSERT_INVOICE);
+            bindInsert(stmt, invoice);
+            stmt.executeUpdate();
+            countInserted(invoice);
+        } finally {
+            counting.end();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Counts and the outstanding balance served from {@link MaterializedCounters}:
+     * each query runs once, inserts through this DAO keep the result current,
+     * and a background reconcile corrects for writes made elsewhere.
+     */
+    public long countAll() throws SQLException {
+        return MaterializedCounters.count(COUNT_ALL).get();
+    }
+    
+    public long countByStatus(String paymentStatus) throws SQLException {
+        return MaterializedCounters.count(COUNT_BY_STATUS, paymentStatus).get();
+    }
+    
+    public BigDecimal sumOutstandingBalance() throws SQLException {
+        return MaterializedCounters.sum(SUM_OUTSTANDING_BALANCE, 2).getValue();
+    }
+    
+    /**
+     * The invoice dashboard figures, computed in one pass over the invoice
+     * table instead of one statement each.
+     */
+    public AggregateResult getDashboardTotals() throws SQLException {
+        return new AggregateBatch()
+            .add("invoices", COUNT_ALL)
+            .add("paid", COUNT_PAID)
+            .add("unpaid", COUNT_UNPAID)
+            .add("overdue", COUNT_OVERDUE)
+            .add("invoiced", SUM_ALL_INVOICES)
+            .add("paidAmount", SUM_PAID_INVOICES)
+            .add("unpaidAmount", SUM_UNPAID_INVOICES)
+            .add("outstanding", SUM_OUTSTANDING_BALANCE)
+            .add("averageInvoice", AVG_INVOICE_AMOUNT)
+            .add("largestInvoice", MAX_INVOICE_AMOUNT)
+            .execute();
+    }
+    
+    /**
+     * Report statements for {@link com.example.util.ReportEngine}.
+     */
+    public ReportQuery agingReport() {
+        return ReportQuery.of(SELECT_AGING_REPORT);
+    }
+    
+    public ReportQuery collectionReport() {
+        return ReportQuery.of(SELECT_COLLECTION_REPORT);
+    }
+    
+    public ReportQuery cashFlowProjection() {
+        return ReportQuery.of(SELECT_CASH_FLOW_PROJECTION);
+    }
+    
+    public ReportQuery overdueByAgingReport() {
+        return ReportQuery.of(SELECT_OVERDUE_BY_AGING);
+    }
+    
+    /**
+     * Registers an insert or delete with the counters it adds deltas to;
+     * call it before the statement runs.
+     */
+    private static MaterializedCounters.PendingWrite beginCountedWrite() {
+        return MaterializedCounters.beginWrite(COUNT_ALL, COUNT_BY_STATUS, SUM_OUTSTANDING_BALANCE);
+    }
+    
+    private static void countInserted(Invoice invoice) {
+        MaterializedCounters.add(COUNT_ALL, 1);
+        String status = invoice.getPaymentStatus();
+        if (status != null) {
+            MaterializedCounters.add(COUNT_BY_STATUS, 1, status);
+            // Matches the statement: NULL statuses and NULL amounts drop out
+            if (!"PAID".equals(status) && invoice.getTotalAmount() != null && invoice.getPaidAmount() != null) {
+                MaterializedCounters.add(SUM_OUTSTANDING_BALANCE, invoice.getTotalAmount().subtract(invoice.getPaidAmount()));
+            }
+        }
+    }
+    
+    private static void bindInsert(PreparedStatement stmt, Invoice invoice) throws SQLException {
+        stmt.setLong(1, invoice.getInvoiceId());
+        stmt.setLong(2, invoice.getOrderId());
+        stmt.setLong(3, invoice.getCustomerId());
+        stmt.setString(4, invoice.getInvoiceNumber());
+        stmt.setTimestamp(5, timestamp(invoice.getInvoiceDate()));
+        stmt.setTimestamp(6, timestamp(invoice.getDueDate()));
+        stmt.setBigDecimal(7, invoice.getSubtotal());
+        stmt.setBigDecimal(8, invoice.getTaxAmount());
+        stmt.setBigDecimal(9, invoice.getTotalAmount());
+        stmt.setBigDecimal(10, invoice.getPaidAmount());
+        stmt.setString(11, invoice.getPaymentStatus());
+        stmt.setString(12, invoice.getNotes());
+    }
+    
+    private static Timestamp timestamp(java.util.Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+    
+    /**
+     * Loads the invoices with the given ids, in the order given, using a few
+     * IN-list queries instead of one round trip per id. Ids with no row are skipped.
+     */
+    public List<Invoice> findByIds(Collection<Long> invoiceIds) throws SQLException {
+        return InListQuery.select(SELECT_BY_ID_IN, invoiceIds, INVOICE_MAPPER, Invoice::getInvoiceId);
+    }
+    
+    /**
+     * Deletes the invoices with the given ids and returns the number of rows removed.
+     */
+    public int deleteByIds(Collection<Long> invoiceIds) throws SQLException {
+        MaterializedCounters.PendingWrite counting = beginCountedWrite();
+        try {
+            int deleted = InListQuery.update(DELETE_BY_ID_IN, invoiceIds);
+            if (deleted > 0) {
+                MaterializedCounters.add(COUNT_ALL, -deleted);
+                MaterializedCounters.markStale(COUNT_BY_STATUS);
+                MaterializedCounters.markStale(SUM_OUTSTANDING_BALANCE);
+            }
+            return deleted;
+        } finally {
+            counting.end();
+        }
+    }
+    
+    /**
+     * Streams every row of the invoice table without materializing it.
+     * The stream holds a pooled connection until it is closed.
+     */
+    public Stream<Invoice> streamAll() throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, INVOICE_MAPPER);
+    }
+    
+    public Stream<Invoice> streamAll(int fetchSize) throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, fetchSize, INVOICE_MAPPER);
+    }
 }
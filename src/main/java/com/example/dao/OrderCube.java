@@ -0,0 +1,362 @@
+package com.example.dao;
+
+import com.example.model.Order;
+import com.example.util.ResultSetStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Order counts and revenue held in memory, keyed by order day, shipping
+ * state, order status, payment method and payment status. One streaming scan
+ * of the orders table fills it. After that it follows the inserts, status
+ * changes and deletes made through OrderDAO as an {@link OrderListener}, so
+ * the GROUP BY reports over orders are answered without a table scan.
+ *
+ * The cube also remembers each order's cell and amount, so a status change
+ * can move it from one cell to another. Writes made outside OrderDAO, by
+ * another process or through statements that change the date, state or
+ * amount of existing orders, are not seen until reload().
+ */
+public class OrderCube implements OrderListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderCube.class);
+    
+    private static final String SELECT_FACTS = "SELECT order_id, order_date, shipping_state, order_status, payment_method, payment_status, total_amount FROM orders";
+    
+    /**
+     * The columns a report can group by.
+     */
+    public enum Dimension {
+        DAY, MONTH, STATE, STATUS, PAYMENT_METHOD, PAYMENT_STATUS
+    }
+    
+    /**
+     * One row of a report: the values of the grouped dimensions, in the order
+     * they were asked for, with COUNT(*), SUM(total_amount) and AVG(total_amount).
+     */
+    public record Group(List<Object> key, long orders, BigDecimal revenue, BigDecimal averageOrder) {
+    }
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<CellKey, Cell> cells = new HashMap<>();
+    private final Map<Long, Fact> facts = new HashMap<>();
+    // Events that arrive while a scan runs, replayed over its result; null when no scan is running
+    private List<Runnable> pending;
+    
+    /**
+     * Rebuilds the cube from one scan of the orders table. Reports keep
+     * answering from the previous contents until the scan finishes.
+     */
+    public void reload() throws SQLException {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<CellKey, Cell> loadedCells = new HashMap<>();
+        Map<Long, Fact> loadedFacts = new HashMap<>();
+        try (Stream<Object[]> rows = ResultSetStream.stream(SELECT_FACTS, rs -> new Object[] {
+                rs.getLong(1), rs.getDate(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6),
+                rs.getBigDecimal(7) })) {
+            rows.forEach(row -> {
+                Date day = (Date) row[1];
+                CellKey key = new CellKey(day != null ? day.toLocalDate() : null, (String) row[2], (String) row[3],
+                    (String) row[4], (String) row[5]);
+                add(loadedCells, loadedFacts, (Long) row[0], key, cents((BigDecimal) row[6]));
+            });
+        } catch (SQLException | RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Runnable> missed = pending;
+            pending = null;
+            cells.clear();
+            cells.putAll(loadedCells);
+            facts.clear();
+            facts.putAll(loadedFacts);
+            // Every event sets absolute values, so replaying one the scan already saw is harmless
+            for (Runnable event : missed) {
+                event.run();
+            }
+            logger.debug("Order cube loaded: {} orders in {} cells, {} events replayed", facts.size(), cells.size(),
+                missed.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void orderInserted(Order order) {
+        CellKey key = new CellKey(localDate(order.getOrderDate()), order.getShippingState(), order.getOrderStatus(),
+            order.getPaymentMethod(), order.getPaymentStatus());
+        Long amount = cents(order.getTotalAmount());
+        long orderId = order.getOrderId();
+        apply(() -> {
+            remove(cells, facts, orderId);
+            add(cells, facts, orderId, key, amount);
+        });
+    }
+    
+    @Override
+    public void orderStatusChanged(long orderId, String orderStatus, String paymentStatus) {
+        apply(() -> {
+            Fact fact = remove(cells, facts, orderId);
+            if (fact != null) {
+                CellKey key = fact.key();
+                add(cells, facts, orderId, new CellKey(key.day(), key.state(),
+                    orderStatus != null ? orderStatus : key.status(), key.paymentMethod(),
+                    paymentStatus != null ? paymentStatus : key.paymentStatus()), fact.cents());
+            }
+        });
+    }
+    
+    @Override
+    public void ordersDeleted(Collection<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(orderIds);
+        apply(() -> {
+            for (Long orderId : ids) {
+                if (orderId != null) {
+                    remove(cells, facts, orderId);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Groups every order by the given dimensions, most revenue first; with
+     * no dimensions, one group for all orders.
+     */
+    public List<Group> rollUp(Dimension... dimensions) {
+        Map<List<Object>, Cell> groups = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<CellKey, Cell> entry : cells.entrySet()) {
+                Object[] values = new Object[dimensions.length];
+                for (int i = 0; i < dimensions.length; i++) {
+                    values[i] = entry.getKey().value(dimensions[i]);
+                }
+                groups.computeIfAbsent(Arrays.asList(values), k -> new Cell()).add(entry.getValue());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Group> result = new ArrayList<>(groups.size());
+        for (Map.Entry<List<Object>, Cell> entry : groups.entrySet()) {
+            result.add(entry.getValue().toGroup(entry.getKey()));
+        }
+        result.sort(Comparator.comparing(Group::revenue).reversed());
+        return result;
+    }
+    
+    /**
+     * Orders and revenue per calendar month, latest first, as
+     * ORDERS_BY_MONTH_GROUP and REVENUE_BY_MONTH_GROUP.
+     */
+    public List<Group> getRevenueByMonth() {
+        List<Group> months = rollUp(Dimension.MONTH);
+        months.sort(Comparator.comparing((Group g) -> (YearMonth) g.key().get(0),
+            Comparator.nullsLast(Comparator.reverseOrder())));
+        return months;
+    }
+    
+    /**
+     * Orders, revenue and average order per shipping state, most revenue
+     * first, as SUM_BY_STATE_GROUP and SELECT_REVENUE_BY_STATE_REPORT.
+     */
+    public List<Group> getRevenueByState() {
+        return rollUp(Dimension.STATE);
+    }
+    
+    /**
+     * Orders, revenue and average order per payment method, most revenue
+     * first, as COUNT_BY_PAYMENT_METHOD_GROUP and SELECT_PAYMENT_METHOD_REPORT.
+     */
+    public List<Group> getRevenueByPaymentMethod() {
+        return rollUp(Dimension.PAYMENT_METHOD);
+    }
+    
+    /**
+     * Orders, revenue and average order per order status, as SELECT_ORDER_STATUS_REPORT.
+     */
+    public List<Group> getRevenueByStatus() {
+        return rollUp(Dimension.STATUS);
+    }
+    
+    public int getOrderCount() {
+        lock.readLock().lock();
+        try {
+            return facts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int getCellCount() {
+        lock.readLock().lock();
+        try {
+            return cells.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void apply(Runnable event) {
+        lock.writeLock().lock();
+        try {
+            event.run();
+            if (pending != null) {
+                pending.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Counts the order in its cell. The fact keeps the cell's own key, so the
+     * orders of one cell share one key instead of each holding the copy it
+     * was looked up with.
+     */
+    private static void add(Map<CellKey, Cell> cells, Map<Long, Fact> facts, long orderId, CellKey key, Long cents) {
+        Cell cell = cells.computeIfAbsent(key, k -> new Cell(k.intern()));
+        cell.add(cents);
+        facts.put(orderId, new Fact(cell.key, cents));
+    }
+    
+    private static Fact remove(Map<CellKey, Cell> cells, Map<Long, Fact> facts, long orderId) {
+        Fact fact = facts.remove(orderId);
+        if (fact != null) {
+            Cell cell = cells.get(fact.key());
+            cell.subtract(fact.cents());
+            if (cell.orders == 0) {
+                cells.remove(fact.key());
+            }
+        }
+        return fact;
+    }
+    
+    // total_amount is DECIMAL(12,2), so revenue is summed exactly in cents
+    private static Long cents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : null;
+    }
+    
+    private static LocalDate localDate(java.util.Date date) {
+        if (date == null) {
+            return null;
+        }
+        if (date instanceof Date) {
+            return ((Date) date).toLocalDate();
+        }
+        return new Date(date.getTime()).toLocalDate();
+    }
+    
+    private record CellKey(LocalDate day, String state, String status, String paymentMethod, String paymentStatus) {
+        
+        /**
+         * A copy with its strings interned. They come from a handful of
+         * states, statuses and payment methods, but the driver creates a new
+         * String for every row.
+         */
+        CellKey intern() {
+            return new CellKey(day, intern(state), intern(status), intern(paymentMethod), intern(paymentStatus));
+        }
+        
+        private static String intern(String value) {
+            return value != null ? value.intern() : null;
+        }
+        
+        Object value(Dimension dimension) {
+            switch (dimension) {
+                case DAY:
+                    return day;
+                case MONTH:
+                    return day != null ? YearMonth.from(day) : null;
+                case STATE:
+                    return state;
+                case STATUS:
+                    return status;
+                case PAYMENT_METHOD:
+                    return paymentMethod;
+                case PAYMENT_STATUS:
+                    return paymentStatus;
+                default:
+                    throw new IllegalArgumentException("Unknown dimension: " + dimension);
+            }
+        }
+    }
+    
+    private record Fact(CellKey key, Long cents) {
+    }
+    
+    // Guarded by the cube's lock, or confined to one thread while loading and rolling up
+    private static final class Cell {
+        // Null for the groups of a roll-up
+        final CellKey key;
+        long orders;
+        // Orders with a non-null amount, for AVG
+        long priced;
+        long cents;
+        
+        Cell() {
+            this(null);
+        }
+        
+        Cell(CellKey key) {
+            this.key = key;
+        }
+        
+        void add(Long amount) {
+            orders++;
+            if (amount != null) {
+                priced++;
+                cents += amount;
+            }
+        }
+        
+        void subtract(Long amount) {
+            orders--;
+            if (amount != null) {
+                priced--;
+                cents -= amount;
+            }
+        }
+        
+        void add(Cell other) {
+            orders += other.orders;
+            priced += other.priced;
+            cents += other.cents;
+        }
+        
+        Group toGroup(List<Object> key) {
+            BigDecimal revenue = BigDecimal.valueOf(cents, 2);
+            BigDecimal average = priced > 0
+                ? revenue.divide(BigDecimal.valueOf(priced), 2, RoundingMode.HALF_UP) : null;
+            return new Group(key, orders, revenue, average);
+        }
+    }
+}
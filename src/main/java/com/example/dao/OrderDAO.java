@@ -1,13 +1,28 @@
 package com.example.dao;
 
 import com.example.model.Order;
+import com.example.util.AggregateBatch;
+import com.example.util.AggregateResult;
+import com.example.util.ColumnMapper;
 import com.example.util.ConnectionManager;
+import com.example.util.InListQuery;
+import com.example.util.MaterializedCounters;
+import com.example.util.ReportQuery;
+import com.example.util.ResultSetStream;
+import com.example.util.SqlCatalog;
+import com.example.util.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Order entity with extensive SQL operations
@@ -28,6 +43,10 @@ public class OrderDAO {
     
     private static final String SELECT_ALL = "SELECT order_id, customer_id, order_date, shipped_date, delivered_date, order_status, total_amount, tax_amount, shipping_amount, shipping_address, shipping_city, shipping_state, shipping_zip, payment_method, payment_status, created_date, modified_date FROM orders";
     
+    private static final String SELECT_BY_ID_IN = SELECT_ALL + " WHERE order_id IN ";
+    
+    private static final String DELETE_BY_ID_IN = "DELETE FROM orders WHERE order_id IN ";
+    
     // Search by customer - SQL strings 1111-1130
     private static final String SELECT_BY_CUSTOMER_ID = "SELECT order_id, customer_id, order_date, shipped_date, delivered_date, order_status, total_amount, tax_amount, shipping_amount, shipping_address, shipping_city, shipping_state, shipping_zip, payment_method, payment_status, created_date, modified_date FROM orders WHERE customer_id = ?";
     
@@ -127,6 +146,8 @@ public class OrderDAO {
     
     private static final String SUM_ORDERS_TODAY = "SELECT SUM(total_amount) FROM orders WHERE DATE(order_date) = DATE(CURRENT)";
     
+    private static final String SUM_ORDERS_ON_DAY = "SELECT SUM(total_amount) FROM orders WHERE DATE(order_date) = ?";
+    
     private static final String SUM_ORDERS_THIS_WEEK = "SELECT SUM(total_amount) FROM orders WHERE order_date > CURRENT - 7 UNITS DAY";
     
     private static final String SUM_ORDERS_THIS_MONTH = "SELECT SUM(total_amount) FROM orders WHERE MONTH(order_date) = MONTH(CURRENT) AND YEAR(order_date) = YEAR(CURRENT)";
@@ -359,20 +380,343 @@ public class OrderDAO {
     
     private static final String SELECT_ORDERS_WITH_HIGH_TAX = "SELECT order_id, customer_id, total_amount, tax_amount, (tax_amount / NULLIF(total_amount, 0) * 100) as tax_percentage FROM orders WHERE tax_amount > 0 ORDER BY tax_percentage DESC";
     
+    private static final ColumnMapper<Order> ORDER_MAPPER = ColumnMapper.builder(Order::new)
+        .longValue("order_id", Order::setOrderId)
+        .longValue("customer_id", Order::setCustomerId)
+        .date("order_date", Order::setOrderDate)
+        .date("shipped_date", Order::setShippedDate)
+        .date("delivered_date", Order::setDeliveredDate)
+        .string("order_status", Order::setOrderStatus)
+        .bigDecimal("total_amount", Order::setTotalAmount)
+        .bigDecimal("tax_amount", Order::setTaxAmount)
+        .bigDecimal("shipping_amount", Order::setShippingAmount)
+        .string("shipping_address", Order::setShippingAddress)
+        .string("shipping_city", Order::setShippingCity)
+        .string("shipping_state", Order::setShippingState)
+        .string("shipping_zip", Order::setShippingZip)
+        .string("payment_method", Order::setPaymentMethod)
+        .string("payment_status", Order::setPaymentStatus)
+        .date("created_date", Order::setCreatedDate)
+        .date("modified_date", Order::setModifiedDate)
+        .build();
+    
+    static {
+        SqlCatalog.register(OrderDAO.class);
+    }
+    
+    private static final List<OrderListener> LISTENERS = new CopyOnWriteArrayList<>();
+    
+    private static volatile OrderCube cube;
+    
     public OrderDAO() {
     }
     
+    /**
+     * Registers a listener for the inserts, status changes and deletes made
+     * through any OrderDAO.
+     */
+    public static void addListener(OrderListener listener) {
+        LISTENERS.add(listener);
+    }
+    
+    public static void removeListener(OrderListener listener) {
+        LISTENERS.remove(listener);
+    }
+    
+    /**
+     * The in-memory order cube behind the revenue and count reports, loaded
+     * with one scan on first use and kept current from this DAO's writes.
+     */
+    public static OrderCube getCube() throws SQLException {
+        OrderCube current = cube;
+        if (current == null) {
+            synchronized (OrderDAO.class) {
+                current = cube;
+                if (current == null) {
+                    current = new OrderCube();
+                    // Listen before scanning so that no write falls between the two
+                    addListener(current);
+                    try {
+                        current.reload();
+                    } catch (SQLException | RuntimeException e) {
+                        removeListener(current);
+                        throw e;
+                    }
+                    cube = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Counts and totals served from {@link MaterializedCounters}: each query
+     * runs once, the write methods of this DAO keep the result current, and a
+     * background reconcile corrects for writes made elsewhere.
+     */
+    public long countAll() throws SQLException {
+        return MaterializedCounters.count(COUNT_ALL_ORDERS).get();
+    }
+    
+    public long countPending() throws SQLException {
+        return MaterializedCounters.count(COUNT_PENDING).get();
+    }
+    
+    public long countByStatus(String orderStatus) throws SQLException {
+        return MaterializedCounters.count(COUNT_BY_STATUS, orderStatus).get();
+    }
+    
+    /**
+     * The total of today's orders. Each day gets its own counter, so the
+     * total starts over at midnight and past days age out.
+     */
+    public BigDecimal sumOrdersToday() throws SQLException {
+        return MaterializedCounters.sum(SUM_ORDERS_ON_DAY, 2, Date.valueOf(LocalDate.now())).getValue();
+    }
+    
+    /**
+     * The order dashboard figures, computed in one pass over the orders table
+     * instead of one statement each.
+     */
+    public AggregateResult getDashboardTotals() throws SQLException {
+        return new AggregateBatch()
+            .add("orders", COUNT_ALL_ORDERS)
+            .add("revenue", SUM_ALL_ORDERS)
+            .add("averageOrder", AVG_ORDER_VALUE)
+            .add("largestOrder", MAX_ORDER_VALUE)
+            .add("smallestOrder", MIN_ORDER_VALUE)
+            .add("tax", SUM_TAX_COLLECTED)
+            .add("shipping", SUM_SHIPPING_COLLECTED)
+            .add("pending", COUNT_PENDING)
+            .add("processing", COUNT_PROCESSING)
+            .add("shipped", COUNT_SHIPPED)
+            .add("paidRevenue", SUM_PAID_ORDERS)
+            .add("unpaidRevenue", SUM_UNPAID_ORDERS)
+            .execute();
+    }
+    
+    /**
+     * Report statements for {@link com.example.util.ReportEngine}.
+     */
+    public ReportQuery salesReportByDate(Timestamp from, Timestamp to) {
+        return ReportQuery.of(SELECT_SALES_REPORT_BY_DATE, from, to);
+    }
+    
+    public ReportQuery revenueByStateReport() {
+        return ReportQuery.of(SELECT_REVENUE_BY_STATE_REPORT);
+    }
+    
+    public ReportQuery paymentMethodReport() {
+        return ReportQuery.of(SELECT_PAYMENT_METHOD_REPORT);
+    }
+    
+    public ReportQuery orderStatusReport() {
+        return ReportQuery.of(SELECT_ORDER_STATUS_REPORT);
+    }
+    
     public void insert(Order order) throws SQLException {
+        MaterializedCounters.PendingWrite counting = beginCountedWrite();
         Connection conn = null;
         PreparedStatement stmt = null;
         try {
             conn = ConnectionManager.getConnection();
             stmt = conn.prepareStatement(INSERT_ORDER);
-            // Set parameters (implementation details)
+            bindInsert(stmt, order);
             stmt.executeUpdate();
+            countInserted(order);
         } finally {
+            counting.end();
             if (stmt != null) stmt.close();
             ConnectionManager.closeConnection(conn);
         }
+        if (!LISTENERS.isEmpty()) {
+            Order inserted = new Order(order);
+            publish(listener -> listener.orderInserted(inserted));
+        }
+    }
+    
+    public int updateOrderStatus(Long orderId, String orderStatus) throws SQLException {
+        return updateStatus(UPDATE_ORDER_STATUS, orderId, orderStatus, null, orderStatus);
+    }
+    
+    public int updatePaymentStatus(Long orderId, String paymentStatus) throws SQLException {
+        return updateStatus(UPDATE_PAYMENT_STATUS, orderId, null, paymentStatus, paymentStatus);
+    }
+    
+    public int markAsProcessing(Long orderId) throws SQLException {
+        return updateStatus(MARK_AS_PROCESSING, orderId, "PROCESSING", null);
+    }
+    
+    public int markAsShipped(Long orderId) throws SQLException {
+        return updateStatus(MARK_AS_SHIPPED, orderId, "SHIPPED", null);
+    }
+    
+    public int markAsDelivered(Long orderId) throws SQLException {
+        return updateStatus(MARK_AS_DELIVERED, orderId, "DELIVERED", null);
+    }
+    
+    public int markAsCancelled(Long orderId) throws SQLException {
+        return updateStatus(MARK_AS_CANCELLED, orderId, "CANCELLED", null);
+    }
+    
+    public int markAsPaid(Long orderId) throws SQLException {
+        return updateStatus(MARK_AS_PAID, orderId, null, "PAID");
+    }
+    
+    public int markAsRefunded(Long orderId) throws SQLException {
+        return updateStatus(MARK_AS_REFUNDED, orderId, null, "REFUNDED");
+    }
+    
+    /**
+     * Runs a single-row status UPDATE whose last parameter is the order id and
+     * tells the listeners which status columns it set.
+     */
+    private int updateStatus(String sql, Long orderId, String orderStatus, String paymentStatus,
+                             Object... values) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        int updated;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, values[i]);
+            }
+            stmt.setLong(values.length + 1, orderId);
+            updated = stmt.executeUpdate();
+        } finally {
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+        if (updated > 0) {
+            if (orderStatus != null) {
+                MaterializedCounters.markStale(COUNT_PENDING);
+                MaterializedCounters.markStale(COUNT_BY_STATUS);
+            }
+            publish(listener -> listener.orderStatusChanged(orderId, orderStatus, paymentStatus));
+        }
+        return updated;
+    }
+    
+    /**
+     * Delivers an event to the listeners now, or inside a transaction once it
+     * has committed.
+     */
+    private static void publish(Consumer<OrderListener> event) {
+        if (LISTENERS.isEmpty()) {
+            return;
+        }
+        Transaction tx = ConnectionManager.currentTransaction();
+        if (tx == null) {
+            deliver(event);
+        } else {
+            tx.afterCompletion(() -> {
+                if (tx.isCommitted()) {
+                    deliver(event);
+                }
+            });
+        }
+    }
+    
+    private static void deliver(Consumer<OrderListener> event) {
+        for (OrderListener listener : LISTENERS) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                logger.warn("Order listener {} failed", listener, e);
+            }
+        }
+    }
+    
+    private static void bindInsert(PreparedStatement stmt, Order order) throws SQLException {
+        stmt.setLong(1, order.getOrderId());
+        stmt.setLong(2, order.getCustomerId());
+        stmt.setTimestamp(3, timestamp(order.getOrderDate()));
+        stmt.setTimestamp(4, timestamp(order.getShippedDate()));
+        stmt.setTimestamp(5, timestamp(order.getDeliveredDate()));
+        stmt.setString(6, order.getOrderStatus());
+        stmt.setBigDecimal(7, order.getTotalAmount());
+        stmt.setBigDecimal(8, order.getTaxAmount());
+        stmt.setBigDecimal(9, order.getShippingAmount());
+        stmt.setString(10, order.getShippingAddress());
+        stmt.setString(11, order.getShippingCity());
+        stmt.setString(12, order.getShippingState());
+        stmt.setString(13, order.getShippingZip());
+        stmt.setString(14, order.getPaymentMethod());
+        stmt.setString(15, order.getPaymentStatus());
+    }
+    
+    private static Timestamp timestamp(java.util.Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+    
+    /**
+     * Adds an inserted order to the materialized counts and to its day's total.
+     */
+    /**
+     * Registers an insert or delete with the counters it adds deltas to;
+     * call it before the statement runs.
+     */
+    private static MaterializedCounters.PendingWrite beginCountedWrite() {
+        return MaterializedCounters.beginWrite(COUNT_ALL_ORDERS, COUNT_PENDING, COUNT_BY_STATUS, SUM_ORDERS_ON_DAY);
+    }
+    
+    private static void countInserted(Order order) {
+        MaterializedCounters.add(COUNT_ALL_ORDERS, 1);
+        String status = order.getOrderStatus();
+        if (status != null) {
+            MaterializedCounters.add(COUNT_BY_STATUS, 1, status);
+            if ("PENDING".equals(status)) {
+                MaterializedCounters.add(COUNT_PENDING, 1);
+            }
+        }
+        if (order.getOrderDate() != null) {
+            LocalDate day = timestamp(order.getOrderDate()).toLocalDateTime().toLocalDate();
+            MaterializedCounters.add(SUM_ORDERS_ON_DAY, order.getTotalAmount(), Date.valueOf(day));
+        }
+    }
+    
+    /**
+     * Loads the orders with the given ids, in the order given, using a few
+     * IN-list queries instead of one round trip per id. Ids with no row are skipped.
+     */
+    public List<Order> findByIds(Collection<Long> orderIds) throws SQLException {
+        return InListQuery.select(SELECT_BY_ID_IN, orderIds, ORDER_MAPPER, Order::getOrderId);
+    }
+    
+    /**
+     * Deletes the orders with the given ids and returns the number of rows removed.
+     */
+    public int deleteByIds(Collection<Long> orderIds) throws SQLException {
+        MaterializedCounters.PendingWrite counting = beginCountedWrite();
+        int deleted;
+        try {
+            deleted = InListQuery.update(DELETE_BY_ID_IN, orderIds);
+            if (deleted > 0) {
+                MaterializedCounters.add(COUNT_ALL_ORDERS, -deleted);
+                MaterializedCounters.markStale(COUNT_PENDING);
+                MaterializedCounters.markStale(COUNT_BY_STATUS);
+                MaterializedCounters.markStale(SUM_ORDERS_ON_DAY);
+            }
+        } finally {
+            counting.end();
+        }
+        if (deleted > 0) {
+            List<Long> ids = new ArrayList<>(orderIds);
+            publish(listener -> listener.ordersDeleted(ids));
+        }
+        return deleted;
+    }
+    
+    /**
+     * Streams every row of the orders table without materializing it.
+     * The stream holds a pooled connection until it is closed.
+     */
+    public Stream<Order> streamAll() throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, ORDER_MAPPER);
+    }
+    
+    public Stream<Order> streamAll(int fetchSize) throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, fetchSize, ORDER_MAPPER);
     }
 }
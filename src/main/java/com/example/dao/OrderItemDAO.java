@@ -1,9 +1,18 @@
 package com.example.dao;
 
 import com.example.model.OrderItem;
+import com.example.util.BatchExecutor;
+import com.example.util.BatchResult;
+import com.example.util.ColumnMapper;
 import com.example.util.ConnectionManager;
+import com.example.util.InListQuery;
+import com.example.util.ResultSetStream;
+import com.example.util.SqlCatalog;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for OrderItem entity
@@ -18,6 +27,10 @@ public class OrderItemDAO {
     private static final String SELECT_BY_ID = "SELECT order_item_id, order_id, product_id, quantity, unit_price, discount, total_price, created_date, modified_date FROM order_items WHERE order_item_id = ?";
     private static final String SELECT_ALL = "SELECT order_item_id, order_id, product_id, quantity, unit_price, discount, total_price, created_date, modified_date FROM order_items";
     
+    private static final String SELECT_BY_ID_IN = SELECT_ALL + " WHERE order_item_id IN ";
+    
+    private static final String DELETE_BY_ID_IN = "DELETE FROM order_items WHERE order_item_id IN ";
+    
     // Search by order - SQL strings 1811-1850
     private static final String SELECT_BY_ORDER_ID = "SELECT order_item_id, order_id, product_id, quantity, unit_price, discount, total_price, created_date, modified_date FROM order_items WHERE order_id = ?";
     private static final String COUNT_BY_ORDER = "SELECT COUNT(*) FROM order_items WHERE order_id = ?";
@@ -109,5 +122,128 @@ public class OrderItemDAO {
     private static final String SELECT_ITEMS_BY_CUSTOMER = "SELECT oi.* FROM order_items oi INNER JOIN orders o ON oi.order_id = o.order_id WHERE o.customer_id = ?";
     private static final String SELECT_POPULAR_PRODUCTS = "SELECT p.product_name, COUNT(oi.order_item_id) as times_ordered, SUM(oi.quantity) as total_quantity FROM order_items oi INNER JOIN product p ON oi.product_id = p.product_id GROUP BY p.product_name ORDER BY times_ordered DESC";
     
+    private static final ColumnMapper<OrderItem> ORDER_ITEM_MAPPER = ColumnMapper.builder(OrderItem::new)
+        .longValue("order_item_id", OrderItem::setOrderItemId)
+        .longValue("order_id", OrderItem::setOrderId)
+        .longValue("product_id", OrderItem::setProductId)
+        .intValue("quantity", OrderItem::setQuantity)
+        .bigDecimal("unit_price", OrderItem::setUnitPrice)
+        .bigDecimal("discount", OrderItem::setDiscount)
+        .bigDecimal("total_price", OrderItem::setTotalPrice)
+        .date("created_date", OrderItem::setCreatedDate)
+        .date("modified_date", OrderItem::setModifiedDate)
+        .build();
+    
+    static {
+        SqlCatalog.register(OrderItemDAO.class);
+    }
+    
     public OrderItemDAO() {}
+    
+    public void insert(OrderItem item) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(INSERT_ORDER_ITEM);
+            bindInsert(stmt, item);
+            stmt.executeUpdate();
+        } finally {
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    public void update(OrderItem item) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(UPDATE_ORDER_ITEM);
+            bindUpdate(stmt, item);
+            stmt.executeUpdate();
+        } finally {
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Inserts order items with JDBC batching, committing every db.batch.size rows.
+     * Rows that fail are reported in the result instead of aborting the load.
+     */
+    public BatchResult<OrderItem> insertAll(Collection<OrderItem> items) throws SQLException {
+        return BatchExecutor.execute(INSERT_ORDER_ITEM, items, OrderItemDAO::bindInsert);
+    }
+    
+    public BatchResult<OrderItem> insertAll(Collection<OrderItem> items, int batchSize) throws SQLException {
+        return BatchExecutor.execute(INSERT_ORDER_ITEM, items, OrderItemDAO::bindInsert, batchSize);
+    }
+    
+    /**
+     * Inserts the items in one executeBatch with no per-chunk commits, for
+     * the lines of one order inside a transaction.
+     */
+    public int[] insertInOneBatch(Collection<OrderItem> items) throws SQLException {
+        return BatchExecutor.executeSingleBatch(INSERT_ORDER_ITEM, items, OrderItemDAO::bindInsert);
+    }
+    
+    /**
+     * Updates order items with JDBC batching. An item whose row no longer
+     * exists is reported as a failure.
+     */
+    public BatchResult<OrderItem> updateAll(Collection<OrderItem> items) throws SQLException {
+        return BatchExecutor.execute(UPDATE_ORDER_ITEM, items, OrderItemDAO::bindUpdate);
+    }
+    
+    public BatchResult<OrderItem> updateAll(Collection<OrderItem> items, int batchSize) throws SQLException {
+        return BatchExecutor.execute(UPDATE_ORDER_ITEM, items, OrderItemDAO::bindUpdate, batchSize);
+    }
+    
+    private static void bindInsert(PreparedStatement stmt, OrderItem item) throws SQLException {
+        stmt.setLong(1, item.getOrderItemId());
+        stmt.setLong(2, item.getOrderId());
+        stmt.setLong(3, item.getProductId());
+        stmt.setInt(4, item.getQuantity());
+        stmt.setBigDecimal(5, item.getUnitPrice());
+        stmt.setBigDecimal(6, item.getDiscount());
+        stmt.setBigDecimal(7, item.getTotalPrice());
+    }
+    
+    private static void bindUpdate(PreparedStatement stmt, OrderItem item) throws SQLException {
+        stmt.setLong(1, item.getOrderId());
+        stmt.setLong(2, item.getProductId());
+        stmt.setInt(3, item.getQuantity());
+        stmt.setBigDecimal(4, item.getUnitPrice());
+        stmt.setBigDecimal(5, item.getDiscount());
+        stmt.setBigDecimal(6, item.getTotalPrice());
+        stmt.setLong(7, item.getOrderItemId());
+    }
+    
+    /**
+     * Loads the order items with the given ids, in the order given, using a few
+     * IN-list queries instead of one round trip per id. Ids with no row are skipped.
+     */
+    public List<OrderItem> findByIds(Collection<Long> orderItemIds) throws SQLException {
+        return InListQuery.select(SELECT_BY_ID_IN, orderItemIds, ORDER_ITEM_MAPPER, OrderItem::getOrderItemId);
+    }
+    
+    /**
+     * Deletes the order items with the given ids and returns the number of rows removed.
+     */
+    public int deleteByIds(Collection<Long> orderItemIds) throws SQLException {
+        return InListQuery.update(DELETE_BY_ID_IN, orderItemIds);
+    }
+    
+    /**
+     * Streams every row of the order_items table without materializing it.
+     * The stream holds a pooled connection until it is closed.
+     */
+    public Stream<OrderItem> streamAll() throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, ORDER_ITEM_MAPPER);
+    }
+    
+    public Stream<OrderItem> streamAll(int fetchSize) throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, fetchSize, ORDER_ITEM_MAPPER);
+    }
 }
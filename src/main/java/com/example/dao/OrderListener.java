@@ -0,0 +1,30 @@
+package com.example.dao;
+
+import com.example.model.Order;
+
+import java.util.Collection;
+
+/**
+ * Told about writes made through {@link OrderDAO}, so in-process views of
+ * the orders table can follow them without rescanning it. Events arrive on
+ * the writing thread once the write is committed; writes inside a
+ * transaction that rolls back are never reported.
+ */
+public interface OrderListener {
+    
+    /**
+     * A new order row; the order is a copy the listener may keep.
+     */
+    void orderInserted(Order order);
+    
+    /**
+     * The order's status and/or payment status changed. A null argument
+     * means that column was not touched.
+     */
+    void orderStatusChanged(long orderId, String orderStatus, String paymentStatus);
+    
+    /**
+     * The orders with these ids were deleted, if they existed.
+     */
+    void ordersDeleted(Collection<Long> orderIds);
+}
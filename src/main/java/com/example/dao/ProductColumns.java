@@ -0,0 +1,35 @@
+package com.example.dao;
+
+import com.example.model.Product;
+import com.example.util.Column;
+import com.example.util.Table;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Typed columns of the product table for {@link ProductDAO#query()}.
+ */
+public final class ProductColumns {
+    
+    public static final Table<Product> TABLE = new Table<>("product");
+    
+    public static final Column<Product, Long> PRODUCT_ID = TABLE.column("product_id", Long.class);
+    public static final Column<Product, String> PRODUCT_CODE = TABLE.column("product_code", String.class);
+    public static final Column<Product, String> PRODUCT_NAME = TABLE.column("product_name", String.class);
+    public static final Column<Product, String> DESCRIPTION = TABLE.column("description", String.class);
+    public static final Column<Product, String> CATEGORY = TABLE.column("category", String.class);
+    public static final Column<Product, String> SUB_CATEGORY = TABLE.column("sub_category", String.class);
+    public static final Column<Product, BigDecimal> PRICE = TABLE.column("price", BigDecimal.class);
+    public static final Column<Product, BigDecimal> COST = TABLE.column("cost", BigDecimal.class);
+    public static final Column<Product, Integer> STOCK_QUANTITY = TABLE.column("stock_quantity", Integer.class);
+    public static final Column<Product, Integer> REORDER_LEVEL = TABLE.column("reorder_level", Integer.class);
+    public static final Column<Product, String> SUPPLIER = TABLE.column("supplier", String.class);
+    public static final Column<Product, String> MANUFACTURER = TABLE.column("manufacturer", String.class);
+    public static final Column<Product, Date> CREATED_DATE = TABLE.column("created_date", Date.class);
+    public static final Column<Product, Date> MODIFIED_DATE = TABLE.column("modified_date", Date.class);
+    public static final Column<Product, String> STATUS = TABLE.column("status", String.class);
+    public static final Column<Product, String> BARCODE = TABLE.column("barcode", String.class);
+    
+    private ProductColumns() {}
+}
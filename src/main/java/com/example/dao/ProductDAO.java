@@ -1,13 +1,31 @@
 package com.example.dao;
 
 import com.example.model.Product;
+import com.example.model.ProductSummary;
+import com.example.util.BatchExecutor;
+import com.example.util.BatchResult;
+import com.example.util.ColumnMapper;
 import com.example.util.ConnectionManager;
+import com.example.util.EntityCache;
+import com.example.util.InListQuery;
+import com.example.util.KeysetPager;
+import com.example.util.Page;
+import com.example.util.Projections;
+import com.example.util.QueryBuilder;
+import com.example.util.ReportQuery;
+import com.example.util.ResultSetStream;
+import com.example.util.SingleFlight;
+import com.example.util.SqlCatalog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Product entity with extensive SQL operations
@@ -17,6 +35,13 @@ public class ProductDAO {
     
     private static final Logger logger = LoggerFactory.getLogger(ProductDAO.class);
     
+    // Listing names embedded in continuation tokens
+    private static final String PAGE_BY_ID = "product.id";
+    
+    private static final String PAGE_BY_CREATED_DATE = "product.createdDate";
+    
+    private static final String PAGE_BY_CATEGORY = "product.category:";
+    
     // Basic CRUD operations - SQL strings 301-320
     private static final String INSERT_PRODUCT = "INSERT INTO product (product_id, product_code, product_name, description, category, sub_category, price, cost, stock_quantity, reorder_level, supplier, manufacturer, created_date, modified_date, status, barcode) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT, CURRENT, ?, ?)";
     
@@ -28,6 +53,10 @@ public class ProductDAO {
     
     private static final String SELECT_ALL = "SELECT product_id, product_code, product_name, description, category, sub_category, price, cost, stock_quantity, reorder_level, supplier, manufacturer, created_date, modified_date, status, barcode FROM product";
     
+    private static final String SELECT_BY_ID_IN = SELECT_ALL + " WHERE product_id IN ";
+    
+    private static final String DELETE_BY_ID_IN = "DELETE FROM product WHERE product_id IN ";
+    
     // Search queries - SQL strings 321-360
     private static final String SELECT_BY_CODE = "SELECT product_id, product_code, product_name, description, category, sub_category, price, cost, stock_quantity, reorder_level, supplier, manufacturer, created_date, modified_date, status, barcode FROM product WHERE product_code = ?";
     
@@ -133,6 +162,10 @@ public class ProductDAO {
     
     private static final String DECREMENT_STOCK = "UPDATE product SET stock_quantity = stock_quantity - ?, modified_date = CURRENT WHERE product_id = ?";
     
+    private static final String DECREMENT_STOCK_IF_AVAILABLE = "UPDATE product SET stock_quantity = stock_quantity - ?, modified_date = CURRENT WHERE product_id = ? AND stock_quantity >= ?";
+    
+    private static final String SELECT_STOCK_QUANTITY = "SELECT stock_quantity FROM product WHERE product_id = ?";
+    
     private static final String RESET_STOCK = "UPDATE product SET stock_quantity = 0, modified_date = CURRENT WHERE product_id = ?";
     
     private static final String INCREASE_PRICE_PERCENT = "UPDATE product SET price = price * (1 + ? / 100), modified_date = CURRENT WHERE product_id = ?";
@@ -365,6 +398,19 @@ public class ProductDAO {
     
     private static final String SELECT_PAGE_BY_CATEGORY = "SELECT SKIP ? FIRST ? product_id, product_code, product_name, price FROM product WHERE category = ? ORDER BY product_id";
     
+    // Keyset pagination: seek past the last key seen instead of skipping rows
+    private static final String SELECT_PAGE_FIRST = "SELECT FIRST ? product_id, product_code, product_name, description, category, sub_category, price, cost, stock_quantity, reorder_level, supplier, manufacturer, created_date, modified_date, status, barcode FROM product ORDER BY product_id";
+    
+    private static final String SELECT_PAGE_AFTER_ID = "SELECT FIRST ? product_id, product_code, product_name, description, category, sub_category, price, cost, stock_quantity, reorder_level, supplier, manufacturer, created_date, modified_date, status, barcode FROM product WHERE product_id > ? ORDER BY product_id";
+    
+    private static final String SELECT_PAGE_BY_CATEGORY_FIRST = "SELECT FIRST ? product_id, product_code, product_name, description, category, sub_category, price, cost, stock_quantity, reorder_level, supplier, manufacturer, created_date, modified_date, status, barcode FROM product WHERE category = ? ORDER BY product_id";
+    
+    private static final String SELECT_PAGE_BY_CATEGORY_AFTER_ID = "SELECT FIRST ? product_id, product_code, product_name, description, category, sub_category, price, cost, stock_quantity, reorder_level, supplier, manufacturer, created_date, modified_date, status, barcode FROM product WHERE category = ? AND product_id > ? ORDER BY product_id";
+    
+    private static final String SELECT_PAGE_BY_CREATED_DATE_FIRST = "SELECT FIRST ? product_id, product_code, product_name, description, category, sub_category, price, cost, stock_quantity, reorder_level, supplier, manufacturer, created_date, modified_date, status, barcode FROM product ORDER BY created_date DESC, product_id DESC";
+    
+    private static final String SELECT_PAGE_BY_CREATED_DATE_AFTER = "SELECT FIRST ? product_id, product_code, product_name, description, category, sub_category, price, cost, stock_quantity, reorder_level, supplier, manufacturer, created_date, modified_date, status, barcode FROM product WHERE created_date <= ? AND (created_date < ? OR product_id < ?) ORDER BY created_date DESC, product_id DESC";
+    
     // Additional combinations - SQL strings 921-950
     private static final String SELECT_BY_CATEGORY_PRICE_STOCK = "SELECT product_id, product_code, product_name, price, stock_quantity FROM product WHERE category = ? AND price BETWEEN ? AND ? AND stock_quantity > 0";
     
@@ -435,31 +481,93 @@ public class ProductDAO {
     
     private static final String SELECT_PRODUCTS_BY_VALUE_RANGE = "SELECT product_id, product_code, product_name, stock_quantity, price, (stock_quantity * price) as inventory_value FROM product WHERE (stock_quantity * price) BETWEEN ? AND ? ORDER BY inventory_value DESC";
     
+    private static final ColumnMapper<Product> PRODUCT_MAPPER = ColumnMapper.builder(Product::new)
+        .longValue("product_id", Product::setProductId)
+        .string("product_code", Product::setProductCode)
+        .string("product_name", Product::setProductName)
+        .string("description", Product::setDescription)
+        .string("category", Product::setCategory)
+        .string("sub_category", Product::setSubCategory)
+        .bigDecimal("price", Product::setPrice)
+        .bigDecimal("cost", Product::setCost)
+        .intValue("stock_quantity", Product::setStockQuantity)
+        .intValue("reorder_level", Product::setReorderLevel)
+        .string("supplier", Product::setSupplier)
+        .string("manufacturer", Product::setManufacturer)
+        .date("created_date", Product::setCreatedDate)
+        .date("modified_date", Product::setModifiedDate)
+        .string("status", Product::setStatus)
+        .string("barcode", Product::setBarcode)
+        .build();
+    
+    static {
+        SqlCatalog.register(ProductDAO.class);
+    }
+    
+    // Read-through cache for findById, enabled with db.cache.product.enabled
+    private static final EntityCache<Long, Product> CACHE = EntityCache.fromConfig("product", Product::new);
+    
+    // Coalesces concurrent identical reads, enabled with db.singleFlight.product.enabled
+    private static final SingleFlight FLIGHTS = SingleFlight.fromConfig("product");
+    
     public ProductDAO() {
     }
     
+    /**
+     * The findById cache shared by all ProductDAO instances, for statistics.
+     */
+    public static EntityCache<Long, Product> getCache() {
+        return CACHE;
+    }
+    
+    /**
+     * Starts an ad hoc query over the product table, built from {@link ProductColumns}.
+     * Prefer it to adding another SELECT_BY_* constant for a new combination of filters.
+     */
+    public QueryBuilder<Product> query() {
+        return QueryBuilder.from(ProductColumns.TABLE, PRODUCT_MAPPER);
+    }
+    
+    /**
+     * Report statements for {@link com.example.util.ReportEngine}.
+     */
+    public ReportQuery inventoryReport() {
+        return ReportQuery.of(SELECT_INVENTORY_REPORT);
+    }
+    
+    public ReportQuery lowStockReport() {
+        return ReportQuery.of(SELECT_LOW_STOCK_REPORT);
+    }
+    
+    public ReportQuery profitMarginReport() {
+        return ReportQuery.of(SELECT_PROFIT_MARGIN_REPORT);
+    }
+    
+    public ReportQuery categoryPerformanceReport() {
+        return ReportQuery.of(SELECT_CATEGORY_PERFORMANCE);
+    }
+    
+    public ReportQuery inventoryValueByCategory() {
+        return ReportQuery.of(SELECT_INVENTORY_VALUE_BY_CATEGORY);
+    }
+    
+    /**
+     * The read coalescer shared by all ProductDAO instances, for statistics.
+     */
+    public static SingleFlight getSingleFlight() {
+        return FLIGHTS;
+    }
+    
     public void insert(Product product) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         try {
             conn = ConnectionManager.getConnection();
             stmt = conn.prepareStatement(INSERT_PRODUCT);
-            stmt.setLong(1, product.getProductId());
-            stmt.setString(2, product.getProductCode());
-            stmt.setString(3, product.getProductName());
-            stmt.setString(4, product.getDescription());
-            stmt.setString(5, product.getCategory());
-            stmt.setString(6, product.getSubCategory());
-            stmt.setBigDecimal(7, product.getPrice());
-            stmt.setBigDecimal(8, product.getCost());
-            stmt.setInt(9, product.getStockQuantity());
-            stmt.setInt(10, product.getReorderLevel());
-            stmt.setString(11, product.getSupplier());
-            stmt.setString(12, product.getManufacturer());
-            stmt.setString(13, product.getStatus());
-            stmt.setString(14, product.getBarcode());
+            bindInsert(stmt, product);
             stmt.executeUpdate();
         } finally {
+            FLIGHTS.invalidate();
             if (stmt != null) stmt.close();
             ConnectionManager.closeConnection(conn);
         }
@@ -471,25 +579,67 @@ public class ProductDAO {
         try {
             conn = ConnectionManager.getConnection();
             stmt = conn.prepareStatement(UPDATE_PRODUCT);
-            stmt.setString(1, product.getProductCode());
-            stmt.setString(2, product.getProductName());
-            stmt.setString(3, product.getDescription());
-            stmt.setString(4, product.getCategory());
-            stmt.setString(5, product.getSubCategory());
-            stmt.setBigDecimal(6, product.getPrice());
-            stmt.setBigDecimal(7, product.getCost());
-            stmt.setInt(8, product.getStockQuantity());
-            stmt.setInt(9, product.getReorderLevel());
-            stmt.setString(10, product.getSupplier());
-            stmt.setString(11, product.getManufacturer());
-            stmt.setString(12, product.getStatus());
-            stmt.setString(13, product.getBarcode());
-            stmt.setLong(14, product.getProductId());
+            bindUpdate(stmt, product);
             stmt.executeUpdate();
         } finally {
+            FLIGHTS.invalidate();
+            CACHE.invalidate(product.getProductId());
             if (stmt != null) stmt.close();
             ConnectionManager.closeConnection(conn);
         }
+        StockReservations.stockWritten(product.getProductId());
+    }
+    
+    /**
+     * Inserts products with JDBC batching, committing every db.batch.size rows.
+     * Rows that fail are reported in the result instead of aborting the load.
+     */
+    public BatchResult<Product> insertAll(Collection<Product> products) throws SQLException {
+        try {
+            return BatchExecutor.execute(INSERT_PRODUCT, products, ProductDAO::bindInsert);
+        } finally {
+            FLIGHTS.invalidate();
+        }
+    }
+    
+    public BatchResult<Product> insertAll(Collection<Product> products, int batchSize) throws SQLException {
+        try {
+            return BatchExecutor.execute(INSERT_PRODUCT, products, ProductDAO::bindInsert, batchSize);
+        } finally {
+            FLIGHTS.invalidate();
+        }
+    }
+    
+    /**
+     * Updates products with JDBC batching. A product whose row no longer
+     * exists is reported as a failure.
+     */
+    public BatchResult<Product> updateAll(Collection<Product> products) throws SQLException {
+        BatchResult<Product> result;
+        try {
+            result = BatchExecutor.execute(UPDATE_PRODUCT, products, ProductDAO::bindUpdate);
+        } finally {
+            FLIGHTS.invalidate();
+            for (Product product : products) {
+                CACHE.invalidate(product.getProductId());
+            }
+        }
+        stockWritten(products);
+        return result;
+    }
+    
+    public BatchResult<Product> updateAll(Collection<Product> products, int batchSize) throws SQLException {
+        BatchResult<Product> result;
+        try {
+            result = BatchExecutor.execute(UPDATE_PRODUCT, products, ProductDAO::bindUpdate, batchSize);
+        } finally {
+            FLIGHTS.invalidate();
+            for (Product product : products) {
+                CACHE.invalidate(product.getProductId());
+            }
+        }
+        stockWritten(products);
+        return result;
     }
     
     public void delete(Long productId) throws SQLException {
@@ -501,12 +651,239 @@ public class ProductDAO {
             stmt.setLong(1, productId);
             stmt.executeUpdate();
         } finally {
+            FLIGHTS.invalidate();
+            CACHE.invalidate(productId);
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }    StockReservations.stockWritten(productId);
+    }
+    
+    public int updateProductName(Long productId, String productName) throws SQLException {
+        return updateById(UPDATE_PRODUCT_NAME, productId, productName);
+    }
+    
+    public int updatePrice(Long productId, BigDecimal price) throws SQLException {
+        return updateById(UPDATE_PRICE, productId, price);
+    }
+    
+    public int updateCost(Long productId, BigDecimal cost) throws SQLException {
+        return updateById(UPDATE_COST, productId, cost);
+    }
+    
+    /**
+     * Sets the product's stock, e.g. after a restock, and refreshes its
+     * stock reservation ledger once the write commits.
+     */
+    public int updateStockQuantity(Long productId, Integer stockQuantity) throws SQLException {
+        int updated = updateById(UPDATE_STOCK_QUANTITY, productId, stockQuantity);
+        StockReservations.stockWritten(productId);
+        return updated;
+    }
+    
+    public int updateReorderLevel(Long productId, Integer reorderLevel) throws SQLException {
+        return updateById(UPDATE_REORDER_LEVEL, productId, reorderLevel);
+    }
+    
+    public int updateStatus(Long productId, String status) throws SQLException {
+        return updateById(UPDATE_STATUS, productId, status);
+    }
+    
+    public int updateCategory(Long productId, String category) throws SQLException {
+        return updateById(UPDATE_CATEGORY, productId, category);
+    }
+    
+    public int updateSubCategory(Long productId, String subCategory) throws SQLException {
+        return updateById(UPDATE_SUB_CATEGORY, productId, subCategory);
+    }
+    
+    public int updateSupplier(Long productId, String supplier) throws SQLException {
+        return updateById(UPDATE_SUPPLIER, productId, supplier);
+    }
+    
+    public int updateManufacturer(Long productId, String manufacturer) throws SQLException {
+        return updateById(UPDATE_MANUFACTURER, productId, manufacturer);
+    }
+    
+    public int updateDescription(Long productId, String description) throws SQLException {
+        return updateById(UPDATE_DESCRIPTION, productId, description);
+    }
+    
+    public int updateBarcode(Long productId, String barcode) throws SQLException {
+        return updateById(UPDATE_BARCODE, productId, barcode);
+    }
+    
+    /**
+     * Changes the price of every product in the category by the given percentage.
+     */
+    public int updatePriceByCategory(BigDecimal percent, String category) throws SQLException {
+        return updateMany(UPDATE_PRICE_BY_CATEGORY, percent, category);
+    }
+    
+    /**
+     * Changes the price of products in the category priced between minPrice and maxPrice.
+     */
+    public int updatePriceByCategoryRange(BigDecimal percent, String category, BigDecimal minPrice, BigDecimal maxPrice) throws SQLException {
+        return updateMany(UPDATE_PRICE_BY_CATEGORY_RANGE, percent, category, minPrice, maxPrice);
+    }
+    
+    /**
+     * Sets the status of every product in the category.
+     */
+    public int updateStatusByCategory(String status, String category) throws SQLException {
+        return updateMany(UPDATE_STATUS_BY_CATEGORY, status, category);
+    }
+    
+    /**
+     * Sets the status of every product from the supplier.
+     */
+    public int updateStatusBySupplier(String status, String supplier) throws SQLException {
+        return updateMany(UPDATE_STATUS_BY_SUPPLIER, status, supplier);
+    }
+    
+    /**
+     * Sets the reorder level of every product in the category.
+     */
+    public int updateReorderLevelsByCategory(Integer reorderLevel, String category) throws SQLException {
+        return updateMany(UPDATE_REORDER_LEVELS_BY_CATEGORY, reorderLevel, category);
+    }
+    
+    /**
+     * Marks out-of-stock products created before the given time as DISCONTINUED.
+     */
+    public int discontinueOldProducts(Timestamp createdBefore) throws SQLException {
+        return updateMany(UPDATE_STATUS_OLD_PRODUCTS, createdBefore);
+    }
+    
+    /**
+     * Takes quantity units of stock in one statement, only if at least that
+     * many are on hand. Returns false, changing nothing, if stock would go
+     * negative or the product does not exist. Unlike DECREMENT_STOCK, two
+     * concurrent callers cannot both take the last unit.
+     */
+    public boolean decrementStockIfAvailable(long productId, int quantity) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(DECREMENT_STOCK_IF_AVAILABLE);
+            bindStockDecrement(stmt, Map.entry(productId, quantity));
+            return stmt.executeUpdate() > 0;
+        } finally {
+            FLIGHTS.invalidate();
+            CACHE.invalidate(productId);
             if (stmt != null) stmt.close();
             ConnectionManager.closeConnection(conn);
         }
     }
     
+    /**
+     * Applies many (product id, quantity) decrements with JDBC batching, each
+     * as conditional as decrementStockIfAvailable. A decrement that would take
+     * stock below zero is reported as a failure and changes nothing.
+     */
+    public BatchResult<Map.Entry<Long, Integer>> decrementStocksIfAvailable(
+            Collection<Map.Entry<Long, Integer>> decrements) throws SQLException {
+        try {
+            return BatchExecutor.execute(DECREMENT_STOCK_IF_AVAILABLE, decrements, ProductDAO::bindStockDecrement);
+        } finally {
+            FLIGHTS.invalidate();
+            for (Map.Entry<Long, Integer> decrement : decrements) {
+                CACHE.invalidate(decrement.getKey());
+            }
+        }
+    }
+    
+    /**
+     * Same conditional decrements as decrementStocksIfAvailable, sent as one
+     * batch for use inside a transaction. The update count of a decrement
+     * that would take stock below zero is 0; the caller decides whether to
+     * roll back.
+     */
+    public int[] decrementStocksInOneBatch(Collection<Map.Entry<Long, Integer>> decrements) throws SQLException {
+        try {
+            return BatchExecutor.executeSingleBatch(DECREMENT_STOCK_IF_AVAILABLE, decrements, ProductDAO::bindStockDecrement);
+        } finally {
+            FLIGHTS.invalidate();
+            for (Map.Entry<Long, Integer> decrement : decrements) {
+                CACHE.invalidate(decrement.getKey());
+            }
+        }
+    }
+    
+    /**
+     * The product's stock_quantity straight from the table, or null if there is no such product.
+     */
+    public Integer findStockQuantity(long productId) throws SQLException {
+        long[] quantity = Projections.longs(SELECT_STOCK_QUANTITY, productId);
+        return quantity.length > 0 ? (int) quantity[0] : null;
+    }
+    
+    /**
+     * Refreshes the stock reservation ledgers of products whose full row was rewritten.
+     */
+    private static void stockWritten(Collection<Product> products) throws SQLException {
+        for (Product product : products) {
+            if (product.getProductId() != null) {
+                StockReservations.stockWritten(product.getProductId());
+            }
+        }
+    }
+    
+    /**
+     * Runs a single-row UPDATE whose last parameter is the product id, then drops
+     * that product from the findById cache.
+     */
+    private int updateById(String sql, Long productId, Object... values) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, values[i]);
+            }
+            stmt.setLong(values.length + 1, productId);
+            return stmt.executeUpdate();
+        } finally {
+            FLIGHTS.invalidate();
+            CACHE.invalidate(productId);
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Runs an UPDATE that may touch any number of products, then clears the findById cache.
+     */
+    private int updateMany(String sql, Object... values) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, values[i]);
+            }
+            return stmt.executeUpdate();
+        } finally {
+            FLIGHTS.invalidate();
+            CACHE.invalidateAll();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Looks the product up in the findById cache first when it is enabled.
+     * On a miss, concurrent lookups of the same id share one query, unless a
+     * product was written between them.
+     */
     public Product findById(Long productId) throws SQLException {
+        return CACHE.getOrLoad(productId,
+            id -> FLIGHTS.execute(SELECT_BY_ID, () -> loadById(id), Product::new, id));
+    }
+    
+    private Product loadById(Long productId) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -516,7 +893,7 @@ public class ProductDAO {
             stmt.setLong(1, productId);
             rs = stmt.executeQuery();
             if (rs.next()) {
-                return extractProduct(rs);
+                return PRODUCT_MAPPER.mapRow(rs);
             }
             return null;
         } finally {
@@ -526,24 +903,182 @@ public class ProductDAO {
         }
     }
     
-    private Product extractProduct(ResultSet rs) throws SQLException {
-        Product product = new Product();
-        product.setProductId(rs.getLong("product_id"));
-        product.setProductCode(rs.getString("product_code"));
-        product.setProductName(rs.getString("product_name"));
-        product.setDescription(rs.getString("description"));
-        product.setCategory(rs.getString("category"));
-        product.setSubCategory(rs.getString("sub_category"));
-        product.setPrice(rs.getBigDecimal("price"));
-        product.setCost(rs.getBigDecimal("cost"));
-        product.setStockQuantity(rs.getInt("stock_quantity"));
-        product.setReorderLevel(rs.getInt("reorder_level"));
-        product.setSupplier(rs.getString("supplier"));
-        product.setManufacturer(rs.getString("manufacturer"));
-        product.setCreatedDate(rs.getDate("created_date"));
-        product.setModifiedDate(rs.getDate("modified_date"));
-        product.setStatus(rs.getString("status"));
-        product.setBarcode(rs.getString("barcode"));
-        return product;
+    /**
+     * Number of ACTIVE products. Concurrent calls share one query.
+     */
+    public int countActive() throws SQLException {
+        return FLIGHTS.execute(COUNT_ACTIVE, () -> count(COUNT_ACTIVE), null);
+    }
+    
+    private int count(String sql) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * A page of products in id order, skipping the first offset rows. Prefer
+     * findPage for deep paging; SKIP still reads every skipped row.
+     */
+    public List<ProductSummary> findSummaryPage(int offset, int limit) throws SQLException {
+        return Projections.list(SELECT_PAGE_GENERIC, rs -> new ProductSummary(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4)), offset, limit);
+    }
+    
+    /**
+     * Loads the products with the given ids, in the order given, using a few
+     * IN-list queries instead of one round trip per id. Ids already in the
+     * findById cache are not queried. Ids with no row are skipped.
+     */
+    public List<Product> findByIds(Collection<Long> productIds) throws SQLException {
+        return CACHE.getAllOrLoad(productIds,
+            missing -> InListQuery.select(SELECT_BY_ID_IN, missing, PRODUCT_MAPPER, Product::getProductId), Product::getProductId);
+    }
+    
+    /**
+     * Deletes the products with the given ids and returns the number of rows removed.
+     */
+    public int deleteByIds(Collection<Long> productIds) throws SQLException {
+        int deleted;
+        try {
+            deleted = InListQuery.update(DELETE_BY_ID_IN, productIds);
+        } finally {
+            FLIGHTS.invalidate();
+            for (Long id : productIds) {
+                if (id != null) {
+                    CACHE.invalidate(id);
+                }
+            }
+        }
+        for (Long id : productIds) {
+            if (id != null) {
+                StockReservations.stockWritten(id);
+            }
+        }
+        return deleted;
+    }
+    
+    /**
+     * Streams every row of the product table without materializing it.
+     * The stream holds a pooled connection until it is closed.
+     */
+    public Stream<Product> streamAll() throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, PRODUCT_MAPPER);
+    }
+    
+    public Stream<Product> streamAll(int fetchSize) throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, fetchSize, PRODUCT_MAPPER);
+    }
+    
+    /**
+     * Returns up to limit products with an id greater than lastId, in id order.
+     * Pass null for the first page.
+     */
+    public Page<Product> findPageAfter(Long lastId, int limit) throws SQLException {
+        if (lastId == null) {
+            return KeysetPager.fetch(SELECT_PAGE_FIRST, PAGE_BY_ID, limit, PRODUCT_MAPPER, ProductDAO::idKey);
+        }
+        return KeysetPager.fetch(SELECT_PAGE_AFTER_ID, PAGE_BY_ID, limit, PRODUCT_MAPPER, ProductDAO::idKey, lastId);
+    }
+    
+    /**
+     * Returns the page of products, in id order, that follows the given
+     * continuation token. Pass null for the first page.
+     */
+    public Page<Product> findPage(String continuationToken, int limit) throws SQLException {
+        if (continuationToken == null) {
+            return findPageAfter(null, limit);
+        }
+        return findPageAfter((Long) KeysetPager.decode(PAGE_BY_ID, continuationToken, Long.class)[0], limit);
+    }
+    
+    /**
+     * Returns the page of products in a category, in id order, that follows
+     * the given continuation token. Pass null for the first page.
+     */
+    public Page<Product> findPageByCategory(String category, String continuationToken, int limit) throws SQLException {
+        String listing = PAGE_BY_CATEGORY + category;
+        if (continuationToken == null) {
+            return KeysetPager.fetch(SELECT_PAGE_BY_CATEGORY_FIRST, listing, limit,
+                PRODUCT_MAPPER, ProductDAO::idKey, category);
+        }
+        Object[] key = KeysetPager.decode(listing, continuationToken, Long.class);
+        return KeysetPager.fetch(SELECT_PAGE_BY_CATEGORY_AFTER_ID, listing, limit,
+            PRODUCT_MAPPER, ProductDAO::idKey, category, key[0]);
+    }
+    
+    /**
+     * Returns the page of products ordered by created date, newest first, that
+     * follows the given continuation token. Ties on created date are broken by id.
+     */
+    public Page<Product> findPageOrderByCreatedDate(String continuationToken, int limit) throws SQLException {
+        if (continuationToken == null) {
+            return KeysetPager.fetch(SELECT_PAGE_BY_CREATED_DATE_FIRST, PAGE_BY_CREATED_DATE, limit,
+                PRODUCT_MAPPER, ProductDAO::createdDateKey);
+        }
+        Object[] key = KeysetPager.decode(PAGE_BY_CREATED_DATE, continuationToken, Timestamp.class, Long.class);
+        return KeysetPager.fetch(SELECT_PAGE_BY_CREATED_DATE_AFTER, PAGE_BY_CREATED_DATE, limit,
+            PRODUCT_MAPPER, ProductDAO::createdDateKey, key[0], key[0], key[1]);
+    }
+    
+    private static Object[] idKey(ResultSet rs) throws SQLException {
+        return new Object[] { rs.getLong("product_id") };
+    }
+    
+    private static Object[] createdDateKey(ResultSet rs) throws SQLException {
+        return new Object[] { rs.getTimestamp("created_date"), rs.getLong("product_id") };
+    }
+    
+    private static void bindStockDecrement(PreparedStatement stmt, Map.Entry<Long, Integer> decrement) throws SQLException {
+        if (decrement.getValue() < 1) {
+            throw new IllegalArgumentException("Quantity must be positive: " + decrement.getValue());
+        }
+        stmt.setInt(1, decrement.getValue());
+        stmt.setLong(2, decrement.getKey());
+        stmt.setInt(3, decrement.getValue());
+    }
+    
+    private static void bindInsert(PreparedStatement stmt, Product product) throws SQLException {
+        stmt.setLong(1, product.getProductId());
+        stmt.setString(2, product.getProductCode());
+        stmt.setString(3, product.getProductName());
+        stmt.setString(4, product.getDescription());
+        stmt.setString(5, product.getCategory());
+        stmt.setString(6, product.getSubCategory());
+        stmt.setBigDecimal(7, product.getPrice());
+        stmt.setBigDecimal(8, product.getCost());
+        stmt.setInt(9, product.getStockQuantity());
+        stmt.setInt(10, product.getReorderLevel());
+        stmt.setString(11, product.getSupplier());
+        stmt.setString(12, product.getManufacturer());
+        stmt.setString(13, product.getStatus());
+        stmt.setString(14, product.getBarcode());
+    }
+    
+    private static void bindUpdate(PreparedStatement stmt, Product product) throws SQLException {
+        stmt.setString(1, product.getProductCode());
+        stmt.setString(2, product.getProductName());
+        stmt.setString(3, product.getDescription());
+        stmt.setString(4, product.getCategory());
+        stmt.setString(5, product.getSubCategory());
+        stmt.setBigDecimal(6, product.getPrice());
+        stmt.setBigDecimal(7, product.getCost());
+        stmt.setInt(8, product.getStockQuantity());
+        stmt.setInt(9, product.getReorderLevel());
+        stmt.setString(10, product.getSupplier());
+        stmt.setString(11, product.getManufacturer());
+        stmt.setString(12, product.getStatus());
+        stmt.setString(13, product.getBarcode());
+        stmt.setLong(14, product.getProductId());
     }
 }
@@ -0,0 +1,408 @@
+package com.example.dao;
+
+import com.example.config.DatabaseConfig;
+import com.example.util.BatchResult;
+import com.example.util.ConnectionManager;
+import com.example.util.Transaction;
+import com.example.util.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reserves product stock in memory so that concurrent orders for the same
+ * product do not queue on its row lock. Each product's ledger tracks the
+ * stock last seen in the table, the units held by open reservations and the
+ * units confirmed but not yet written. A reservation succeeds only while
+ * those leave enough stock, so confirmed orders never oversell. Ledgers are
+ * guarded by a fixed set of lock stripes rather than one lock.
+ *
+ * Confirmed units are written to product.stock_quantity in batches by
+ * flush(), with the conditional DECREMENT_STOCK_IF_AVAILABLE, so a hot
+ * product costs one UPDATE per flush rather than one per order. Reservations
+ * that are neither confirmed nor released within db.stock.reservationTtlMillis
+ * are released by the next flush.
+ *
+ * The ledger assumes it is the only writer of stock for the products it
+ * tracks. ProductDAO's own stock writes, such as a restock through
+ * updateStockQuantity, refresh the shared instance once they commit; after
+ * stock changes through any other path, call refresh().
+ */
+public class StockReservations {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StockReservations.class);
+    
+    private static volatile StockReservations shared;
+    
+    private final ProductDAO productDAO;
+    private final Object[] stripes;
+    private final long ttlNanos;
+    // Ledgers are kept for every product ever reserved and are never removed
+    private final ConcurrentHashMap<Long, Ledger> ledgers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Reservation> open = new ConcurrentHashMap<>();
+    private final AtomicLong nextReservationId = new AtomicLong();
+    private final Object flushLock = new Object();
+    
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder flushedUnits = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    
+    public StockReservations(ProductDAO productDAO, int lockStripes, long reservationTtlMillis) {
+        if (lockStripes < 1 || reservationTtlMillis < 1) {
+            throw new IllegalArgumentException("Invalid stock reservation settings: lockStripes=" + lockStripes
+                + ", reservationTtlMillis=" + reservationTtlMillis);
+        }
+        this.productDAO = productDAO;
+        this.stripes = new Object[Integer.highestOneBit(lockStripes)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(reservationTtlMillis);
+    }
+    
+    /**
+     * The instance built from the db.stock.* settings, created on first use.
+     * It flushes on a daemon thread every db.stock.flushIntervalMillis.
+     */
+    public static StockReservations shared() {
+        StockReservations current = shared;
+        if (current == null) {
+            synchronized (StockReservations.class) {
+                current = shared;
+                if (current == null) {
+                    current = new StockReservations(new ProductDAO(), DatabaseConfig.getStockLockStripes(),
+                        DatabaseConfig.getStockReservationTtlMillis());
+                    current.scheduleFlush(DatabaseConfig.getStockFlushIntervalMillis());
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Holds quantity units of the product. Returns null if fewer units are
+     * available or the product does not exist.
+     */
+    public Reservation reserve(long productId, int quantity) throws SQLException {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        Ledger ledger = ledger(productId);
+        if (ledger == null) {
+            rejected.increment();
+            return null;
+        }
+        synchronized (stripe(productId)) {
+            if (ledger.available() < quantity) {
+                rejected.increment();
+                return null;
+            }
+            ledger.reserved += quantity;
+        }
+        Reservation reservation = new Reservation(nextReservationId.incrementAndGet(), productId, quantity);
+        open.put(reservation.getId(), reservation);
+        return reservation;
+    }
+    
+    /**
+     * Turns the reservation into a sale, to be written by the next flush.
+     * Inside a transaction this happens once it commits; if it rolls back the
+     * reservation stays open. Returns false if the reservation was already
+     * confirmed, released or expired.
+     */
+    public boolean confirm(Reservation reservation) {
+        if (open.remove(reservation.getId()) == null) {
+            return false;
+        }
+        Transaction tx = ConnectionManager.currentTransaction();
+        if (tx == null) {
+            settle(reservation, true);
+        } else {
+            tx.afterCompletion(() -> {
+                if (tx.isCommitted()) {
+                    settle(reservation, true);
+                } else {
+                    open.put(reservation.getId(), reservation);
+                }
+            });
+        }
+        return true;
+    }
+    
+    /**
+     * Gives the reserved units back. Returns false if the reservation was
+     * already confirmed, released or expired.
+     */
+    public boolean release(Reservation reservation) {
+        if (open.remove(reservation.getId()) == null) {
+            return false;
+        }
+        settle(reservation, false);
+        return true;
+    }
+    
+    /**
+     * Units that can still be reserved, or 0 for a product with no ledger yet.
+     */
+    public int getAvailable(long productId) {
+        Ledger ledger = ledgers.get(productId);
+        if (ledger == null) {
+            return 0;
+        }
+        synchronized (stripe(productId)) {
+            return Math.max(0, ledger.available());
+        }
+    }
+    
+    /**
+     * Releases expired reservations, then writes every confirmed quantity to
+     * the table in one transaction and returns the number of units written.
+     * A decrement the table rejects, because its stock was lowered elsewhere,
+     * stays pending and the ledger is refreshed from the table, so no new
+     * reservations succeed until the product is restocked.
+     */
+    public int flush() throws SQLException {
+        synchronized (flushLock) {
+            releaseExpired();
+            List<Map.Entry<Long, Integer>> decrements = new ArrayList<>();
+            for (Map.Entry<Long, Ledger> entry : ledgers.entrySet()) {
+                Ledger ledger = entry.getValue();
+                synchronized (stripe(entry.getKey())) {
+                    if (ledger.unflushed > 0) {
+                        decrements.add(Map.entry(entry.getKey(), ledger.unflushed));
+                        ledger.flushing = ledger.unflushed;
+                        ledger.unflushed = 0;
+                    }
+                }
+            }
+            if (decrements.isEmpty()) {
+                return 0;
+            }
+            BatchResult<Map.Entry<Long, Integer>> result;
+            try {
+                result = TransactionTemplate.execute(tx -> productDAO.decrementStocksIfAvailable(decrements));
+            } catch (SQLException | RuntimeException e) {
+                // The transaction rolled back, so nothing was written
+                for (Map.Entry<Long, Integer> decrement : decrements) {
+                    requeue(decrement.getKey());
+                }
+                throw e;
+            }
+            Set<Long> failed = new HashSet<>();
+            for (BatchResult.Failure<Map.Entry<Long, Integer>> failure : result.getFailures()) {
+                failed.add(failure.getItem().getKey());
+                logger.warn("Stock of product {} is below the {} confirmed units; they stay pending",
+                    failure.getItem().getKey(), failure.getItem().getValue());
+            }
+            int written = 0;
+            for (Map.Entry<Long, Integer> decrement : decrements) {
+                long productId = decrement.getKey();
+                if (failed.contains(productId)) {
+                    requeue(productId);
+                    refresh(productId);
+                    continue;
+                }
+                Ledger ledger = ledgers.get(productId);
+                synchronized (stripe(productId)) {
+                    ledger.stock -= ledger.flushing;
+                    ledger.flushing = 0;
+                }
+                written += decrement.getValue();
+            }
+            flushes.increment();
+            flushedUnits.add(written);
+            return written;
+        }
+    }
+    
+    /**
+     * Re-reads the product's stock from the table, e.g. after a restock.
+     */
+    public void refresh(long productId) throws SQLException {
+        synchronized (flushLock) {
+            Ledger ledger = ledgers.get(productId);
+            if (ledger == null) {
+                return;
+            }
+            Integer stock = productDAO.findStockQuantity(productId);
+            synchronized (stripe(productId)) {
+                ledger.stock = stock != null ? stock : 0;
+            }
+        }
+    }
+    
+    /**
+     * Refreshes the product's ledger in the shared instance, if there is one,
+     * after ProductDAO wrote its stock. Inside a transaction this waits until
+     * it commits, since the new stock is not visible before then.
+     */
+    static void stockWritten(long productId) throws SQLException {
+        StockReservations current = shared;
+        if (current == null) {
+            return;
+        }
+        Transaction tx = ConnectionManager.currentTransaction();
+        if (tx == null) {
+            current.refresh(productId);
+            return;
+        }
+        tx.afterCompletion(() -> {
+            if (!tx.isCommitted()) {
+                return;
+            }
+            try {
+                current.refresh(productId);
+            } catch (SQLException e) {
+                logger.warn("Could not refresh the stock ledger of product {} after a write", productId, e);
+            }
+        });
+    }
+    
+    public int getOpenReservationCount() {
+        return open.size();
+    }
+    
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+    
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+    
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+    
+    public long getFlushedUnits() {
+        return flushedUnits.sum();
+    }
+    
+    @Override
+    public String toString() {
+        return "StockReservations[open=" + getOpenReservationCount() + ", rejected=" + getRejectedCount()
+            + ", expired=" + getExpiredCount() + ", flushes=" + getFlushCount() + ", flushedUnits="
+            + getFlushedUnits() + "]";
+    }
+    
+    private Ledger ledger(long productId) throws SQLException {
+        Ledger ledger = ledgers.get(productId);
+        if (ledger != null) {
+            return ledger;
+        }
+        Integer stock = productDAO.findStockQuantity(productId);
+        if (stock == null) {
+            return null;
+        }
+        Ledger loaded = ledgers.putIfAbsent(productId, new Ledger(stock));
+        return loaded != null ? loaded : ledgers.get(productId);
+    }
+    
+    private void settle(Reservation reservation, boolean confirmed) {
+        Ledger ledger = ledgers.get(reservation.getProductId());
+        synchronized (stripe(reservation.getProductId())) {
+            ledger.reserved -= reservation.getQuantity();
+            if (confirmed) {
+                ledger.unflushed += reservation.getQuantity();
+            }
+        }
+    }
+    
+    private void requeue(long productId) {
+        Ledger ledger = ledgers.get(productId);
+        synchronized (stripe(productId)) {
+            ledger.unflushed += ledger.flushing;
+            ledger.flushing = 0;
+        }
+    }
+    
+    private void releaseExpired() {
+        long now = System.nanoTime();
+        for (Reservation reservation : open.values()) {
+            if (now - reservation.createdAt >= ttlNanos && open.remove(reservation.getId(), reservation)) {
+                settle(reservation, false);
+                expired.increment();
+            }
+        }
+    }
+    
+    private Object stripe(long productId) {
+        int h = Long.hashCode(productId);
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+    
+    private void scheduleFlush(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (SQLException | RuntimeException e) {
+                logger.warn("Stock flush failed; confirmed units stay pending", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Units of one product held for an order until it is confirmed or released.
+     */
+    public static final class Reservation {
+        private final long id;
+        private final long productId;
+        private final int quantity;
+        private final long createdAt = System.nanoTime();
+        
+        private Reservation(long id, long productId, int quantity) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+        
+        public long getId() { return id; }
+        
+        public long getProductId() { return productId; }
+        
+        public int getQuantity() { return quantity; }
+        
+        @Override
+        public String toString() {
+            return "Reservation[id=" + id + ", productId=" + productId + ", quantity=" + quantity + "]";
+        }
+    }
+    
+    // Guarded by the product's stripe
+    private static final class Ledger {
+        int stock;
+        int reserved;
+        int unflushed;
+        int flushing;
+        
+        Ledger(int stock) {
+            this.stock = stock;
+        }
+        
+        int available() {
+            return stock - reserved - unflushed - flushing;
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.dao;
 
 import com.example.model.Supplier;
+import com.example.util.ColumnMapper;
 import com.example.util.ConnectionManager;
+import com.example.util.InListQuery;
+import com.example.util.ResultSetStream;
+import com.example.util.SqlCatalog;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Supplier entity
@@ -18,6 +25,10 @@ public class SupplierDAO {
     private static final String SELECT_BY_ID = "SELECT supplier_id, supplier_name, contact_person, email, phone, address, city, state, zip_code, country, rating, status, created_date, modified_date FROM supplier WHERE supplier_id = ?";
     private static final String SELECT_ALL = "SELECT supplier_id, supplier_name, contact_person, email, phone, address, city, state, zip_code, country, rating, status, created_date, modified_date FROM supplier";
     
+    private static final String SELECT_BY_ID_IN = SELECT_ALL + " WHERE supplier_id IN ";
+    
+    private static final String DELETE_BY_ID_IN = "DELETE FROM supplier WHERE supplier_id IN ";
+    
     // Search queries - SQL strings 3011-3050
     private static final String SELECT_BY_NAME = "SELECT supplier_id, supplier_name, contact_person, email, phone, address, city, state, zip_code, country, rating, status, created_date, modified_date FROM supplier WHERE supplier_name = ?";
     private static final String SELECT_BY_EMAIL = "SELECT supplier_id, supplier_name, contact_person, email, phone, address, city, state, zip_code, country, rating, status, created_date, modified_date FROM supplier WHERE email = ?";
@@ -88,5 +99,52 @@ public class SupplierDAO {
     private static final String SELECT_DISTINCT_STATES = "SELECT DISTINCT state FROM supplier WHERE state IS NOT NULL ORDER BY state";
     private static final String SELECT_DISTINCT_CITIES = "SELECT DISTINCT city FROM supplier WHERE city IS NOT NULL ORDER BY city";
     
+    private static final ColumnMapper<Supplier> SUPPLIER_MAPPER = ColumnMapper.builder(Supplier::new)
+        .longValue("supplier_id", Supplier::setSupplierId)
+        .string("supplier_name", Supplier::setSupplierName)
+        .string("contact_person", Supplier::setContactName)
+        .string("email", Supplier::setEmail)
+        .string("phone", Supplier::setPhone)
+        .string("address", Supplier::setAddress)
+        .string("city", Supplier::setCity)
+        .string("state", Supplier::setState)
+        .string("zip_code", Supplier::setZipCode)
+        .string("country", Supplier::setCountry)
+        .string("status", Supplier::setStatus)
+        .date("created_date", Supplier::setCreatedDate)
+        .date("modified_date", Supplier::setModifiedDate)
+        .build();
+    
+    static {
+        SqlCatalog.register(SupplierDAO.class);
+    }
+    
     public SupplierDAO() {}
+    
+    /**
+     * Loads the suppliers with the given ids, in the order given, using a few
+     * IN-list queries instead of one round trip per id. Ids with no row are skipped.
+     */
+    public List<Supplier> findByIds(Collection<Long> supplierIds) throws SQLException {
+        return InListQuery.select(SELECT_BY_ID_IN, supplierIds, SUPPLIER_MAPPER, Supplier::getSupplierId);
+    }
+    
+    /**
+     * Deletes the suppliers with the given ids and returns the number of rows removed.
+     */
+    public int deleteByIds(Collection<Long> supplierIds) throws SQLException {
+        return InListQuery.update(DELETE_BY_ID_IN, supplierIds);
+    }
+    
+    /**
+     * Streams every row of the supplier table without materializing it.
+     * The stream holds a pooled connection until it is closed.
+     */
+    public Stream<Supplier> streamAll() throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, SUPPLIER_MAPPER);
+    }
+    
+    public Stream<Supplier> streamAll(int fetchSize) throws SQLException {
+        return ResultSetStream.stream(SELECT_ALL, fetchSize, SUPPLIER_MAPPER);
+    }
 }
@@ -10,12 +10,27 @@ public class Category {
     private String categoryName;
     private String description;
     private Long parentCategoryId;
+    private Integer displayOrder;
     private String status;
     private Date createdDate;
     private Date modifiedDate;
     
     public Category() {}
     
+    /**
+     * Copy constructor; dates are copied since java.util.Date is mutable.
+     */
+    public Category(Category other) {
+        this.categoryId = other.categoryId;
+        this.categoryName = other.categoryName;
+        this.description = other.description;
+        this.parentCategoryId = other.parentCategoryId;
+        this.displayOrder = other.displayOrder;
+        this.status = other.status;
+        this.createdDate = other.createdDate != null ? (Date) other.createdDate.clone() : null;
+        this.modifiedDate = other.modifiedDate != null ? (Date) other.modifiedDate.clone() : null;
+    }
+    
     // Getters and Setters
     public Long getCategoryId() { return categoryId; }
     public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
@@ -29,6 +44,9 @@ public class Category {
     public Long getParentCategoryId() { return parentCategoryId; }
     public void setParentCategoryId(Long parentCategoryId) { this.parentCategoryId = parentCategoryId; }
     
+    public Integer getDisplayOrder() { return displayOrder; }
+    public void setDisplayOrder(Integer displayOrder) { this.displayOrder = displayOrder; }
+    
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     
@@ -33,6 +33,27 @@ public class Customer {
         this.email = email;
     }
     
+    /**
+     * Copy constructor; dates are copied since java.util.Date is mutable.
+     */
+    public Customer(Customer other) {
+        this.customerId = other.customerId;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.email = other.email;
+        this.phone = other.phone;
+        this.address = other.address;
+        this.city = other.city;
+        this.state = other.state;
+        this.zipCode = other.zipCode;
+        this.country = other.country;
+        this.createdDate = other.createdDate != null ? (Date) other.createdDate.clone() : null;
+        this.modifiedDate = other.modifiedDate != null ? (Date) other.modifiedDate.clone() : null;
+        this.status = other.status;
+        this.creditLimit = other.creditLimit;
+        this.customerType = other.customerType;
+    }
+    
     // Getters and Setters
     public Long getCustomerId() { return customerId; }
     public void setCustomerId(Long customerId) { this.customerId = customerId; }
@@ -0,0 +1,7 @@
+package com.example.model;
+
+/**
+ * How to reach a customer, without the rest of the customer row.
+ */
+public record CustomerContact(long customerId, String firstName, String lastName, String email, String phone) {
+}
@@ -0,0 +1,7 @@
+package com.example.model;
+
+/**
+ * The columns of a customer shown in list views.
+ */
+public record CustomerSummary(long customerId, String firstName, String lastName, String email) {
+}
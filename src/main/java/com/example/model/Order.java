@@ -34,6 +34,33 @@ public class Order {
         this.orderDate = orderDate;
     }
     
+    /**
+     * Copy constructor; dates are copied since java.util.Date is mutable.
+     */
+    public Order(Order other) {
+        this.orderId = other.orderId;
+        this.customerId = other.customerId;
+        this.orderDate = copy(other.orderDate);
+        this.shippedDate = copy(other.shippedDate);
+        this.deliveredDate = copy(other.deliveredDate);
+        this.orderStatus = other.orderStatus;
+        this.totalAmount = other.totalAmount;
+        this.taxAmount = other.taxAmount;
+        this.shippingAmount = other.shippingAmount;
+        this.shippingAddress = other.shippingAddress;
+        this.shippingCity = other.shippingCity;
+        this.shippingState = other.shippingState;
+        this.shippingZip = other.shippingZip;
+        this.paymentMethod = other.paymentMethod;
+        this.paymentStatus = other.paymentStatus;
+        this.createdDate = copy(other.createdDate);
+        this.modifiedDate = copy(other.modifiedDate);
+    }
+    
+    private static Date copy(Date date) {
+        return date != null ? (Date) date.clone() : null;
+    }
+    
     // Getters and Setters
     public Long getOrderId() { return orderId; }
     public void setOrderId(Long orderId) { this.orderId = orderId; }
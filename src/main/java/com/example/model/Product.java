@@ -33,6 +33,28 @@ public class Product {
         this.price = price;
     }
     
+    /**
+     * Copy constructor; dates are copied since java.util.Date is mutable.
+     */
+    public Product(Product other) {
+        this.productId = other.productId;
+        this.productCode = other.productCode;
+        this.productName = other.productName;
+        this.description = other.description;
+        this.category = other.category;
+        this.subCategory = other.subCategory;
+        this.price = other.price;
+        this.cost = other.cost;
+        this.stockQuantity = other.stockQuantity;
+        this.reorderLevel = other.reorderLevel;
+        this.supplier = other.supplier;
+        this.manufacturer = other.manufacturer;
+        this.createdDate = other.createdDate != null ? (Date) other.createdDate.clone() : null;
+        this.modifiedDate = other.modifiedDate != null ? (Date) other.modifiedDate.clone() : null;
+        this.status = other.status;
+        this.barcode = other.barcode;
+    }
+    
     // Getters and Setters
     public Long getProductId() { return productId; }
     public void setProductId(Long productId) { this.productId = productId; }
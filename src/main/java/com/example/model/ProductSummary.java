@@ -0,0 +1,9 @@
+package com.example.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns of a product shown in list views.
+ */
+public record ProductSummary(long productId, String productCode, String productName, BigDecimal price) {
+}
@@ -0,0 +1,26 @@
+package com.example.service;
+
+import java.util.List;
+
+/**
+ * Thrown when an order asks for more units of a product than are in stock.
+ * Nothing of the order has been written when it is thrown.
+ */
+public class InsufficientStockException extends IllegalStateException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final List<Long> productIds;
+    
+    public InsufficientStockException(List<Long> productIds) {
+        super("Not enough stock for products " + productIds);
+        this.productIds = List.copyOf(productIds);
+    }
+    
+    /**
+     * The products that ran short.
+     */
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.service;
+
+import com.example.dao.InvoiceDAO;
+import com.example.dao.OrderDAO;
+import com.example.dao.OrderItemDAO;
+import com.example.dao.ProductDAO;
+import com.example.dao.StockReservations;
+import com.example.dao.StockReservations.Reservation;
+import com.example.model.Invoice;
+import com.example.model.Order;
+import com.example.model.OrderItem;
+import com.example.model.Product;
+import com.example.util.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Places orders. Stock is taken through the StockReservations ledger: it is
+ * reserved in memory before the transaction and confirmed inside it, and the
+ * ledger's flush writes it to the product table later. The order, its lines
+ * and its invoice are written in one transaction on one connection, one
+ * statement per table: the order row, a batch of line rows and the invoice
+ * row. Line and order totals are computed here instead of being read back
+ * from the database.
+ */
+public class OrderService {
+    
+    private static final String DEFAULT_ORDER_STATUS = "PENDING";
+    private static final String DEFAULT_PAYMENT_STATUS = "UNPAID";
+    
+    private final OrderDAO orderDAO;
+    private final OrderItemDAO orderItemDAO;
+    private final ProductDAO productDAO;
+    private final InvoiceDAO invoiceDAO;
+    private final StockReservations reservations;
+    
+    public OrderService() {
+        this(new OrderDAO(), new OrderItemDAO(), new ProductDAO(), new InvoiceDAO(), StockReservations.shared());
+    }
+    
+    public OrderService(OrderDAO orderDAO, OrderItemDAO orderItemDAO, ProductDAO productDAO, InvoiceDAO invoiceDAO,
+                        StockReservations reservations) {
+        this.orderDAO = orderDAO;
+        this.orderItemDAO = orderItemDAO;
+        this.productDAO = productDAO;
+        this.invoiceDAO = invoiceDAO;
+        this.reservations = reservations;
+    }
+    
+    /**
+     * Places the order with the given lines and, unless it is null, its
+     * invoice. The caller assigns the ids. Each line's total is its unit
+     * price times quantity less its discount. A line with no unit price gets
+     * the product's current price, which costs one extra query before the
+     * transaction starts. The order total is the lines' subtotal plus the
+     * order's tax and shipping. Status fields left null default to PENDING
+     * and UNPAID. The order, lines and invoice passed in are filled in with
+     * these values.
+     *
+     * Inside an enclosing transaction the stock is only confirmed when that
+     * transaction commits; if it rolls back, the reservations are released
+     * once they expire.
+     *
+     * @throws InsufficientStockException if the ledger has fewer units of any
+     *         product available than the lines ask for; nothing is written
+     */
+    public Order placeOrder(Order order, List<OrderItem> items, Invoice invoice) throws SQLException {
+        if (order.getOrderId() == null || order.getCustomerId() == null) {
+            throw new IllegalArgumentException("Order id and customer id are required");
+        }
+        if (invoice != null && invoice.getInvoiceId() == null) {
+            throw new IllegalArgumentException("Invoice for order " + order.getOrderId() + " has no id");
+        }
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Order " + order.getOrderId() + " has no lines");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            if (item.getOrderItemId() == null || item.getProductId() == null || item.getQuantity() == null
+                    || item.getQuantity() < 1) {
+                throw new IllegalArgumentException("Order line " + item.getOrderItemId()
+                    + " needs an id, a product id and a positive quantity");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        fillPrices(items);
+        computeTotals(order, items, invoice);
+        List<Reservation> held = reserve(quantities);
+        try {
+            return TransactionTemplate.execute(tx -> {
+                orderDAO.insert(order);
+                orderItemDAO.insertInOneBatch(items);
+                if (invoice != null) {
+                    invoiceDAO.insert(invoice);
+                }
+                // Last, so nothing in this callback can fail after a reservation is confirmed
+                for (Reservation reservation : held) {
+                    reservations.confirm(reservation);
+                }
+                return order;
+            });
+        } catch (SQLException | RuntimeException e) {
+            // A rolled-back confirm reopens its reservation, so every one can be given back here
+            releaseAll(held);
+            throw e;
+        }
+    }
+    
+    /**
+     * Reserves every product's quantity, or none of them.
+     */
+    private List<Reservation> reserve(Map<Long, Integer> quantities) throws SQLException {
+        List<Reservation> held = new ArrayList<>(quantities.size());
+        List<Long> shortProducts = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                Reservation reservation = reservations.reserve(entry.getKey(), entry.getValue());
+                if (reservation != null) {
+                    held.add(reservation);
+                } else {
+                    shortProducts.add(entry.getKey());
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            releaseAll(held);
+            throw e;
+        }
+        if (!shortProducts.isEmpty()) {
+            releaseAll(held);
+            throw new InsufficientStockException(shortProducts);
+        }
+        return held;
+    }
+    
+    private void releaseAll(List<Reservation> held) {
+        for (Reservation reservation : held) {
+            reservations.release(reservation);
+        }
+    }
+    
+    private void fillPrices(List<OrderItem> items) throws SQLException {
+        Set<Long> unpriced = new TreeSet<>();
+        for (OrderItem item : items) {
+            if (item.getUnitPrice() == null) {
+                unpriced.add(item.getProductId());
+            }
+        }
+        if (unpriced.isEmpty()) {
+            return;
+        }
+        Map<Long, BigDecimal> prices = new TreeMap<>();
+        for (Product product : productDAO.findByIds(unpriced)) {
+            prices.put(product.getProductId(), product.getPrice());
+        }
+        for (OrderItem item : items) {
+            if (item.getUnitPrice() == null) {
+                BigDecimal price = prices.get(item.getProductId());
+                if (price == null) {
+                    throw new IllegalArgumentException("No price for product " + item.getProductId());
+                }
+                item.setUnitPrice(price);
+            }
+        }
+    }
+    
+    private static void computeTotals(Order order, List<OrderItem> items, Invoice invoice) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            item.setOrderId(order.getOrderId());
+            if (item.getDiscount() == null) {
+                item.setDiscount(BigDecimal.ZERO);
+            }
+            item.setTotalPrice(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()))
+                .subtract(item.getDiscount()));
+            subtotal = subtotal.add(item.getTotalPrice());
+        }
+        BigDecimal tax = order.getTaxAmount() != null ? order.getTaxAmount() : BigDecimal.ZERO;
+        BigDecimal shipping = order.getShippingAmount() != null ? order.getShippingAmount() : BigDecimal.ZERO;
+        order.setTaxAmount(tax);
+        order.setShippingAmount(shipping);
+        order.setTotalAmount(subtotal.add(tax).add(shipping));
+        if (order.getOrderDate() == null) {
+            order.setOrderDate(new Date());
+        }
+        if (order.getOrderStatus() == null) {
+            order.setOrderStatus(DEFAULT_ORDER_STATUS);
+        }
+        if (order.getPaymentStatus() == null) {
+            order.setPaymentStatus(DEFAULT_PAYMENT_STATUS);
+        }
+        if (invoice != null) {
+            invoice.setOrderId(order.getOrderId());
+            invoice.setCustomerId(order.getCustomerId());
+            invoice.setSubtotal(subtotal);
+            invoice.setTaxAmount(tax);
+            invoice.setTotalAmount(order.getTotalAmount());
+            if (invoice.getPaidAmount() == null) {
+                invoice.setPaidAmount(BigDecimal.ZERO);
+            }
+            if (invoice.getPaymentStatus() == null) {
+                invoice.setPaymentStatus(DEFAULT_PAYMENT_STATUS);
+            }
+            if (invoice.getInvoiceDate() == null) {
+                invoice.setInvoiceDate(order.getOrderDate());
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a set of named single-value aggregate statements, such as
+ * "SELECT SUM(total_amount) FROM orders WHERE payment_status = 'PAID'", in as
+ * few round trips as possible. Statements over the same table are merged:
+ * <ul>
+ *   <li>statements with the same WHERE clause and parameters become one
+ *       SELECT of all their aggregates under that WHERE;</li>
+ *   <li>if any statement on the table has no WHERE clause, the table is being
+ *       scanned anyway, so every other statement on it joins that pass as
+ *       AGG(CASE WHEN condition THEN argument END).</li>
+ * </ul>
+ * Selective statements on different conditions are not folded into a scan
+ * nobody asked for. Statements that are not a single COUNT, SUM, AVG, MAX or
+ * MIN over one table, such as joins, subqueries, GROUP BY or arithmetic on
+ * several aggregates, run unchanged, as do statements with a parameter
+ * inside the aggregate, whose parameters could not be kept in order.
+ */
+public class AggregateBatch {
+    
+    private static final Pattern SCALAR_AGGREGATE = Pattern.compile(
+        "SELECT\\s+(COUNT|SUM|AVG|MAX|MIN)\\s*\\(\\s*(DISTINCT\\s+)?(.+?)\\s*\\)\\s+FROM\\s+(\\w+)(?:\\s+WHERE\\s+(.+?))?\\s*",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    
+    private static final Pattern UNMERGEABLE = Pattern.compile(
+        "\\b(SELECT|FROM|JOIN|GROUP|HAVING|ORDER|UNION|FIRST|LIMIT)\\b", Pattern.CASE_INSENSITIVE);
+    
+    private final Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+    
+    public AggregateBatch() {
+    }
+    
+    /**
+     * Adds a statement whose result is reported under the given name.
+     */
+    public AggregateBatch add(String name, String sql, Object... params) {
+        if (name == null || sql == null) {
+            throw new IllegalArgumentException("Aggregate name and SQL are required");
+        }
+        if (aggregates.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate aggregate name: " + name);
+        }
+        aggregates.put(name, Aggregate.parse(name, sql, params.clone()));
+        return this;
+    }
+    
+    public int size() {
+        return aggregates.size();
+    }
+    
+    /**
+     * Runs the merged statements one after another on one connection and
+     * returns every value by name.
+     */
+    public AggregateResult execute() throws SQLException {
+        List<Pass> passes = plan();
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String name : aggregates.keySet()) {
+            values.put(name, null);
+        }
+        Connection conn = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            for (Pass pass : passes) {
+                pass.run(conn, values);
+            }
+        } finally {
+            ConnectionManager.closeConnection(conn);
+        }
+        return new AggregateResult(values, aggregates.size(), passes.size());
+    }
+    
+    /**
+     * Groups the statements into passes, in the order each pass's first statement was added.
+     */
+    List<Pass> plan() {
+        Map<String, List<Aggregate>> byTable = new LinkedHashMap<>();
+        List<Pass> passes = new ArrayList<>();
+        for (Aggregate aggregate : aggregates.values()) {
+            if (aggregate.table == null) {
+                passes.add(Pass.unchanged(aggregate));
+            } else {
+                byTable.computeIfAbsent(aggregate.table, t -> new ArrayList<>()).add(aggregate);
+            }
+        }
+        for (List<Aggregate> onTable : byTable.values()) {
+            boolean scanned = onTable.stream().anyMatch(a -> a.where == null);
+            if (scanned) {
+                passes.add(Pass.merged(onTable, null));
+                continue;
+            }
+            Map<List<Object>, List<Aggregate>> byWhere = new LinkedHashMap<>();
+            for (Aggregate aggregate : onTable) {
+                List<Object> key = new ArrayList<>(aggregate.params.length + 1);
+                key.add(aggregate.where);
+                key.addAll(Arrays.asList(aggregate.params));
+                byWhere.computeIfAbsent(key, k -> new ArrayList<>()).add(aggregate);
+            }
+            for (List<Aggregate> sameWhere : byWhere.values()) {
+                passes.add(sameWhere.size() == 1 ? Pass.unchanged(sameWhere.get(0)) : Pass.merged(sameWhere, sameWhere.get(0)));
+            }
+        }
+        return passes;
+    }
+    
+    /**
+     * One requested statement, split into its parts when it can be merged.
+     */
+    private static class Aggregate {
+        final String name;
+        final String sql;
+        final Object[] params;
+        // Null when the statement cannot be merged
+        final String table;
+        final String function;
+        final boolean distinct;
+        final String argument;
+        final String where;
+        
+        private Aggregate(String name, String sql, Object[] params, String table, String function,
+                          boolean distinct, String argument, String where) {
+            this.name = name;
+            this.sql = sql;
+            this.params = params;
+            this.table = table;
+            this.function = function;
+            this.distinct = distinct;
+            this.argument = argument;
+            this.where = where;
+        }
+        
+        static Aggregate parse(String name, String sql, Object[] params) {
+            Matcher m = SCALAR_AGGREGATE.matcher(sql.trim());
+            // The lazy argument group can also match "a) / COUNT(*" in "SUM(a) / COUNT(*) FROM ..."
+            if (!m.matches() || !balanced(m.group(3)) || m.group(3).contains("?")
+                    || UNMERGEABLE.matcher(m.group(3)).find()
+                    || (m.group(5) != null && UNMERGEABLE.matcher(m.group(5)).find())) {
+                return new Aggregate(name, sql, params, null, null, false, null, null);
+            }
+            return new Aggregate(name, sql, params, m.group(4).toLowerCase(Locale.ROOT), m.group(1).toUpperCase(Locale.ROOT),
+                m.group(2) != null, m.group(3), m.group(5));
+        }
+        
+        /**
+         * True if every parenthesis in the argument closes one opened before it
+         * and all of them are closed, so it is one expression inside the aggregate.
+         */
+        private static boolean balanced(String argument) {
+            int depth = 0;
+            for (int i = 0; i < argument.length(); i++) {
+                char c = argument.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth < 0) {
+                    return false;
+                }
+            }
+            return depth == 0;
+        }
+        
+        /**
+         * The select-list expression; when the pass has no WHERE of its own the
+         * condition moves inside the aggregate.
+         */
+        String expression(boolean inlineWhere) {
+            String arg = argument;
+            if (inlineWhere && where != null) {
+                arg = "CASE WHEN " + where + " THEN " + ("*".equals(argument) ? "1" : argument) + " END";
+            }
+            return function + "(" + (distinct ? "DISTINCT " : "") + arg + ")";
+        }
+        
+        Object read(ResultSet rs, int column) throws SQLException {
+            if (function == null) {
+                return rs.getObject(column);
+            }
+            switch (function) {
+                case "COUNT":
+                    return rs.getLong(column);
+                case "SUM":
+                case "AVG":
+                    return rs.getBigDecimal(column);
+                default:
+                    return rs.getObject(column);
+            }
+        }
+    }
+    
+    /**
+     * One statement actually sent to the database.
+     */
+    static class Pass {
+        final String sql;
+        final List<Aggregate> members;
+        final Object[] params;
+        
+        private Pass(String sql, List<Aggregate> members, Object[] params) {
+            this.sql = sql;
+            this.members = members;
+            this.params = params;
+        }
+        
+        static Pass unchanged(Aggregate aggregate) {
+            return new Pass(aggregate.sql, List.of(aggregate), aggregate.params);
+        }
+        
+        /**
+         * Merges the aggregates under the shared WHERE of the given member, or
+         * with each condition inlined when shared is null.
+         */
+        static Pass merged(List<Aggregate> members, Aggregate shared) {
+            StringBuilder sql = new StringBuilder("SELECT ");
+            List<Object> params = new ArrayList<>();
+            StringBuilder names = new StringBuilder();
+            for (int i = 0; i < members.size(); i++) {
+                Aggregate aggregate = members.get(i);
+                sql.append(i == 0 ? "" : ", ").append(aggregate.expression(shared == null));
+                names.append(i == 0 ? "" : "+").append(SqlCatalog.nameOf(aggregate.sql));
+                if (shared == null) {
+                    params.addAll(Arrays.asList(aggregate.params));
+                }
+            }
+            sql.append(" FROM ").append(members.get(0).table);
+            if (shared != null) {
+                sql.append(" WHERE ").append(shared.where);
+                params.addAll(Arrays.asList(shared.params));
+            }
+            String text = sql.toString();
+            SqlCatalog.alias(text, "AggregateBatch[" + names + "]");
+            return new Pass(text, members, params.toArray());
+        }
+        
+        void run(Connection conn, Map<String, Object> values) throws SQLException {
+            PreparedStatement stmt = null;
+            ResultSet rs = null;
+            try {
+                stmt = conn.prepareStatement(sql);
+                for (int i = 0; i < params.length; i++) {
+                    stmt.setObject(i + 1, params[i]);
+                }
+                rs = stmt.executeQuery();
+                if (rs.next()) {
+                    for (int i = 0; i < members.size(); i++) {
+                        Aggregate aggregate = members.get(i);
+                        values.put(aggregate.name, aggregate.read(rs, i + 1));
+                    }
+                }
+            } finally {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+            }
+        }
+    }
+}
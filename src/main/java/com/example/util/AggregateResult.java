@@ -0,0 +1,73 @@
+package com.example.util;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Values of an {@link AggregateBatch} by name, in the order they were added.
+ * COUNT comes back as a Long, SUM and AVG as a BigDecimal and MAX and MIN as
+ * whatever the driver returns for the column; SQL NULL is null.
+ */
+public class AggregateResult {
+    
+    private final Map<String, Object> values;
+    private final int requested;
+    private final int executed;
+    
+    AggregateResult(Map<String, Object> values, int requested, int executed) {
+        this.values = Collections.unmodifiableMap(values);
+        this.requested = requested;
+        this.executed = executed;
+    }
+    
+    public Object get(String name) {
+        if (!values.containsKey(name)) {
+            throw new IllegalArgumentException("No aggregate named " + name);
+        }
+        return values.get(name);
+    }
+    
+    /**
+     * The value as a long; SQL NULL reads as 0.
+     */
+    public long getLong(String name) {
+        Object value = get(name);
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+    
+    public BigDecimal getBigDecimal(String name) {
+        Object value = get(name);
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+    
+    public Map<String, Object> asMap() {
+        return values;
+    }
+    
+    /**
+     * Statements the caller asked for.
+     */
+    public int getRequestedCount() {
+        return requested;
+    }
+    
+    /**
+     * Statements actually sent to the database.
+     */
+    public int getExecutedCount() {
+        return executed;
+    }
+    
+    public int getRoundTripsSaved() {
+        return requested - executed;
+    }
+    
+    @Override
+    public String toString() {
+        return "AggregateResult[" + values + ", requested=" + requested + ", executed=" + executed + "]";
+    }
+}
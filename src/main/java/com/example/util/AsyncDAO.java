@@ -0,0 +1,43 @@
+package com.example.util;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over any DAO, so independent queries can overlap:
+ *
+ * <pre>
+ * AsyncDAO&lt;CustomerDAO&gt; customers = new AsyncDAO&lt;&gt;(new CustomerDAO());
+ * AsyncDAO&lt;OrderDAO&gt; orders = new AsyncDAO&lt;&gt;(new OrderDAO());
+ * CompletableFuture&lt;Customer&gt; customer = customers.call(dao -&gt; dao.findById(id));
+ * CompletableFuture&lt;List&lt;Order&gt;&gt; recent = orders.call(dao -&gt; dao.findByIds(orderIds));
+ * </pre>
+ *
+ * Calls run on other threads, so they are not part of a transaction open on
+ * the calling thread and each borrows its own pooled connection.
+ */
+public class AsyncDAO<D> {
+    
+    private final D dao;
+    private final AsyncExecutor executor;
+    
+    public AsyncDAO(D dao) {
+        this(dao, AsyncExecutor.shared());
+    }
+    
+    public AsyncDAO(D dao, AsyncExecutor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+    
+    /**
+     * Runs the call asynchronously; the future fails with the call's
+     * SQLException if it throws one.
+     */
+    public <T> CompletableFuture<T> call(DaoCall<D, T> call) {
+        return executor.submit(() -> call.call(dao));
+    }
+    
+    public D getDao() {
+        return dao;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking DAO calls on an executor with a cap on how many run at once.
+ * Calls over the cap wait in a queue rather than on a thread, so the cap
+ * holds for any executor, and the default cap of db.pool.maxSize keeps
+ * concurrent calls from queueing on the connection pool instead.
+ *
+ * The shared instance uses virtual threads when the JVM provides them and
+ * falls back to daemon platform threads otherwise.
+ */
+public class AsyncExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AsyncExecutor.class);
+    
+    private static volatile AsyncExecutor shared;
+    
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final Queue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+    
+    public AsyncExecutor(Executor executor, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1: " + maxConcurrency);
+        }
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+    
+    /**
+     * The instance built from the db.async.* settings, created on first use.
+     */
+    public static AsyncExecutor shared() {
+        AsyncExecutor current = shared;
+        if (current == null) {
+            synchronized (AsyncExecutor.class) {
+                current = shared;
+                if (current == null) {
+                    current = new AsyncExecutor(defaultExecutor(), DatabaseConfig.getAsyncMaxConcurrency());
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Runs the task asynchronously. The future completes with its result or
+     * with the exception it threw, e.g. a SQLException, or with a
+     * RejectedExecutionException if the executor refused to run it.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        queue.add(new Task<>(task, future));
+        drain();
+        return future;
+    }
+    
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+    
+    public int getQueuedCount() {
+        return queue.size();
+    }
+    
+    /**
+     * Starts queued tasks while there are permits. A finishing task calls
+     * this again, so a task queued just as the last permit came back is
+     * picked up by whichever thread gets to it first.
+     */
+    private void drain() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            Task<?> task = queue.poll();
+            if (task == null) {
+                permits.release();
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Not run here: the calling thread may be inside a transaction the task would join
+                logger.error("Executor rejected an async DAO call", e);
+                permits.release();
+                task.reject(e);
+            }
+        }
+    }
+    
+    private static Executor defaultExecutor() {
+        if (DatabaseConfig.isAsyncVirtualThreads()) {
+            try {
+                // Looked up reflectively so the code still builds and runs on Java 17
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.info("Virtual threads not available, async DAO calls use platform threads");
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "dao-async-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+    
+    /**
+     * A queued call and the future it completes.
+     */
+    private static final class Task<T> implements Runnable {
+        private final Callable<T> call;
+        private final CompletableFuture<T> future;
+        
+        Task(Callable<T> call, CompletableFuture<T> future) {
+            this.call = call;
+            this.future = future;
+        }
+        
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(call.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+        
+        void reject(RejectedExecutionException cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Runs one DML statement for many rows with JDBC batching.
+ * Rows are sent in chunks of the configured batch size and each chunk is
+ * committed on its own. When a chunk fails, it is rolled back and replayed
+ * row by row so that one bad row only costs itself, not the whole load.
+ * Inside a {@link TransactionTemplate} nothing is committed here; each chunk
+ * runs under a savepoint instead and the enclosing transaction commits.
+ */
+public class BatchExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchExecutor.class);
+    
+    private BatchExecutor() {}
+    
+    public static <T> BatchResult<T> execute(String sql, Collection<T> items, StatementBinder<T> binder) throws SQLException {
+        return execute(sql, items, binder, DatabaseConfig.getBatchSize());
+    }
+    
+    public static <T> BatchResult<T> execute(String sql, Collection<T> items, StatementBinder<T> binder,
+                                             int batchSize) throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        BatchResult<T> result = new BatchResult<>();
+        if (items.isEmpty()) {
+            return result;
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        boolean managed = ConnectionManager.isInTransaction();
+        boolean autoCommit = true;
+        try {
+            conn = ConnectionManager.getConnection();
+            if (!managed) {
+                autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+            }
+            stmt = conn.prepareStatement(sql);
+            List<T> chunk = new ArrayList<>(Math.min(batchSize, items.size()));
+            int index = 0;
+            int chunkStart = 0;
+            for (T item : items) {
+                if (chunk.isEmpty()) {
+                    chunkStart = index;
+                }
+                chunk.add(item);
+                index++;
+                if (chunk.size() == batchSize) {
+                    executeChunk(conn, stmt, chunk, chunkStart, binder, result, managed);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                executeChunk(conn, stmt, chunk, chunkStart, binder, result, managed);
+            }
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            // Restoring auto-commit below would commit whatever the failed chunk left behind
+            if (conn != null && !managed) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+            }
+            throw e;
+        } finally {
+            if (stmt != null) stmt.close();
+            if (conn != null && !managed) {
+                try {
+                    conn.setAutoCommit(autoCommit);
+                } catch (SQLException e) {
+                    logger.warn("Could not restore auto-commit", e);
+                }
+            }
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Sends every row in one executeBatch on the current connection and
+     * returns the update counts. Nothing is committed, chunked or replayed
+     * here, so this is meant for small all-or-nothing writes inside a
+     * {@link TransactionTemplate}, where a failure rolls everything back.
+     * Outside a transaction each row commits as it runs.
+     */
+    public static <T> int[] executeSingleBatch(String sql, Collection<T> items, StatementBinder<T> binder) throws SQLException {
+        if (items.isEmpty()) {
+            return new int[0];
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            for (T item : items) {
+                binder.bind(stmt, item);
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        } finally {
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    private static <T> void executeChunk(Connection conn, PreparedStatement stmt, List<T> chunk, int chunkStart,
+                                         StatementBinder<T> binder, BatchResult<T> result,
+                                         boolean managed) throws SQLException {
+        List<T> batched = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            T item = chunk.get(i);
+            try {
+                binder.bind(stmt, item);
+                stmt.addBatch();
+                batched.add(item);
+                positions.add(chunkStart + i);
+            } catch (SQLException | RuntimeException e) {
+                stmt.clearParameters();
+                result.recordFailure(chunkStart + i, item, e);
+            }
+        }
+        if (batched.isEmpty()) {
+            return;
+        }
+        Savepoint savepoint = managed ? conn.setSavepoint() : null;
+        try {
+            int[] counts = stmt.executeBatch();
+            if (managed) {
+                conn.releaseSavepoint(savepoint);
+            } else {
+                conn.commit();
+            }
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    result.recordFailure(positions.get(i), batched.get(i), new SQLException("No row matched"));
+                } else {
+                    result.recordSuccess(1);
+                }
+            }
+        } catch (BatchUpdateException e) {
+            if (managed) {
+                conn.rollback(savepoint);
+            } else {
+                conn.rollback();
+            }
+            stmt.clearBatch();
+            logger.warn("Batch of {} rows failed, replaying row by row: {}", batched.size(), e.getMessage());
+            replay(conn, stmt, batched, positions, binder, result, managed);
+        }
+    }
+    
+    private static <T> void replay(Connection conn, PreparedStatement stmt, List<T> batched, List<Integer> positions,
+                                   StatementBinder<T> binder, BatchResult<T> result,
+                                   boolean managed) throws SQLException {
+        for (int i = 0; i < batched.size(); i++) {
+            T item = batched.get(i);
+            try {
+                binder.bind(stmt, item);
+                if (stmt.executeUpdate() == 0) {
+                    result.recordFailure(positions.get(i), item, new SQLException("No row matched"));
+                } else {
+                    result.recordSuccess(1);
+                }
+            } catch (SQLException e) {
+                result.recordFailure(positions.get(i), item, e);
+            }
+        }
+        if (!managed) {
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a batch load: how many rows went in and which ones failed.
+ */
+public class BatchResult<T> {
+    
+    private int succeeded;
+    private final List<Failure<T>> failures = new ArrayList<>();
+    
+    void recordSuccess(int rows) {
+        succeeded += rows;
+    }
+    
+    void recordFailure(int index, T item, Exception cause) {
+        failures.add(new Failure<>(index, item, cause));
+    }
+    
+    public int getSucceeded() {
+        return succeeded;
+    }
+    
+    public List<Failure<T>> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+    
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchResult[succeeded=" + succeeded + ", failed=" + failures.size() + "]";
+    }
+    
+    /**
+     * A row that could not be written, with its position in the input collection.
+     */
+    public static class Failure<T> {
+        private final int index;
+        private final T item;
+        private final Exception cause;
+        
+        Failure(int index, T item, Exception cause) {
+            this.index = index;
+            this.item = item;
+            this.cause = cause;
+        }
+        
+        public int getIndex() { return index; }
+        
+        public T getItem() { return item; }
+        
+        public Exception getCause() { return cause; }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes bytes to a file through a pooled direct buffer, optionally as gzip.
+ * The buffer goes to the channel whenever it fills, so memory use does not
+ * depend on how much is written.
+ */
+class ChannelOutput implements AutoCloseable {
+    
+    private static final byte[] NO_INPUT = new byte[0];
+    
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+    
+    private final FileChannel channel;
+    private final ByteBuffer out;
+    private final Deflater deflater;
+    private final CRC32 crc;
+    private long uncompressed;
+    private boolean closed;
+    
+    ChannelOutput(Path file, boolean gzip) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.out = DirectBufferPool.acquire();
+        if (gzip) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            crc = new CRC32();
+            out.put(GZIP_HEADER);
+        } else {
+            deflater = null;
+            crc = null;
+        }
+    }
+    
+    /**
+     * Writes the remaining bytes of the buffer; its position ends at its limit.
+     */
+    void write(ByteBuffer src) throws IOException {
+        if (deflater == null) {
+            if (src.remaining() > out.remaining()) {
+                drain();
+                // Too big for the buffer: write it straight through
+                while (src.remaining() > out.capacity()) {
+                    channel.write(src);
+                }
+            }
+            out.put(src);
+            return;
+        }
+        uncompressed += src.remaining();
+        crc.update(src.duplicate());
+        deflater.setInput(src);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+        // The deflater keeps a reference to its input; the caller is about to reuse the buffer
+        deflater.setInput(NO_INPUT);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (deflater != null) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflate();
+                }
+                if (out.remaining() < 8) {
+                    drain();
+                }
+                out.putInt(Integer.reverseBytes((int) crc.getValue()));
+                out.putInt(Integer.reverseBytes((int) uncompressed));
+            }
+            drain();
+            channel.force(false);
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            DirectBufferPool.release(out);
+            channel.close();
+        }
+    }
+    
+    /**
+     * Closes the file without writing what is still buffered, after a failure.
+     */
+    void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (deflater != null) {
+            deflater.end();
+        }
+        DirectBufferPool.release(out);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing more to do; the caller deletes the file
+        }
+    }
+    
+    private void deflate() throws IOException {
+        if (!out.hasRemaining()) {
+            drain();
+        }
+        deflater.deflate(out);
+    }
+    
+    private void drain() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.util;
+
+import java.util.Collection;
+
+/**
+ * A typed column of an entity's table. Comparisons build the
+ * {@link Condition}s passed to {@link QueryBuilder#where}, so a filter on a
+ * String column cannot be given a number by mistake.
+ */
+public final class Column<T, V> {
+    
+    private final Table<T> table;
+    private final String name;
+    private final Class<V> type;
+    private final int ordinal;
+    
+    Column(Table<T> table, String name, Class<V> type, int ordinal) {
+        this.table = table;
+        this.name = name;
+        this.type = type;
+        this.ordinal = ordinal;
+    }
+    
+    public Condition<T> eq(V value) {
+        return new Condition<>(this, Condition.Operator.EQ, value);
+    }
+    
+    public Condition<T> ne(V value) {
+        return new Condition<>(this, Condition.Operator.NE, value);
+    }
+    
+    public Condition<T> lt(V value) {
+        return new Condition<>(this, Condition.Operator.LT, value);
+    }
+    
+    public Condition<T> lte(V value) {
+        return new Condition<>(this, Condition.Operator.LTE, value);
+    }
+    
+    public Condition<T> gt(V value) {
+        return new Condition<>(this, Condition.Operator.GT, value);
+    }
+    
+    public Condition<T> gte(V value) {
+        return new Condition<>(this, Condition.Operator.GTE, value);
+    }
+    
+    public Condition<T> between(V low, V high) {
+        return new Condition<>(this, Condition.Operator.BETWEEN, low, high);
+    }
+    
+    public Condition<T> in(Collection<? extends V> values) {
+        return new Condition<>(this, Condition.Operator.IN, values.toArray());
+    }
+    
+    public Condition<T> like(String pattern) {
+        return new Condition<>(this, Condition.Operator.LIKE, pattern);
+    }
+    
+    public Condition<T> isNull() {
+        return new Condition<>(this, Condition.Operator.IS_NULL);
+    }
+    
+    public Condition<T> isNotNull() {
+        return new Condition<>(this, Condition.Operator.IS_NOT_NULL);
+    }
+    
+    public Table<T> getTable() {
+        return table;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public Class<V> getType() {
+        return type;
+    }
+    
+    int getOrdinal() {
+        return ordinal;
+    }
+    
+    @Override
+    public String toString() {
+        return table.getName() + "." + name;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.util;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Row mapper that reads columns by position rather than by name.
+ * Column labels are resolved against the ResultSetMetaData the first time a
+ * result set is seen, and every row after that is read by index. Columns the
+ * query did not select are skipped, so one mapper serves both the wide
+ * SELECT_* queries and the narrower projections of the same table.
+ */
+public class ColumnMapper<T> implements RowMapper<T> {
+    
+    private final Supplier<T> factory;
+    private final String mappedType;
+    private final String[] labels;
+    private final ColumnReader<T>[] readers;
+    private final ThreadLocal<Layout> layouts = new ThreadLocal<>();
+    
+    private ColumnMapper(Supplier<T> factory, List<String> labels, List<ColumnReader<T>> readers) {
+        this.factory = factory;
+        this.mappedType = factory.get().getClass().getSimpleName();
+        this.labels = labels.toArray(new String[0]);
+        // Safe: every element came from the List<ColumnReader<T>> and the array never escapes
+        @SuppressWarnings("unchecked")
+        ColumnReader<T>[] array = (ColumnReader<T>[]) readers.toArray(new ColumnReader<?>[0]);
+        this.readers = array;
+    }
+    
+    public static <T> Builder<T> builder(Supplier<T> factory) {
+        return new Builder<>(factory);
+    }
+    
+    @Override
+    public T mapRow(ResultSet rs) throws SQLException {
+        Layout layout = layout(rs);
+        if (layout.mapping == null) {
+            return read(rs, layout.positions);
+        }
+        long start = System.nanoTime();
+        T target = read(rs, layout.positions);
+        layout.mapping.mappingTime += System.nanoTime() - start;
+        layout.mapping.rows++;
+        return target;
+    }
+    
+    private T read(ResultSet rs, int[] positions) throws SQLException {
+        T target = factory.get();
+        for (int i = 0; i < readers.length; i++) {
+            if (positions[i] > 0) {
+                readers[i].read(rs, positions[i], target);
+            }
+        }
+        return target;
+    }
+    
+    /**
+     * Column positions for the result set, resolved on its first row and
+     * remembered until the thread moves on to another result set. Rows are
+     * only timed for Flight Recorder while a recording is taking them.
+     */
+    private Layout layout(ResultSet rs) throws SQLException {
+        Layout layout = layouts.get();
+        if (layout != null && layout.resultSet.get() == rs) {
+            return layout;
+        }
+        ResultSetMetaData metaData = rs.getMetaData();
+        int count = metaData.getColumnCount();
+        Map<String, Integer> byLabel = new HashMap<>(count * 2);
+        for (int column = 1; column <= count; column++) {
+            byLabel.putIfAbsent(metaData.getColumnLabel(column).toLowerCase(Locale.ROOT), column);
+        }
+        int[] positions = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            Integer column = byLabel.get(labels[i]);
+            positions[i] = column != null ? column : 0;
+        }
+        RowMappingEvent mapping = rs instanceof CountingResultSet
+            ? ((CountingResultSet) rs).mappingEvent(mappedType) : null;
+        layout = new Layout(rs, positions, mapping);
+        layouts.set(layout);
+        return layout;
+    }
+    
+    @FunctionalInterface
+    public interface ColumnReader<T> {
+        void read(ResultSet rs, int column, T target) throws SQLException;
+    }
+    
+    private static class Layout {
+        // Weak so a finished result set is not kept reachable by an idle thread
+        final WeakReference<ResultSet> resultSet;
+        final int[] positions;
+        final RowMappingEvent mapping;
+        
+        Layout(ResultSet resultSet, int[] positions, RowMappingEvent mapping) {
+            this.resultSet = new WeakReference<>(resultSet);
+            this.positions = positions;
+            this.mapping = mapping;
+        }
+    }
+    
+    public static class Builder<T> {
+        private final Supplier<T> factory;
+        private final List<String> labels = new ArrayList<>();
+        private final List<ColumnReader<T>> readers = new ArrayList<>();
+        
+        private Builder(Supplier<T> factory) {
+            this.factory = factory;
+        }
+        
+        public Builder<T> column(String label, ColumnReader<T> reader) {
+            labels.add(label.toLowerCase(Locale.ROOT));
+            readers.add(reader);
+            return this;
+        }
+        
+        public Builder<T> string(String label, BiConsumer<T, String> setter) {
+            return column(label, (rs, column, target) -> setter.accept(target, rs.getString(column)));
+        }
+        
+        /**
+         * A BIGINT/INT8 column; SQL NULL reads as 0 like ResultSet.getLong.
+         */
+        public Builder<T> longValue(String label, BiConsumer<T, Long> setter) {
+            return column(label, (rs, column, target) -> setter.accept(target, rs.getLong(column)));
+        }
+        
+        /**
+         * A BIGINT/INT8 column where SQL NULL maps to null.
+         */
+        public Builder<T> nullableLong(String label, BiConsumer<T, Long> setter) {
+            return column(label, (rs, column, target) -> {
+                long value = rs.getLong(column);
+                setter.accept(target, rs.wasNull() ? null : value);
+            });
+        }
+        
+        /**
+         * An INTEGER column; SQL NULL reads as 0 like ResultSet.getInt.
+         */
+        public Builder<T> intValue(String label, BiConsumer<T, Integer> setter) {
+            return column(label, (rs, column, target) -> setter.accept(target, rs.getInt(column)));
+        }
+        
+        public Builder<T> bigDecimal(String label, BiConsumer<T, BigDecimal> setter) {
+            return column(label, (rs, column, target) -> setter.accept(target, rs.getBigDecimal(column)));
+        }
+        
+        public Builder<T> date(String label, BiConsumer<T, Date> setter) {
+            return column(label, (rs, column, target) -> setter.accept(target, rs.getDate(column)));
+        }
+        
+        public ColumnMapper<T> build() {
+            return new ColumnMapper<>(factory, labels, readers);
+        }
+    }
+}
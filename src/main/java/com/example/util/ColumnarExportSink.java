@@ -0,0 +1,299 @@
+package com.example.util;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Writes rows in the {@link ExportFormat#COLUMNAR} layout:
+ *
+ * <pre>
+ * file    = "RCOL" version:u8 columns:varint (type:u8 nameLength:varint name:utf8)* block* 0:varint
+ * block   = rows:varint section{columns}
+ * section = length:varint nullBitmap[(rows + 7) / 8] values
+ * </pre>
+ *
+ * Each column of the current block is staged in its own pooled direct
+ * buffer. A block ends after BLOCK_ROWS rows or when a row no longer fits,
+ * so memory stays at one buffer per column whatever the row count.
+ */
+class ColumnarExportSink extends ExportSink {
+    
+    static final byte[] MAGIC = { 'R', 'C', 'O', 'L' };
+    static final byte VERSION = 1;
+    
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte TYPE_DECIMAL = 3;
+    static final byte TYPE_TIMESTAMP = 4;
+    static final byte TYPE_STRING = 5;
+    
+    static final int BLOCK_ROWS = 4096;
+    
+    private final ByteBuffer scratch = ByteBuffer.allocate(32);
+    private byte[] types;
+    private ByteBuffer[] staged;
+    private byte[][] nulls;
+    // Previous value per column in the block, for delta encoding
+    private long[] previous;
+    private long[] previousBeforeRow;
+    private int[] marks;
+    private Object[] values;
+    private int blockRows;
+    // Column whose value did not fit in the last failed stage()
+    private int overflowed;
+    
+    ColumnarExportSink(Path file, boolean gzip) throws IOException {
+        super(file, gzip);
+    }
+    
+    @Override
+    void writeHeader(ResultSetMetaData metaData) throws SQLException, IOException {
+        int columns = metaData.getColumnCount();
+        types = new byte[columns];
+        staged = new ByteBuffer[columns];
+        nulls = new byte[columns][(BLOCK_ROWS + 7) / 8];
+        previous = new long[columns];
+        previousBeforeRow = new long[columns];
+        marks = new int[columns];
+        values = new Object[columns];
+        ByteBuffer header = DirectBufferPool.acquire();
+        try {
+            header.put(MAGIC).put(VERSION);
+            putVarLong(header, columns);
+            for (int i = 0; i < columns; i++) {
+                types[i] = typeOf(metaData.getColumnType(i + 1));
+                byte[] name = metaData.getColumnLabel(i + 1).getBytes(StandardCharsets.UTF_8);
+                if (header.remaining() < name.length + 16) {
+                    header.flip();
+                    output.write(header);
+                    header.clear();
+                }
+                header.put(types[i]);
+                putVarLong(header, name.length);
+                header.put(name);
+            }
+            header.flip();
+            output.write(header);
+        } finally {
+            DirectBufferPool.release(header);
+        }
+        for (int i = 0; i < columns; i++) {
+            staged[i] = DirectBufferPool.acquire();
+        }
+    }
+    
+    @Override
+    void writeRow(ResultSet rs) throws SQLException, IOException {
+        for (int i = 0; i < types.length; i++) {
+            values[i] = read(rs, i + 1, types[i]);
+        }
+        if (!stage()) {
+            writeBlock();
+            while (!stage()) {
+                // A single value larger than a pooled buffer: give its column a bigger one
+                grow(overflowed);
+            }
+        }
+        if (blockRows == BLOCK_ROWS) {
+            writeBlock();
+        }
+    }
+    
+    @Override
+    void writeTrailer() throws IOException {
+        if (staged != null) {
+            writeBlock();
+        }
+        scratch.clear();
+        putVarLong(scratch, 0);
+        scratch.flip();
+        output.write(scratch);
+    }
+    
+    @Override
+    void releaseBuffers() {
+        if (staged != null) {
+            for (ByteBuffer buffer : staged) {
+                DirectBufferPool.release(buffer);
+            }
+            staged = null;
+        }
+    }
+    
+    /**
+     * Appends the current row to the block, or leaves the block as it was
+     * and returns false if some value does not fit.
+     */
+    private boolean stage() {
+        System.arraycopy(previous, 0, previousBeforeRow, 0, previous.length);
+        int i = 0;
+        try {
+            for (; i < staged.length; i++) {
+                marks[i] = staged[i].position();
+                Object value = values[i];
+                if (value == null) {
+                    nulls[i][blockRows >>> 3] |= (byte) (1 << (blockRows & 7));
+                } else {
+                    encode(i, value);
+                }
+            }
+            blockRows++;
+            return true;
+        } catch (BufferOverflowException e) {
+            overflowed = i;
+            for (int j = 0; j <= i; j++) {
+                staged[j].position(marks[j]);
+                nulls[j][blockRows >>> 3] &= (byte) ~(1 << (blockRows & 7));
+            }
+            System.arraycopy(previousBeforeRow, 0, previous, 0, previous.length);
+            return false;
+        }
+    }
+    
+    private void encode(int column, Object value) {
+        ByteBuffer buffer = staged[column];
+        switch (types[column]) {
+            case TYPE_LONG:
+            case TYPE_TIMESTAMP: {
+                long v = (Long) value;
+                putVarLong(buffer, zigzag(v - previous[column]));
+                previous[column] = v;
+                break;
+            }
+            case TYPE_DOUBLE:
+                buffer.putDouble((Double) value);
+                break;
+            case TYPE_DECIMAL: {
+                BigDecimal decimal = (BigDecimal) value;
+                BigInteger unscaled = decimal.unscaledValue();
+                if (unscaled.bitLength() < Long.SIZE) {
+                    // Low bit 0: the unscaled value follows as a zigzag varint
+                    putVarLong(buffer, zigzag(decimal.scale()) << 1);
+                    putVarLong(buffer, zigzag(unscaled.longValue()));
+                } else {
+                    byte[] bytes = unscaled.toByteArray();
+                    putVarLong(buffer, zigzag(decimal.scale()) << 1 | 1);
+                    putVarLong(buffer, bytes.length);
+                    buffer.put(bytes);
+                }
+                break;
+            }
+            default: {
+                byte[] bytes = (byte[]) value;
+                putVarLong(buffer, bytes.length);
+                buffer.put(bytes);
+                break;
+            }
+        }
+    }
+    
+    private void writeBlock() throws IOException {
+        if (blockRows == 0) {
+            return;
+        }
+        int bitmapLength = (blockRows + 7) / 8;
+        scratch.clear();
+        putVarLong(scratch, blockRows);
+        scratch.flip();
+        output.write(scratch);
+        for (int i = 0; i < staged.length; i++) {
+            ByteBuffer buffer = staged[i];
+            scratch.clear();
+            putVarLong(scratch, bitmapLength + buffer.position());
+            scratch.flip();
+            output.write(scratch);
+            output.write(ByteBuffer.wrap(nulls[i], 0, bitmapLength));
+            buffer.flip();
+            output.write(buffer);
+            buffer.clear();
+            Arrays.fill(nulls[i], 0, bitmapLength, (byte) 0);
+        }
+        Arrays.fill(previous, 0L);
+        blockRows = 0;
+    }
+    
+    /**
+     * Replaces the column's staging buffer with one at least twice as large.
+     * The pool only takes back buffers of its own size, so this one is
+     * dropped when the export ends.
+     */
+    private void grow(int column) {
+        int size = staged[column].capacity() * 2;
+        Object value = values[column];
+        if (value instanceof byte[]) {
+            size = Math.max(size, ((byte[]) value).length + 10);
+        }
+        DirectBufferPool.release(staged[column]);
+        staged[column] = ByteBuffer.allocateDirect(size);
+    }
+    
+    private static Object read(ResultSet rs, int column, byte type) throws SQLException {
+        switch (type) {
+            case TYPE_LONG: {
+                long v = rs.getLong(column);
+                return rs.wasNull() ? null : v;
+            }
+            case TYPE_DOUBLE: {
+                double v = rs.getDouble(column);
+                return rs.wasNull() ? null : v;
+            }
+            case TYPE_DECIMAL:
+                return rs.getBigDecimal(column);
+            case TYPE_TIMESTAMP: {
+                Timestamp v = rs.getTimestamp(column);
+                return v == null ? null : v.getTime();
+            }
+            default: {
+                String v = rs.getString(column);
+                return v == null ? null : v.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+    }
+    
+    static byte typeOf(int sqlType) {
+        switch (sqlType) {
+            case Types.BIGINT:
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return TYPE_LONG;
+            case Types.DOUBLE:
+            case Types.FLOAT:
+            case Types.REAL:
+                return TYPE_DOUBLE;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return TYPE_DECIMAL;
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return TYPE_TIMESTAMP;
+            default:
+                return TYPE_STRING;
+        }
+    }
+    
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+    
+    static void putVarLong(ByteBuffer buffer, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.util;
+
+/**
+ * One predicate of a {@link QueryBuilder} WHERE clause, created from a
+ * {@link Column}. Conditions are combined with AND.
+ */
+public final class Condition<T> {
+    
+    enum Operator {
+        EQ("=", " = ?"),
+        NE("<>", " <> ?"),
+        LT("<", " < ?"),
+        LTE("<=", " <= ?"),
+        GT(">", " > ?"),
+        GTE(">=", " >= ?"),
+        BETWEEN("BETWEEN", " BETWEEN ? AND ?"),
+        IN("IN", " IN "),
+        LIKE("LIKE", " LIKE ?"),
+        IS_NULL("IS NULL", " IS NULL"),
+        IS_NOT_NULL("IS NOT NULL", " IS NOT NULL");
+        
+        final String label;
+        final String sql;
+        
+        Operator(String label, String sql) {
+            this.label = label;
+            this.sql = sql;
+        }
+    }
+    
+    final Column<T, ?> column;
+    final Operator operator;
+    final Object[] values;
+    
+    Condition(Column<T, ?> column, Operator operator, Object... values) {
+        if (operator != Operator.IN) {
+            for (Object value : values) {
+                if (value == null) {
+                    throw new IllegalArgumentException("Null value for " + column + " " + operator.label
+                        + "; use isNull() or isNotNull()");
+                }
+            }
+        }
+        this.column = column;
+        this.operator = operator;
+        this.values = values;
+    }
+    
+    @Override
+    public String toString() {
+        return column.getName() + " " + operator.label;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one ConnectionManager.getConnection() call. The
+ * event duration is the time spent waiting for the pool, including
+ * validation and opening a new physical connection. Calls that join the
+ * current transaction do not touch the pool and are not recorded.
+ */
+@Name("com.example.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({ "Application", "Database" })
+@Description("A DAO borrowed a connection from the pool")
+@StackTrace(false)
+class ConnectionAcquireEvent extends Event {
+    
+    @Label("Active Connections")
+    int activeConnections;
+    
+    @Label("Idle Connections")
+    int idleConnections;
+    
+    @Label("Failed")
+    boolean failed;
+}
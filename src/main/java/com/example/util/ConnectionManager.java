@@ -5,16 +5,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
- * Manages database connections to Informix
+ * Manages database connections to Informix.
+ * Connections come from a bounded {@link ConnectionPool} configured in
+ * database.properties; closing one returns it to the pool. Inside
+ * {@link TransactionTemplate#execute} the transaction's connection is
+ * returned instead and closing it is a no-op.
  */
 public class ConnectionManager {
     
     private static final Logger logger = LoggerFactory.getLogger(ConnectionManager.class);
     
+    private static volatile ConnectionPool pool;
+    
+    private static final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+    
     static {
         try {
             Class.forName(DatabaseConfig.getDriver());
@@ -25,11 +32,74 @@ public class ConnectionManager {
     }
     
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
-            DatabaseConfig.getUrl(),
-            DatabaseConfig.getUsername(),
-            DatabaseConfig.getPassword()
-        );
+        Transaction tx = transaction.get();
+        if (tx != null) {
+            return tx.getConnection();
+        }
+        ConnectionPool current = getPool();
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        boolean acquired = false;
+        try {
+            Connection conn = current.borrow();
+            acquired = true;
+            return conn;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.failed = !acquired;
+                event.activeConnections = current.getActiveConnections();
+                event.idleConnections = current.getIdleConnections();
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * True when the calling thread is inside TransactionTemplate.execute().
+     */
+    public static boolean isInTransaction() {
+        return transaction.get() != null;
+    }
+    
+    /**
+     * The calling thread's transaction, or null outside TransactionTemplate.execute().
+     */
+    public static Transaction currentTransaction() {
+        return transaction.get();
+    }
+    
+    static void bind(Transaction tx) {
+        transaction.set(tx);
+    }
+    
+    static void unbind() {
+        transaction.remove();
+    }
+    
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (ConnectionManager.class) {
+                current = pool;
+                if (current == null) {
+                    current = ConnectionPool.fromConfig();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Closes the pool and all idle connections. The next call to
+     * getConnection() builds a new pool from the current configuration.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
     
     public static void closeConnection(Connection conn) {
@@ -0,0 +1,350 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of physical Informix connections.
+ * Borrowed connections are proxies whose close() hands the physical
+ * connection back to the pool instead of logging out of the server.
+ */
+public class ConnectionPool {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+    
+    // Connections returned this recently are handed out again without a validation round trip
+    private static final long VALIDATION_BYPASS_MILLIS = 500L;
+    
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private volatile boolean closed;
+    
+    public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+                          long acquireTimeoutMillis, long idleTimeoutMillis, int validationTimeoutSeconds,
+                          int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, Math.min(idleTimeoutMillis / 2, 30000L));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+    
+    public static ConnectionPool fromConfig() {
+        return new ConnectionPool(
+            DatabaseConfig.getUrl(),
+            DatabaseConfig.getUsername(),
+            DatabaseConfig.getPassword(),
+            DatabaseConfig.getPoolMinSize(),
+            DatabaseConfig.getPoolMaxSize(),
+            DatabaseConfig.getPoolAcquireTimeoutMillis(),
+            DatabaseConfig.getPoolIdleTimeoutMillis(),
+            DatabaseConfig.getPoolValidationTimeoutSeconds(),
+            DatabaseConfig.getStatementCacheSize()
+        );
+    }
+    
+    /**
+     * Borrows a connection, waiting up to the acquire timeout for one to free up.
+     * Idle connections are validated before they are handed out.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw acquireTimeout();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            while (true) {
+                PooledConnection pooled = idle.pollFirst();
+                if (pooled == null) {
+                    if (reserveSlot(maxSize)) {
+                        return open().lease();
+                    }
+                    // Every slot is taken, so a connection is on its way back to the idle deque
+                    pooled = idle.pollFirst(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (pooled == null) {
+                        throw acquireTimeout();
+                    }
+                }
+                if (isValid(pooled)) {
+                    return pooled.lease();
+                }
+                discard(pooled);
+            }
+        } catch (InterruptedException e) {
+            permits.release();
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+    
+    public int getIdleConnections() {
+        return idle.size();
+    }
+    
+    public int getActiveConnections() {
+        return maxSize - permits.availablePermits();
+    }
+    
+    /**
+     * Number of prepareStatement(String) calls served from a connection's statement cache.
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+    
+    /**
+     * Number of prepareStatement(String) calls that had to be parsed by the server.
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+    
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+    
+    private SQLTimeoutException acquireTimeout() {
+        return new SQLTimeoutException("Timed out after " + acquireTimeoutMillis
+            + " ms waiting for a connection (max pool size " + maxSize + ")");
+    }
+    
+    private boolean reserveSlot(int limit) {
+        int current;
+        do {
+            current = totalConnections.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!totalConnections.compareAndSet(current, current + 1));
+        return true;
+    }
+    
+    /**
+     * Opens a physical connection for a slot already reserved with reserveSlot().
+     */
+    private PooledConnection open() throws SQLException {
+        try {
+            return new PooledConnection(DriverManager.getConnection(url, username, password));
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+    
+    private boolean isValid(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastUsed < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.raw.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            logger.warn("Connection validation failed", e);
+            return false;
+        }
+    }
+    
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || !reset(pooled.raw)) {
+                discard(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private boolean reset(Connection raw) {
+        try {
+            if (raw.isClosed()) {
+                return false;
+            }
+            if (!raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.warn("Discarding connection that could not be reset", e);
+            return false;
+        }
+    }
+    
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        pooled.statements.closeAll();
+        try {
+            pooled.raw.close();
+        } catch (SQLException e) {
+            logger.error("Error closing pooled connection", e);
+        }
+    }
+    
+    private void housekeep() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        for (PooledConnection pooled : idle) {
+            if (totalConnections.get() <= minSize) {
+                break;
+            }
+            if (pooled.lastUsed < cutoff && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+        try {
+            while (!closed && reserveSlot(minSize)) {
+                PooledConnection pooled = open();
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            }
+        } catch (SQLException e) {
+            logger.warn("Unable to top up connection pool to {} connections", minSize, e);
+        }
+    }
+    
+    /**
+     * A physical connection owned by the pool. Each borrow gets a fresh
+     * proxy so that a stale reference cannot touch a connection that has
+     * since been handed to someone else.
+     */
+    private class PooledConnection {
+        final Connection raw;
+        final StatementCache statements;
+        volatile long lastUsed;
+        
+        PooledConnection(Connection raw) {
+            this.raw = raw;
+            this.statements = new StatementCache(raw, statementCacheSize, statementCacheHits, statementCacheMisses);
+        }
+        
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new Lease(this));
+        }
+    }
+    
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+        
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.raw.isClosed();
+                case "prepareStatement":
+                    if (args.length == 1 && !returned) {
+                        return pooled.statements.prepare((String) args[0], (Connection) proxy);
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.raw + (returned ? ", returned]" : "]");
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            Object result;
+            try {
+                result = method.invoke(pooled.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                // createStatement, prepareCall and the prepareStatement variants the cache does not serve
+                return StatementProbe.wrap((Statement) result, args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,1018 @@
+package com.example.util;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.*;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * Result set wrapper that counts the rows read through next() and reports
+ * the query when it is closed. Every other call is a plain delegation; a
+ * reflective proxy here roughly doubled the cost of mapping a large result.
+ */
+@SuppressWarnings("deprecation")
+final class CountingResultSet implements ResultSet {
+    
+    private final ResultSet rs;
+    private final Statement statement;
+    private final StatementProbe.Query query;
+    
+    CountingResultSet(ResultSet rs, Statement statement, StatementProbe.Query query) {
+        this.rs = rs;
+        this.statement = statement;
+        this.query = query;
+    }
+    
+    @Override
+    public boolean next() throws SQLException {
+        boolean more = rs.next();
+        if (more) {
+            query.rows++;
+        }
+        return more;
+    }
+    
+    @Override
+    public void close() throws SQLException {
+        try {
+            rs.close();
+        } finally {
+            query.closed();
+        }
+    }
+    
+    @Override
+    public Statement getStatement() {
+        return statement;
+    }
+    
+    /**
+     * Flight Recorder event for mapping these rows, or null when not recording.
+     */
+    RowMappingEvent mappingEvent(String mappedType) {
+        return query.mappingEvent(mappedType);
+    }
+    
+    @Override
+    public boolean absolute(int value) throws SQLException {
+        return rs.absolute(value);
+    }
+    
+    @Override
+    public void afterLast() throws SQLException {
+        rs.afterLast();
+    }
+    
+    @Override
+    public void beforeFirst() throws SQLException {
+        rs.beforeFirst();
+    }
+    
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        rs.cancelRowUpdates();
+    }
+    
+    @Override
+    public void clearWarnings() throws SQLException {
+        rs.clearWarnings();
+    }
+    
+    @Override
+    public void deleteRow() throws SQLException {
+        rs.deleteRow();
+    }
+    
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        return rs.findColumn(columnLabel);
+    }
+    
+    @Override
+    public boolean first() throws SQLException {
+        return rs.first();
+    }
+    
+    @Override
+    public Array getArray(String columnLabel) throws SQLException {
+        return rs.getArray(columnLabel);
+    }
+    
+    @Override
+    public Array getArray(int columnIndex) throws SQLException {
+        return rs.getArray(columnIndex);
+    }
+    
+    @Override
+    public InputStream getAsciiStream(String columnLabel) throws SQLException {
+        return rs.getAsciiStream(columnLabel);
+    }
+    
+    @Override
+    public InputStream getAsciiStream(int columnIndex) throws SQLException {
+        return rs.getAsciiStream(columnIndex);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel, int x) throws SQLException {
+        return rs.getBigDecimal(columnLabel, x);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+        return rs.getBigDecimal(columnLabel);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex, int x) throws SQLException {
+        return rs.getBigDecimal(columnIndex, x);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        return rs.getBigDecimal(columnIndex);
+    }
+    
+    @Override
+    public InputStream getBinaryStream(String columnLabel) throws SQLException {
+        return rs.getBinaryStream(columnLabel);
+    }
+    
+    @Override
+    public InputStream getBinaryStream(int columnIndex) throws SQLException {
+        return rs.getBinaryStream(columnIndex);
+    }
+    
+    @Override
+    public Blob getBlob(String columnLabel) throws SQLException {
+        return rs.getBlob(columnLabel);
+    }
+    
+    @Override
+    public Blob getBlob(int columnIndex) throws SQLException {
+        return rs.getBlob(columnIndex);
+    }
+    
+    @Override
+    public boolean getBoolean(String columnLabel) throws SQLException {
+        return rs.getBoolean(columnLabel);
+    }
+    
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        return rs.getBoolean(columnIndex);
+    }
+    
+    @Override
+    public byte getByte(String columnLabel) throws SQLException {
+        return rs.getByte(columnLabel);
+    }
+    
+    @Override
+    public byte getByte(int columnIndex) throws SQLException {
+        return rs.getByte(columnIndex);
+    }
+    
+    @Override
+    public byte[] getBytes(String columnLabel) throws SQLException {
+        return rs.getBytes(columnLabel);
+    }
+    
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        return rs.getBytes(columnIndex);
+    }
+    
+    @Override
+    public Reader getCharacterStream(String columnLabel) throws SQLException {
+        return rs.getCharacterStream(columnLabel);
+    }
+    
+    @Override
+    public Reader getCharacterStream(int columnIndex) throws SQLException {
+        return rs.getCharacterStream(columnIndex);
+    }
+    
+    @Override
+    public Clob getClob(String columnLabel) throws SQLException {
+        return rs.getClob(columnLabel);
+    }
+    
+    @Override
+    public Clob getClob(int columnIndex) throws SQLException {
+        return rs.getClob(columnIndex);
+    }
+    
+    @Override
+    public int getConcurrency() throws SQLException {
+        return rs.getConcurrency();
+    }
+    
+    @Override
+    public String getCursorName() throws SQLException {
+        return rs.getCursorName();
+    }
+    
+    @Override
+    public Date getDate(String columnLabel, Calendar x) throws SQLException {
+        return rs.getDate(columnLabel, x);
+    }
+    
+    @Override
+    public Date getDate(String columnLabel) throws SQLException {
+        return rs.getDate(columnLabel);
+    }
+    
+    @Override
+    public Date getDate(int columnIndex, Calendar x) throws SQLException {
+        return rs.getDate(columnIndex, x);
+    }
+    
+    @Override
+    public Date getDate(int columnIndex) throws SQLException {
+        return rs.getDate(columnIndex);
+    }
+    
+    @Override
+    public double getDouble(String columnLabel) throws SQLException {
+        return rs.getDouble(columnLabel);
+    }
+    
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        return rs.getDouble(columnIndex);
+    }
+    
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return rs.getFetchDirection();
+    }
+    
+    @Override
+    public int getFetchSize() throws SQLException {
+        return rs.getFetchSize();
+    }
+    
+    @Override
+    public float getFloat(String columnLabel) throws SQLException {
+        return rs.getFloat(columnLabel);
+    }
+    
+    @Override
+    public float getFloat(int columnIndex) throws SQLException {
+        return rs.getFloat(columnIndex);
+    }
+    
+    @Override
+    public int getHoldability() throws SQLException {
+        return rs.getHoldability();
+    }
+    
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        return rs.getInt(columnLabel);
+    }
+    
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        return rs.getInt(columnIndex);
+    }
+    
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return rs.getLong(columnLabel);
+    }
+    
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        return rs.getLong(columnIndex);
+    }
+    
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return rs.getMetaData();
+    }
+    
+    @Override
+    public Reader getNCharacterStream(String columnLabel) throws SQLException {
+        return rs.getNCharacterStream(columnLabel);
+    }
+    
+    @Override
+    public Reader getNCharacterStream(int columnIndex) throws SQLException {
+        return rs.getNCharacterStream(columnIndex);
+    }
+    
+    @Override
+    public NClob getNClob(String columnLabel) throws SQLException {
+        return rs.getNClob(columnLabel);
+    }
+    
+    @Override
+    public NClob getNClob(int columnIndex) throws SQLException {
+        return rs.getNClob(columnIndex);
+    }
+    
+    @Override
+    public String getNString(String columnLabel) throws SQLException {
+        return rs.getNString(columnLabel);
+    }
+    
+    @Override
+    public String getNString(int columnIndex) throws SQLException {
+        return rs.getNString(columnIndex);
+    }
+    
+    @Override
+    public <T> T getObject(String columnLabel, Class<T> x) throws SQLException {
+        return rs.getObject(columnLabel, x);
+    }
+    
+    @Override
+    public Object getObject(String columnLabel, Map<String, Class<?>> x) throws SQLException {
+        return rs.getObject(columnLabel, x);
+    }
+    
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return rs.getObject(columnLabel);
+    }
+    
+    @Override
+    public <T> T getObject(int columnIndex, Class<T> x) throws SQLException {
+        return rs.getObject(columnIndex, x);
+    }
+    
+    @Override
+    public Object getObject(int columnIndex, Map<String, Class<?>> x) throws SQLException {
+        return rs.getObject(columnIndex, x);
+    }
+    
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        return rs.getObject(columnIndex);
+    }
+    
+    @Override
+    public Ref getRef(String columnLabel) throws SQLException {
+        return rs.getRef(columnLabel);
+    }
+    
+    @Override
+    public Ref getRef(int columnIndex) throws SQLException {
+        return rs.getRef(columnIndex);
+    }
+    
+    @Override
+    public int getRow() throws SQLException {
+        return rs.getRow();
+    }
+    
+    @Override
+    public RowId getRowId(String columnLabel) throws SQLException {
+        return rs.getRowId(columnLabel);
+    }
+    
+    @Override
+    public RowId getRowId(int columnIndex) throws SQLException {
+        return rs.getRowId(columnIndex);
+    }
+    
+    @Override
+    public SQLXML getSQLXML(String columnLabel) throws SQLException {
+        return rs.getSQLXML(columnLabel);
+    }
+    
+    @Override
+    public SQLXML getSQLXML(int columnIndex) throws SQLException {
+        return rs.getSQLXML(columnIndex);
+    }
+    
+    @Override
+    public short getShort(String columnLabel) throws SQLException {
+        return rs.getShort(columnLabel);
+    }
+    
+    @Override
+    public short getShort(int columnIndex) throws SQLException {
+        return rs.getShort(columnIndex);
+    }
+    
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return rs.getString(columnLabel);
+    }
+    
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        return rs.getString(columnIndex);
+    }
+    
+    @Override
+    public Time getTime(String columnLabel, Calendar x) throws SQLException {
+        return rs.getTime(columnLabel, x);
+    }
+    
+    @Override
+    public Time getTime(String columnLabel) throws SQLException {
+        return rs.getTime(columnLabel);
+    }
+    
+    @Override
+    public Time getTime(int columnIndex, Calendar x) throws SQLException {
+        return rs.getTime(columnIndex, x);
+    }
+    
+    @Override
+    public Time getTime(int columnIndex) throws SQLException {
+        return rs.getTime(columnIndex);
+    }
+    
+    @Override
+    public Timestamp getTimestamp(String columnLabel, Calendar x) throws SQLException {
+        return rs.getTimestamp(columnLabel, x);
+    }
+    
+    @Override
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        return rs.getTimestamp(columnLabel);
+    }
+    
+    @Override
+    public Timestamp getTimestamp(int columnIndex, Calendar x) throws SQLException {
+        return rs.getTimestamp(columnIndex, x);
+    }
+    
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        return rs.getTimestamp(columnIndex);
+    }
+    
+    @Override
+    public int getType() throws SQLException {
+        return rs.getType();
+    }
+    
+    @Override
+    public URL getURL(String columnLabel) throws SQLException {
+        return rs.getURL(columnLabel);
+    }
+    
+    @Override
+    public URL getURL(int columnIndex) throws SQLException {
+        return rs.getURL(columnIndex);
+    }
+    
+    @Override
+    public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+        return rs.getUnicodeStream(columnLabel);
+    }
+    
+    @Override
+    public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+        return rs.getUnicodeStream(columnIndex);
+    }
+    
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return rs.getWarnings();
+    }
+    
+    @Override
+    public void insertRow() throws SQLException {
+        rs.insertRow();
+    }
+    
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        return rs.isAfterLast();
+    }
+    
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        return rs.isBeforeFirst();
+    }
+    
+    @Override
+    public boolean isClosed() throws SQLException {
+        return rs.isClosed();
+    }
+    
+    @Override
+    public boolean isFirst() throws SQLException {
+        return rs.isFirst();
+    }
+    
+    @Override
+    public boolean isLast() throws SQLException {
+        return rs.isLast();
+    }
+    
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return rs.isWrapperFor(iface);
+    }
+    
+    @Override
+    public boolean last() throws SQLException {
+        return rs.last();
+    }
+    
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        rs.moveToCurrentRow();
+    }
+    
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        rs.moveToInsertRow();
+    }
+    
+    @Override
+    public boolean previous() throws SQLException {
+        return rs.previous();
+    }
+    
+    @Override
+    public void refreshRow() throws SQLException {
+        rs.refreshRow();
+    }
+    
+    @Override
+    public boolean relative(int value) throws SQLException {
+        return rs.relative(value);
+    }
+    
+    @Override
+    public boolean rowDeleted() throws SQLException {
+        return rs.rowDeleted();
+    }
+    
+    @Override
+    public boolean rowInserted() throws SQLException {
+        return rs.rowInserted();
+    }
+    
+    @Override
+    public boolean rowUpdated() throws SQLException {
+        return rs.rowUpdated();
+    }
+    
+    @Override
+    public void setFetchDirection(int value) throws SQLException {
+        rs.setFetchDirection(value);
+    }
+    
+    @Override
+    public void setFetchSize(int value) throws SQLException {
+        rs.setFetchSize(value);
+    }
+    
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return rs.unwrap(iface);
+    }
+    
+    @Override
+    public void updateArray(String columnLabel, Array x) throws SQLException {
+        rs.updateArray(columnLabel, x);
+    }
+    
+    @Override
+    public void updateArray(int columnIndex, Array x) throws SQLException {
+        rs.updateArray(columnIndex, x);
+    }
+    
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, int y) throws SQLException {
+        rs.updateAsciiStream(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, long y) throws SQLException {
+        rs.updateAsciiStream(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+        rs.updateAsciiStream(columnLabel, x);
+    }
+    
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, int y) throws SQLException {
+        rs.updateAsciiStream(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, long y) throws SQLException {
+        rs.updateAsciiStream(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+        rs.updateAsciiStream(columnIndex, x);
+    }
+    
+    @Override
+    public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+        rs.updateBigDecimal(columnLabel, x);
+    }
+    
+    @Override
+    public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+        rs.updateBigDecimal(columnIndex, x);
+    }
+    
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, int y) throws SQLException {
+        rs.updateBinaryStream(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, long y) throws SQLException {
+        rs.updateBinaryStream(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+        rs.updateBinaryStream(columnLabel, x);
+    }
+    
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, int y) throws SQLException {
+        rs.updateBinaryStream(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, long y) throws SQLException {
+        rs.updateBinaryStream(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+        rs.updateBinaryStream(columnIndex, x);
+    }
+    
+    @Override
+    public void updateBlob(String columnLabel, InputStream x, long y) throws SQLException {
+        rs.updateBlob(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateBlob(String columnLabel, InputStream x) throws SQLException {
+        rs.updateBlob(columnLabel, x);
+    }
+    
+    @Override
+    public void updateBlob(String columnLabel, Blob x) throws SQLException {
+        rs.updateBlob(columnLabel, x);
+    }
+    
+    @Override
+    public void updateBlob(int columnIndex, InputStream x, long y) throws SQLException {
+        rs.updateBlob(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateBlob(int columnIndex, InputStream x) throws SQLException {
+        rs.updateBlob(columnIndex, x);
+    }
+    
+    @Override
+    public void updateBlob(int columnIndex, Blob x) throws SQLException {
+        rs.updateBlob(columnIndex, x);
+    }
+    
+    @Override
+    public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+        rs.updateBoolean(columnLabel, x);
+    }
+    
+    @Override
+    public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+        rs.updateBoolean(columnIndex, x);
+    }
+    
+    @Override
+    public void updateByte(String columnLabel, byte x) throws SQLException {
+        rs.updateByte(columnLabel, x);
+    }
+    
+    @Override
+    public void updateByte(int columnIndex, byte x) throws SQLException {
+        rs.updateByte(columnIndex, x);
+    }
+    
+    @Override
+    public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+        rs.updateBytes(columnLabel, x);
+    }
+    
+    @Override
+    public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+        rs.updateBytes(columnIndex, x);
+    }
+    
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader x, int y) throws SQLException {
+        rs.updateCharacterStream(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader x, long y) throws SQLException {
+        rs.updateCharacterStream(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader x) throws SQLException {
+        rs.updateCharacterStream(columnLabel, x);
+    }
+    
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, int y) throws SQLException {
+        rs.updateCharacterStream(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, long y) throws SQLException {
+        rs.updateCharacterStream(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+        rs.updateCharacterStream(columnIndex, x);
+    }
+    
+    @Override
+    public void updateClob(String columnLabel, Reader x, long y) throws SQLException {
+        rs.updateClob(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateClob(String columnLabel, Reader x) throws SQLException {
+        rs.updateClob(columnLabel, x);
+    }
+    
+    @Override
+    public void updateClob(String columnLabel, Clob x) throws SQLException {
+        rs.updateClob(columnLabel, x);
+    }
+    
+    @Override
+    public void updateClob(int columnIndex, Reader x, long y) throws SQLException {
+        rs.updateClob(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateClob(int columnIndex, Reader x) throws SQLException {
+        rs.updateClob(columnIndex, x);
+    }
+    
+    @Override
+    public void updateClob(int columnIndex, Clob x) throws SQLException {
+        rs.updateClob(columnIndex, x);
+    }
+    
+    @Override
+    public void updateDate(String columnLabel, Date x) throws SQLException {
+        rs.updateDate(columnLabel, x);
+    }
+    
+    @Override
+    public void updateDate(int columnIndex, Date x) throws SQLException {
+        rs.updateDate(columnIndex, x);
+    }
+    
+    @Override
+    public void updateDouble(String columnLabel, double x) throws SQLException {
+        rs.updateDouble(columnLabel, x);
+    }
+    
+    @Override
+    public void updateDouble(int columnIndex, double x) throws SQLException {
+        rs.updateDouble(columnIndex, x);
+    }
+    
+    @Override
+    public void updateFloat(String columnLabel, float x) throws SQLException {
+        rs.updateFloat(columnLabel, x);
+    }
+    
+    @Override
+    public void updateFloat(int columnIndex, float x) throws SQLException {
+        rs.updateFloat(columnIndex, x);
+    }
+    
+    @Override
+    public void updateInt(String columnLabel, int x) throws SQLException {
+        rs.updateInt(columnLabel, x);
+    }
+    
+    @Override
+    public void updateInt(int columnIndex, int x) throws SQLException {
+        rs.updateInt(columnIndex, x);
+    }
+    
+    @Override
+    public void updateLong(String columnLabel, long x) throws SQLException {
+        rs.updateLong(columnLabel, x);
+    }
+    
+    @Override
+    public void updateLong(int columnIndex, long x) throws SQLException {
+        rs.updateLong(columnIndex, x);
+    }
+    
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader x, long y) throws SQLException {
+        rs.updateNCharacterStream(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader x) throws SQLException {
+        rs.updateNCharacterStream(columnLabel, x);
+    }
+    
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x, long y) throws SQLException {
+        rs.updateNCharacterStream(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+        rs.updateNCharacterStream(columnIndex, x);
+    }
+    
+    @Override
+    public void updateNClob(String columnLabel, Reader x, long y) throws SQLException {
+        rs.updateNClob(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateNClob(String columnLabel, Reader x) throws SQLException {
+        rs.updateNClob(columnLabel, x);
+    }
+    
+    @Override
+    public void updateNClob(String columnLabel, NClob x) throws SQLException {
+        rs.updateNClob(columnLabel, x);
+    }
+    
+    @Override
+    public void updateNClob(int columnIndex, Reader x, long y) throws SQLException {
+        rs.updateNClob(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateNClob(int columnIndex, Reader x) throws SQLException {
+        rs.updateNClob(columnIndex, x);
+    }
+    
+    @Override
+    public void updateNClob(int columnIndex, NClob x) throws SQLException {
+        rs.updateNClob(columnIndex, x);
+    }
+    
+    @Override
+    public void updateNString(String columnLabel, String x) throws SQLException {
+        rs.updateNString(columnLabel, x);
+    }
+    
+    @Override
+    public void updateNString(int columnIndex, String x) throws SQLException {
+        rs.updateNString(columnIndex, x);
+    }
+    
+    @Override
+    public void updateNull(String columnLabel) throws SQLException {
+        rs.updateNull(columnLabel);
+    }
+    
+    @Override
+    public void updateNull(int columnIndex) throws SQLException {
+        rs.updateNull(columnIndex);
+    }
+    
+    @Override
+    public void updateObject(String columnLabel, Object x, int y) throws SQLException {
+        rs.updateObject(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateObject(String columnLabel, Object x, SQLType y, int z) throws SQLException {
+        rs.updateObject(columnLabel, x, y, z);
+    }
+    
+    @Override
+    public void updateObject(String columnLabel, Object x, SQLType y) throws SQLException {
+        rs.updateObject(columnLabel, x, y);
+    }
+    
+    @Override
+    public void updateObject(String columnLabel, Object x) throws SQLException {
+        rs.updateObject(columnLabel, x);
+    }
+    
+    @Override
+    public void updateObject(int columnIndex, Object x, int y) throws SQLException {
+        rs.updateObject(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateObject(int columnIndex, Object x, SQLType y, int z) throws SQLException {
+        rs.updateObject(columnIndex, x, y, z);
+    }
+    
+    @Override
+    public void updateObject(int columnIndex, Object x, SQLType y) throws SQLException {
+        rs.updateObject(columnIndex, x, y);
+    }
+    
+    @Override
+    public void updateObject(int columnIndex, Object x) throws SQLException {
+        rs.updateObject(columnIndex, x);
+    }
+    
+    @Override
+    public void updateRef(String columnLabel, Ref x) throws SQLException {
+        rs.updateRef(columnLabel, x);
+    }
+    
+    @Override
+    public void updateRef(int columnIndex, Ref x) throws SQLException {
+        rs.updateRef(columnIndex, x);
+    }
+    
+    @Override
+    public void updateRow() throws SQLException {
+        rs.updateRow();
+    }
+    
+    @Override
+    public void updateRowId(String columnLabel, RowId x) throws SQLException {
+        rs.updateRowId(columnLabel, x);
+    }
+    
+    @Override
+    public void updateRowId(int columnIndex, RowId x) throws SQLException {
+        rs.updateRowId(columnIndex, x);
+    }
+    
+    @Override
+    public void updateSQLXML(String columnLabel, SQLXML x) throws SQLException {
+        rs.updateSQLXML(columnLabel, x);
+    }
+    
+    @Override
+    public void updateSQLXML(int columnIndex, SQLXML x) throws SQLException {
+        rs.updateSQLXML(columnIndex, x);
+    }
+    
+    @Override
+    public void updateShort(String columnLabel, short x) throws SQLException {
+        rs.updateShort(columnLabel, x);
+    }
+    
+    @Override
+    public void updateShort(int columnIndex, short x) throws SQLException {
+        rs.updateShort(columnIndex, x);
+    }
+    
+    @Override
+    public void updateString(String columnLabel, String x) throws SQLException {
+        rs.updateString(columnLabel, x);
+    }
+    
+    @Override
+    public void updateString(int columnIndex, String x) throws SQLException {
+        rs.updateString(columnIndex, x);
+    }
+    
+    @Override
+    public void updateTime(String columnLabel, Time x) throws SQLException {
+        rs.updateTime(columnLabel, x);
+    }
+    
+    @Override
+    public void updateTime(int columnIndex, Time x) throws SQLException {
+        rs.updateTime(columnIndex, x);
+    }
+    
+    @Override
+    public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
+        rs.updateTimestamp(columnLabel, x);
+    }
+    
+    @Override
+    public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
+        rs.updateTimestamp(columnIndex, x);
+    }
+    
+    @Override
+    public boolean wasNull() throws SQLException {
+        return rs.wasNull();
+    }
+}
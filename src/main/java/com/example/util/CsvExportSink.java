@@ -0,0 +1,128 @@
+package com.example.util;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Writes rows as RFC 4180 CSV. Each line is built in one reused
+ * StringBuilder and encoded to UTF-8 straight into a pooled direct buffer.
+ */
+class CsvExportSink extends ExportSink {
+    
+    private final StringBuilder line = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer bytes;
+    private int columns;
+    
+    CsvExportSink(Path file, boolean gzip) throws IOException {
+        super(file, gzip);
+    }
+    
+    @Override
+    void writeHeader(ResultSetMetaData metaData) throws SQLException, IOException {
+        bytes = DirectBufferPool.acquire();
+        columns = metaData.getColumnCount();
+        line.setLength(0);
+        for (int i = 1; i <= columns; i++) {
+            appendField(i == 1, metaData.getColumnLabel(i));
+        }
+        writeLine();
+    }
+    
+    @Override
+    void writeRow(ResultSet rs) throws SQLException, IOException {
+        line.setLength(0);
+        for (int i = 1; i <= columns; i++) {
+            Object value = rs.getObject(i);
+            String text;
+            if (value == null) {
+                text = null;
+            } else if (value instanceof BigDecimal) {
+                text = ((BigDecimal) value).toPlainString();
+            } else {
+                text = value.toString();
+            }
+            appendField(i == 1, text);
+        }
+        writeLine();
+    }
+    
+    @Override
+    void writeTrailer() throws IOException {
+        if (bytes != null) {
+            flush();
+        }
+    }
+    
+    @Override
+    void releaseBuffers() {
+        DirectBufferPool.release(bytes);
+        bytes = null;
+    }
+    
+    /**
+     * Appends a field, quoted only when it holds a comma, quote or line break.
+     * NULL is an empty field.
+     */
+    private void appendField(boolean first, String text) {
+        if (!first) {
+            line.append(',');
+        }
+        if (text == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+    
+    private void writeLine() throws IOException {
+        line.append('\r').append('\n');
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (result.isUnderflow()) {
+                break;
+            }
+            if (result.isOverflow()) {
+                flush();
+            } else {
+                result.throwException();
+            }
+        }
+        encoder.reset();
+    }
+    
+    private void flush() throws IOException {
+        bytes.flip();
+        output.write(bytes);
+        bytes.clear();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.util;
+
+import java.sql.SQLException;
+
+/**
+ * One call against a DAO, e.g. {@code dao -> dao.findById(id)}.
+ */
+@FunctionalInterface
+public interface DaoCall<D, T> {
+    T call(D dao) throws SQLException;
+}
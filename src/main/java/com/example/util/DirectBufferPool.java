@@ -0,0 +1,57 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared pool of direct byte buffers of db.export.bufferSize bytes. Direct
+ * buffers are costly to allocate and are only freed by the garbage
+ * collector, so exports borrow them here instead of allocating per file.
+ * At most db.export.pooledBuffers idle buffers are kept.
+ */
+public final class DirectBufferPool {
+    
+    private static final Queue<ByteBuffer> IDLE = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger IDLE_COUNT = new AtomicInteger();
+    
+    private DirectBufferPool() {}
+    
+    /**
+     * A cleared buffer of the pooled size.
+     */
+    public static ByteBuffer acquire() {
+        ByteBuffer buffer = IDLE.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(getBufferSize());
+        }
+        IDLE_COUNT.decrementAndGet();
+        return buffer.clear();
+    }
+    
+    /**
+     * Returns a buffer to the pool. Buffers of another size, e.g. one
+     * allocated for an oversized value, are left to the garbage collector.
+     */
+    public static void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != getBufferSize()) {
+            return;
+        }
+        if (IDLE_COUNT.incrementAndGet() <= DatabaseConfig.getExportPooledBuffers()) {
+            IDLE.add(buffer.clear());
+        } else {
+            IDLE_COUNT.decrementAndGet();
+        }
+    }
+    
+    public static int getBufferSize() {
+        return DatabaseConfig.getExportBufferSize();
+    }
+    
+    public static int getIdleCount() {
+        return IDLE_COUNT.get();
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded in-process cache of entities by primary key, placed in front of a
+ * DAO's findById. Entries expire after a fixed time to live. When the cache
+ * is full, a clock hand sweeps a small sample of entries and evicts the least
+ * frequently used one. After every AGING_FACTOR * maxSize reads and writes
+ * all frequencies are halved, so entries that were hot once but are no longer
+ * read age out.
+ *
+ * Values are copied on the way in and on the way out, so callers may modify
+ * what they get back without corrupting the cached row.
+ */
+public class EntityCache<K, V> {
+    
+    private static final int SAMPLE_SIZE = 8;
+    private static final int MAX_FREQUENCY = 255;
+    // New entries start above zero so they survive a sweep or two before their first read
+    private static final int INITIAL_FREQUENCY = 4;
+    private static final int AGING_FACTOR = 10;
+    // Power of two; keys sharing a stripe also share invalidations
+    private static final int GENERATION_STRIPES = 256;
+    
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Bumped by invalidations so a load that raced with a write is not cached:
+    // invalidate() bumps the key's stripe, invalidateAll() the shared counter
+    private final AtomicLong allGeneration = new AtomicLong();
+    private final AtomicLongArray keyGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Object evictionLock = new Object();
+    private Iterator<Map.Entry<K, Entry<V>>> hand;
+    // Aging periods so far; frequencies are halved lazily once per period
+    private volatile int epoch;
+    private long nextAgingAt;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+    
+    public EntityCache(int maxSize, long ttlMillis, UnaryOperator<V> copier) {
+        this(true, maxSize, ttlMillis, copier);
+    }
+    
+    private EntityCache(boolean enabled, int maxSize, long ttlMillis, UnaryOperator<V> copier) {
+        if (enabled && (maxSize < 1 || ttlMillis < 1)) {
+            throw new IllegalArgumentException("Invalid cache settings: maxSize=" + maxSize + ", ttlMillis=" + ttlMillis);
+        }
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.copier = copier;
+    }
+    
+    /**
+     * Builds the cache for an entity from the db.cache.&lt;name&gt;.* settings.
+     * A disabled cache loads straight through and records no statistics.
+     */
+    public static <K, V> EntityCache<K, V> fromConfig(String name, UnaryOperator<V> copier) {
+        return new EntityCache<>(
+            DatabaseConfig.isEntityCacheEnabled(name),
+            DatabaseConfig.getEntityCacheMaxSize(name),
+            DatabaseConfig.getEntityCacheTtlMillis(name),
+            copier);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Returns a copy of the cached value, or null on a miss.
+     */
+    public V get(K key) {
+        if (!enabled) {
+            return null;
+        }
+        operations.increment();
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        entry.touch(epoch);
+        hits.increment();
+        return copier.apply(entry.value);
+    }
+    
+    /**
+     * Returns the cached value, loading and caching it on a miss. The loaded
+     * value is not cached if the key was invalidated while it was being read,
+     * or if it was read inside a transaction and may not be committed yet.
+     */
+    public V getOrLoad(K key, Loader<K, V> loader) throws SQLException {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = stamp(key);
+        V loaded = loader.load(key);
+        if (loaded != null && enabled && !ConnectionManager.isInTransaction()) {
+            putIfCurrent(key, loaded, stamp);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Returns the values for the keys in key order, loading every key that
+     * missed in one call and caching what it returns. Keys with no value are
+     * skipped and duplicates are ignored.
+     */
+    public List<V> getAllOrLoad(Collection<K> keys, BulkLoader<K, V> loader, Function<V, K> keyOf) throws SQLException {
+        if (!enabled) {
+            return loader.load(keys);
+        }
+        Map<K, V> found = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        Set<K> distinct = new LinkedHashSet<>(keys);
+        distinct.remove(null);
+        for (K key : distinct) {
+            V cached = get(key);
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<K, Long> stamps = new HashMap<>();
+            for (K key : missing) {
+                stamps.put(key, stamp(key));
+            }
+            List<V> loaded = loader.load(missing);
+            boolean cacheable = !ConnectionManager.isInTransaction();
+            for (V value : loaded) {
+                K key = keyOf.apply(value);
+                found.put(key, value);
+                Long stamp = stamps.get(key);
+                if (cacheable && stamp != null) {
+                    putIfCurrent(key, value, stamp);
+                }
+            }
+        }
+        List<V> results = new ArrayList<>(found.size());
+        for (K key : distinct) {
+            V value = found.get(key);
+            if (value != null) {
+                results.add(value);
+            }
+        }
+        return results;
+    }
+    
+    public void put(K key, V value) {
+        if (!enabled) {
+            return;
+        }
+        operations.increment();
+        Entry<V> entry = new Entry<>(copier.apply(value), System.nanoTime() + ttlNanos, epoch);
+        entries.put(key, entry);
+        if (entries.size() > maxSize) {
+            evict(key, entry);
+        }
+    }
+    
+    /**
+     * Caches a loaded value unless the key was invalidated since the stamp
+     * was taken. The check runs inside the map's lock for the key, and every
+     * invalidation bumps its generation before removing, so an invalidation
+     * either fails the check or removes what was just stored.
+     */
+    private void putIfCurrent(K key, V value, long stamp) {
+        operations.increment();
+        Entry<V> entry = new Entry<>(copier.apply(value), System.nanoTime() + ttlNanos, epoch);
+        Entry<V> stored = entries.compute(key, (k, existing) -> stamp(k) == stamp ? entry : existing);
+        if (stored == entry && entries.size() > maxSize) {
+            evict(key, entry);
+        }
+    }
+    
+    /**
+     * Changes whenever the key, or the whole cache, is invalidated. Both
+     * counters only grow, so an unchanged sum means neither moved.
+     */
+    private long stamp(K key) {
+        return allGeneration.get() + keyGenerations.get(stripe(key));
+    }
+    
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+    
+    /**
+     * Drops the key. Inside a transaction it is dropped again once the
+     * transaction completes, since another thread may have cached the
+     * committed row before this transaction's write became visible.
+     */
+    public void invalidate(K key) {
+        if (!enabled) {
+            return;
+        }
+        keyGenerations.incrementAndGet(stripe(key));
+        entries.remove(key);
+        Transaction tx = ConnectionManager.currentTransaction();
+        if (tx != null) {
+            tx.afterCompletion(() -> {
+                keyGenerations.incrementAndGet(stripe(key));
+                entries.remove(key);
+            });
+        }
+    }
+    
+    /**
+     * Drops every entry. Used after statements that may touch many rows.
+     */
+    public void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        allGeneration.incrementAndGet();
+        entries.clear();
+        Transaction tx = ConnectionManager.currentTransaction();
+        if (tx != null) {
+            tx.afterCompletion(() -> {
+                allGeneration.incrementAndGet();
+                entries.clear();
+            });
+        }
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    /**
+     * Entries removed to make room, not counting expirations.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+    
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+    
+    @Override
+    public String toString() {
+        return "EntityCache[size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+            + ", evictions=" + getEvictionCount() + ", expirations=" + getExpirationCount() + "]";
+    }
+    
+    /**
+     * Makes room after the given entry was added. If every sampled entry is
+     * used more often than the newcomer, the newcomer is dropped instead, so a
+     * scan of cold ids cannot flush the hot set.
+     */
+    private void evict(K newKey, Entry<V> newcomer) {
+        synchronized (evictionLock) {
+            long ops = operations.sum();
+            if (ops >= nextAgingAt) {
+                if (nextAgingAt > 0) {
+                    epoch++;
+                }
+                nextAgingAt = ops + (long) AGING_FACTOR * maxSize;
+            }
+            long now = System.nanoTime();
+            while (entries.size() > maxSize) {
+                K victimKey = null;
+                Entry<V> victim = null;
+                int victimFrequency = Integer.MAX_VALUE;
+                for (int sampled = 0; sampled < SAMPLE_SIZE; sampled++) {
+                    if (hand == null || !hand.hasNext()) {
+                        hand = entries.entrySet().iterator();
+                        if (!hand.hasNext()) {
+                            return;
+                        }
+                    }
+                    Map.Entry<K, Entry<V>> candidate = hand.next();
+                    Entry<V> entry = candidate.getValue();
+                    if (entry.isExpired(now)) {
+                        victimKey = candidate.getKey();
+                        victim = entry;
+                        break;
+                    }
+                    int frequency = entry.frequency(epoch);
+                    if (frequency < victimFrequency) {
+                        victimKey = candidate.getKey();
+                        victim = entry;
+                        victimFrequency = frequency;
+                    }
+                }
+                if (victim != null && !victim.isExpired(now) && victim != newcomer
+                        && newcomer.frequency(epoch) < victimFrequency && entries.get(newKey) == newcomer) {
+                    victimKey = newKey;
+                    victim = newcomer;
+                }
+                if (victim != null && entries.remove(victimKey, victim)) {
+                    if (victim.isExpired(now)) {
+                        expirations.increment();
+                    } else {
+                        evictions.increment();
+                    }
+                }
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+    
+    @FunctionalInterface
+    public interface BulkLoader<K, V> {
+        List<V> load(Collection<K> keys) throws SQLException;
+    }
+    
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+        // Approximate; lost updates under contention are harmless
+        volatile int frequency;
+        volatile int epoch;
+        
+        Entry(V value, long expiresAt, int epoch) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.frequency = INITIAL_FREQUENCY;
+            this.epoch = epoch;
+        }
+        
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+        
+        /**
+         * The frequency after halving it once for each pass it has missed.
+         */
+        int frequency(int currentEpoch) {
+            int age = currentEpoch - epoch;
+            int f = frequency;
+            if (age > 0) {
+                f = age >= Integer.SIZE ? 0 : f >>> age;
+                frequency = f;
+                epoch = currentEpoch;
+            }
+            return f;
+        }
+        
+        void touch(int currentEpoch) {
+            int f = frequency(currentEpoch);
+            if (f < MAX_FREQUENCY) {
+                frequency = f + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.util;
+
+/**
+ * File formats written by {@link Exporter}.
+ */
+public enum ExportFormat {
+    
+    /**
+     * RFC 4180 CSV in UTF-8 with a header line of column labels.
+     */
+    CSV("csv"),
+    
+    /**
+     * Compact binary format laid out by column. Rows are written in blocks of
+     * up to 4096; within a block each column is stored contiguously with a
+     * null bitmap, integers and timestamps as zigzag varint deltas, decimals
+     * as scale and unscaled value, and strings as length-prefixed UTF-8.
+     * Each column section is length-prefixed, so a reader can skip columns it
+     * does not need.
+     */
+    COLUMNAR("rcol");
+    
+    private final String extension;
+    
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+}
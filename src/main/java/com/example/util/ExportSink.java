@@ -0,0 +1,145 @@
+package com.example.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * A {@link RowSink} that writes a report to a file as rows arrive. The file
+ * is complete once {@link #end} returns; closing a sink that never got there,
+ * because the report failed or was cancelled, deletes the partial file.
+ *
+ * The methods are synchronized because a cancelled report may be cleaned up
+ * on another thread while its last row is still being written.
+ */
+public abstract class ExportSink implements RowSink, AutoCloseable {
+    
+    private final Path file;
+    final ChannelOutput output;
+    private long rows;
+    private boolean finished;
+    private boolean closed;
+    
+    ExportSink(Path file, boolean gzip) throws IOException {
+        this.file = file;
+        this.output = new ChannelOutput(file, gzip);
+    }
+    
+    public static ExportSink open(Path file, ExportFormat format, boolean gzip) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvExportSink(file, gzip);
+            case COLUMNAR:
+                return new ColumnarExportSink(file, gzip);
+            default:
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+    
+    @Override
+    public synchronized void begin(ResultSetMetaData metaData) throws SQLException {
+        checkOpen();
+        try {
+            writeHeader(metaData);
+        } catch (IOException e) {
+            throw new SQLException("Could not write export file " + file, e);
+        }
+    }
+    
+    @Override
+    public synchronized void row(ResultSet rs) throws SQLException {
+        checkOpen();
+        try {
+            writeRow(rs);
+            rows++;
+        } catch (IOException e) {
+            throw new SQLException("Could not write export file " + file, e);
+        }
+    }
+    
+    /**
+     * Writes what is still buffered and closes the file.
+     */
+    @Override
+    public synchronized void end(long rowCount) throws SQLException {
+        checkOpen();
+        try {
+            writeTrailer();
+            output.close();
+            finished = true;
+            closed = true;
+        } catch (IOException e) {
+            throw new SQLException("Could not write export file " + file, e);
+        } finally {
+            if (closed) {
+                releaseBuffers();
+            }
+        }
+    }
+    
+    /**
+     * Does nothing after {@link #end}; otherwise discards the partial file.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        releaseBuffers();
+        output.abort();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Left behind; the caller already knows the export failed
+        }
+    }
+    
+    /**
+     * Like {@link #close}, but also deletes a file that was already
+     * finished, for a report cancelled just after its last row was written.
+     */
+    synchronized void discard() {
+        boolean complete = finished;
+        close();
+        if (complete) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Left behind; the caller already knows the export was cancelled
+            }
+        }
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    public synchronized long getRowCount() {
+        return rows;
+    }
+    
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+    
+    abstract void writeHeader(ResultSetMetaData metaData) throws SQLException, IOException;
+    
+    abstract void writeRow(ResultSet rs) throws SQLException, IOException;
+    
+    abstract void writeTrailer() throws IOException;
+    
+    /**
+     * Returns any pooled buffers the format borrowed; called once the file is closed.
+     */
+    abstract void releaseBuffers();
+    
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Export to " + file + " is closed");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Streams a report query straight from its cursor to a file, as CSV or
+ * {@link ExportFormat#COLUMNAR}, optionally gzip-compressed. Rows are never
+ * collected: each one is encoded into a pooled direct buffer that goes to a
+ * FileChannel whenever it fills, so an export of a million rows needs no more
+ * memory than one of ten.
+ *
+ * <pre>
+ * Exporter.export(customerDAO.emailListExport(), Path.of("emails.csv"), ExportFormat.CSV, false);
+ * ReportTask task = Exporter.submit(engine, productDAO.inventoryValueByCategory(), path, ExportFormat.COLUMNAR, true);
+ * </pre>
+ *
+ * A failed or cancelled export leaves no partial file behind.
+ */
+public final class Exporter {
+    
+    private Exporter() {}
+    
+    /**
+     * Runs the query on this thread and returns the number of rows written.
+     */
+    public static long export(ReportQuery query, Path file, ExportFormat format, boolean gzip)
+            throws SQLException, IOException {
+        int timeout = query.timeoutSeconds() > 0 ? query.timeoutSeconds() : DatabaseConfig.getReportTimeoutSeconds();
+        try (ExportSink sink = ExportSink.open(file, format, gzip)) {
+            return new ReportTask(query, sink, timeout, DatabaseConfig.getFetchSize()).run();
+        }
+    }
+    
+    /**
+     * Queues the export on a report engine. The file is complete when the
+     * task's future completes normally; once it is cancelled the file is
+     * removed, even if the last row was already written.
+     */
+    public static ReportTask submit(ReportEngine engine, ReportQuery query, Path file, ExportFormat format,
+                                    boolean gzip) throws IOException {
+        ExportSink sink = ExportSink.open(file, format, gzip);
+        ReportTask task;
+        try {
+            task = engine.submit(query, sink);
+        } catch (RuntimeException e) {
+            sink.close();
+            throw e;
+        }
+        task.getFuture().whenComplete((rows, e) -> {
+            if (task.getFuture().isCancelled()) {
+                sink.discard();
+            } else {
+                sink.close();
+            }
+        });
+        return task;
+    }
+}
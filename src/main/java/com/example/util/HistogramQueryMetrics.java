@@ -0,0 +1,69 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link QueryMetrics}: an in-memory latency histogram plus row and
+ * error counters per named statement.
+ */
+public class HistogramQueryMetrics implements QueryMetrics {
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    @Override
+    public void recordExecution(String statement, long elapsedNanos, long rows) {
+        Entry entry = entry(statement);
+        entry.latency.record(elapsedNanos);
+        if (rows > 0) {
+            entry.rows.add(rows);
+        }
+    }
+    
+    @Override
+    public void recordError(String statement, long elapsedNanos, Throwable error) {
+        Entry entry = entry(statement);
+        entry.latency.record(elapsedNanos);
+        entry.errors.increment();
+    }
+    
+    public StatementStats getStats(String statement) {
+        Entry entry = entries.get(statement);
+        return entry != null ? entry.snapshot(statement) : null;
+    }
+    
+    /**
+     * Stats for every statement seen so far, slowest p99 first.
+     */
+    public List<StatementStats> getAllStats() {
+        List<StatementStats> stats = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            stats.add(e.getValue().snapshot(e.getKey()));
+        }
+        stats.sort(Comparator.comparingDouble(StatementStats::getP99Millis).reversed());
+        return stats;
+    }
+    
+    public void reset() {
+        entries.clear();
+    }
+    
+    private Entry entry(String statement) {
+        Entry entry = entries.get(statement);
+        return entry != null ? entry : entries.computeIfAbsent(statement, k -> new Entry());
+    }
+    
+    private static class Entry {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        
+        StatementStats snapshot(String statement) {
+            return new StatementStats(statement, latency.getCount(), errors.sum(), rows.sum(), latency);
+        }
+    }
+}
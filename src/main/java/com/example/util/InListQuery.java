@@ -0,0 +1,212 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs statements of the form "... WHERE id IN (?, ?, ...)" for any number
+ * of ids. The ids are split into chunks of at most db.inList.maxSize, and each
+ * chunk is padded up to the next power of two by repeating its last id, so a
+ * table only ever sees a handful of distinct statement texts and they all
+ * stay in the per-connection statement cache. Lookups that need more than one
+ * chunk run the chunks in parallel on separate pooled connections, except
+ * inside a transaction.
+ */
+public class InListQuery {
+    
+    private static final Map<String, String> SQL_BY_BUCKET = new ConcurrentHashMap<>();
+    
+    private static volatile ExecutorService executor;
+    
+    private InListQuery() {}
+    
+    /**
+     * Selects the rows whose id is in the collection, using the prefix
+     * "SELECT ... WHERE x_id IN ". Rows come back in the order their ids were
+     * first given; ids with no row are skipped and duplicates are ignored.
+     */
+    public static <T> List<T> select(String sqlPrefix, Collection<Long> ids, RowMapper<T> mapper,
+                                     Function<T, Long> idOf) throws SQLException {
+        List<List<Long>> chunks = chunk(ids);
+        Map<Long, T> found = new HashMap<>();
+        // Inside a transaction every chunk must use the transaction's connection
+        if (chunks.size() > 1 && DatabaseConfig.getInListParallelism() > 1 && !ConnectionManager.isInTransaction()) {
+            List<Future<List<T>>> futures = new ArrayList<>(chunks.size());
+            for (List<Long> chunk : chunks) {
+                futures.add(executor().submit(() -> selectChunk(sqlPrefix, chunk, mapper)));
+            }
+            for (List<T> rows : await(futures)) {
+                for (T row : rows) {
+                    found.put(idOf.apply(row), row);
+                }
+            }
+        } else {
+            for (List<Long> chunk : chunks) {
+                for (T row : selectChunk(sqlPrefix, chunk, mapper)) {
+                    found.put(idOf.apply(row), row);
+                }
+            }
+        }
+        List<T> results = new ArrayList<>(found.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            T row = found.get(id);
+            if (row != null) {
+                results.add(row);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Runs an UPDATE or DELETE with the prefix "... WHERE x_id IN " over all
+     * ids and returns the total update count. Chunks run one after another;
+     * parallel writers on the same table would only queue on each other's locks.
+     */
+    public static int update(String sqlPrefix, Collection<Long> ids) throws SQLException {
+        int total = 0;
+        for (List<Long> chunk : chunk(ids)) {
+            Connection conn = null;
+            PreparedStatement stmt = null;
+            try {
+                conn = ConnectionManager.getConnection();
+                stmt = conn.prepareStatement(sql(sqlPrefix, bucketSize(chunk.size())));
+                bind(stmt, chunk);
+                total += stmt.executeUpdate();
+            } finally {
+                if (stmt != null) stmt.close();
+                ConnectionManager.closeConnection(conn);
+            }
+        }
+        return total;
+    }
+    
+    private static <T> List<T> selectChunk(String sqlPrefix, List<Long> chunk, RowMapper<T> mapper) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<T> rows = new ArrayList<>(chunk.size());
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql(sqlPrefix, bucketSize(chunk.size())));
+            bind(stmt, chunk);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                rows.add(mapper.mapRow(rs));
+            }
+            return rows;
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    private static void bind(PreparedStatement stmt, List<Long> chunk) throws SQLException {
+        int bucket = bucketSize(chunk.size());
+        Long last = chunk.get(chunk.size() - 1);
+        for (int i = 0; i < bucket; i++) {
+            stmt.setLong(i + 1, i < chunk.size() ? chunk.get(i) : last);
+        }
+    }
+    
+    /**
+     * Splits the distinct, non-null ids into chunks no larger than the maximum IN-list size.
+     */
+    private static List<List<Long>> chunk(Collection<Long> ids) {
+        int maxSize = Integer.highestOneBit(Math.max(1, DatabaseConfig.getInListMaxSize()));
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> current = new ArrayList<>(Math.min(maxSize, ids.size()));
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (id == null) {
+                continue;
+            }
+            if (current.size() == maxSize) {
+                chunks.add(current);
+                current = new ArrayList<>(maxSize);
+            }
+            current.add(id);
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+    
+    static int bucketSize(int count) {
+        return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    }
+    
+    private static String sql(String sqlPrefix, int bucket) {
+        return SQL_BY_BUCKET.computeIfAbsent(sqlPrefix + '#' + bucket, key -> {
+            StringBuilder sb = new StringBuilder(sqlPrefix.length() + bucket * 3 + 2).append(sqlPrefix).append('(');
+            for (int i = 0; i < bucket; i++) {
+                sb.append(i == 0 ? "?" : ", ?");
+            }
+            String sql = sb.append(')').toString();
+            SqlCatalog.alias(sql, SqlCatalog.nameOf(sqlPrefix) + "[" + bucket + "]");
+            return sql;
+        });
+    }
+    
+    private static <R> List<R> await(List<Future<R>> futures) throws SQLException {
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for IN-list chunks", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("IN-list chunk failed", cause);
+        } finally {
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+    
+    private static ExecutorService executor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (InListQuery.class) {
+                current = executor;
+                if (current == null) {
+                    AtomicInteger count = new AtomicInteger();
+                    current = Executors.newFixedThreadPool(DatabaseConfig.getInListParallelism(), r -> {
+                        Thread t = new Thread(r, "in-list-query-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Runs keyset (seek) page queries and builds their continuation tokens.
+ * Page queries take FIRST ? as their first parameter followed by the key
+ * of the last row already seen, so every page costs one index range scan
+ * no matter how deep it is, unlike SKIP/FIRST paging.
+ */
+public class KeysetPager {
+    
+    private static final char SEPARATOR = '\u001f';
+    
+    private KeysetPager() {}
+    
+    /**
+     * Reads up to limit rows. One extra row is requested to find out whether
+     * another page exists without a second query.
+     *
+     * @param listing   name of the listing, embedded in the token so a token
+     *                  cannot be replayed against a different ordering
+     * @param keyReader reads the ordering key of the current row
+     */
+    public static <T> Page<T> fetch(String sql, String listing, int limit, RowMapper<T> mapper,
+                                    RowMapper<Object[]> keyReader, Object... keyParams) throws SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<T> items = new ArrayList<>(limit);
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, limit + 1);
+            for (int i = 0; i < keyParams.length; i++) {
+                stmt.setObject(i + 2, keyParams[i]);
+            }
+            rs = stmt.executeQuery();
+            Object[] lastKey = null;
+            boolean more = false;
+            while (rs.next()) {
+                if (items.size() == limit) {
+                    more = true;
+                    break;
+                }
+                items.add(mapper.mapRow(rs));
+                lastKey = keyReader.mapRow(rs);
+            }
+            return new Page<>(items, more ? encode(listing, lastKey) : null);
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    public static String encode(String listing, Object... key) {
+        StringBuilder sb = new StringBuilder(listing);
+        for (Object value : key) {
+            sb.append(SEPARATOR);
+            if (value instanceof Long) {
+                sb.append('L').append(value);
+            } else if (value instanceof Timestamp) {
+                Timestamp ts = (Timestamp) value;
+                sb.append('T').append(ts.getTime()).append(':').append(ts.getNanos());
+            } else if (value instanceof String) {
+                sb.append('S').append(value);
+            } else {
+                throw new IllegalArgumentException("Unsupported key type: " + value);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a token produced for the given listing whose key has exactly
+     * the given column types, so callers can index and cast the result.
+     *
+     * @throws IllegalArgumentException if the token is malformed, belongs to
+     *                                  another listing or has a different key shape
+     */
+    public static Object[] decode(String listing, String token, Class<?>... types) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                .split(String.valueOf(SEPARATOR), -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed continuation token", e);
+        }
+        if (!parts[0].equals(listing)) {
+            throw new IllegalArgumentException("Continuation token does not belong to listing " + listing);
+        }
+        Object[] key = new Object[parts.length - 1];
+        try {
+            for (int i = 1; i < parts.length; i++) {
+                String part = parts[i];
+                String body = part.substring(1);
+                switch (part.charAt(0)) {
+                    case 'L':
+                        key[i - 1] = Long.valueOf(body);
+                        break;
+                    case 'T':
+                        int colon = body.indexOf(':');
+                        Timestamp ts = new Timestamp(Long.parseLong(body.substring(0, colon)));
+                        ts.setNanos(Integer.parseInt(body.substring(colon + 1)));
+                        key[i - 1] = ts;
+                        break;
+                    case 'S':
+                        key[i - 1] = body;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Malformed continuation token");
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed continuation token", e);
+        }
+        if (key.length != types.length) {
+            throw new IllegalArgumentException("Continuation token has " + key.length + " key values, expected " + types.length);
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (!types[i].isInstance(key[i])) {
+                throw new IllegalArgumentException("Continuation token key " + i + " is not a " + types[i].getSimpleName());
+            }
+        }
+        return key;
+    }
+}
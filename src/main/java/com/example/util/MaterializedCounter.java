@@ -0,0 +1,234 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The result of a scalar COUNT(*) or SUM() query kept in memory. It is seeded
+ * by running the query once; after that reads return the held value without
+ * locking or a round trip. Writers keep it current by adding exact deltas
+ * when they know them, such as one more ACTIVE row after an insert, or by
+ * marking it stale when they cannot, such as after a status update, which
+ * re-runs the query in the background. {@link MaterializedCounters} also
+ * re-runs every counter periodically to correct any drift.
+ *
+ * The value is held as a long in units of 10^-scale, so sums of DECIMAL
+ * columns are added exactly.
+ */
+public class MaterializedCounter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MaterializedCounter.class);
+    
+    private final String sql;
+    private final Object[] params;
+    private final int scale;
+    private final String name;
+    private final Writes writes;
+    
+    private final AtomicLong units = new AtomicLong();
+    // Bumped by every delta and stale mark, so a refresh that raced with a write knows it may be behind
+    private final AtomicLong stamp = new AtomicLong();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private volatile boolean seeded;
+    private volatile boolean stale;
+    private volatile long lastReadNanos = System.nanoTime();
+    
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder drifts = new LongAdder();
+    
+    MaterializedCounter(String sql, int scale, Writes writes, Object... params) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("Scale must not be negative: " + scale);
+        }
+        this.sql = sql;
+        this.params = params.clone();
+        this.scale = scale;
+        this.writes = writes;
+        this.name = SqlCatalog.nameOf(sql) + (params.length > 0 ? Arrays.toString(params) : "");
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * The value in units of 10^-scale; for a count, the count itself. The
+     * first call runs the query.
+     */
+    public long get() throws SQLException {
+        if (!seeded) {
+            synchronized (this) {
+                if (!seeded) {
+                    refresh();
+                }
+            }
+        }
+        lastReadNanos = System.nanoTime();
+        return units.get();
+    }
+    
+    public BigDecimal getValue() throws SQLException {
+        return BigDecimal.valueOf(get(), scale);
+    }
+    
+    /**
+     * Adds a delta in units of 10^-scale. Inside a transaction it is applied
+     * once the transaction commits. Before the first read there is nothing to
+     * adjust and the delta is dropped.
+     */
+    public void add(long delta) {
+        Transaction tx = ConnectionManager.currentTransaction();
+        if (tx != null) {
+            tx.afterCompletion(() -> {
+                if (tx.isCommitted()) {
+                    add(delta);
+                }
+            });
+            return;
+        }
+        stamp.incrementAndGet();
+        if (seeded) {
+            units.addAndGet(delta);
+        }
+    }
+    
+    public void add(BigDecimal amount) {
+        add(amount.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+    
+    /**
+     * Marks the value as possibly wrong and queues a background refresh.
+     * Reads keep returning the old value until the refresh lands. Inside a
+     * transaction it is marked again once the transaction completes, since a
+     * refresh in between cannot see the transaction's writes.
+     */
+    public void markStale() {
+        Transaction tx = ConnectionManager.currentTransaction();
+        if (tx != null) {
+            tx.afterCompletion(this::markStaleNow);
+        }
+        markStaleNow();
+    }
+    
+    private void markStaleNow() {
+        stamp.incrementAndGet();
+        stale = true;
+        if (seeded && refreshQueued.compareAndSet(false, true)) {
+            MaterializedCounters.refreshLater(this);
+        }
+    }
+    
+    public boolean isStale() {
+        return stale;
+    }
+    
+    /**
+     * Runs the query and replaces the value. If a write raced with the query,
+     * is still between its statement and its delta, or the query saw a
+     * transaction's uncommitted writes, the counter stays stale and is
+     * refreshed again, since the query may already include a delta that is
+     * still to be added.
+     */
+    public void refresh() throws SQLException {
+        refreshQueued.set(false);
+        long before = stamp.get();
+        long writesBefore = writes.stamp.get();
+        long loaded = query();
+        refreshes.increment();
+        long previous = units.getAndSet(loaded);
+        boolean raced = stamp.get() != before || writes.stamp.get() != writesBefore || writes.inFlight.get() > 0
+            || ConnectionManager.isInTransaction();
+        if (seeded && !stale && !raced && previous != loaded) {
+            drifts.increment();
+            logger.info("Counter {} drifted from {} to {}", name, BigDecimal.valueOf(previous, scale),
+                BigDecimal.valueOf(loaded, scale));
+        }
+        seeded = true;
+        stale = raced;
+        if (raced) {
+            markStaleNow();
+        }
+    }
+    
+    /**
+     * Times the counter was found off without a known cause when refreshed.
+     */
+    public long getDriftCount() {
+        return drifts.sum();
+    }
+    
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+    
+    long getLastReadNanos() {
+        return lastReadNanos;
+    }
+    
+    boolean isSeeded() {
+        return seeded;
+    }
+    
+    boolean matches(String sql, Object[] params) {
+        return this.sql.equals(sql) && (params == null || Arrays.equals(this.params, params));
+    }
+    
+    @Override
+    public String toString() {
+        return "MaterializedCounter[" + name + "=" + (seeded ? BigDecimal.valueOf(units.get(), scale) : "unseeded")
+            + (stale ? ", stale" : "") + ", refreshes=" + getRefreshCount() + ", drifts=" + getDriftCount() + "]";
+    }
+    
+    /**
+     * Writes in flight against one counter statement, shared by its counters
+     * for every parameter value. A write is counted from before its statement
+     * runs until its deltas have been added.
+     */
+    static final class Writes {
+        final AtomicInteger inFlight = new AtomicInteger();
+        // Bumped when a write starts and when it ends
+        final AtomicLong stamp = new AtomicLong();
+        
+        void begin() {
+            stamp.incrementAndGet();
+            inFlight.incrementAndGet();
+        }
+        
+        void end() {
+            stamp.incrementAndGet();
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    private long query() throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            rs = stmt.executeQuery();
+            BigDecimal value = rs.next() ? rs.getBigDecimal(1) : null;
+            return value != null ? value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0L;
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+}
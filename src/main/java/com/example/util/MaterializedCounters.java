@@ -0,0 +1,206 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The shared {@link MaterializedCounter}s, one per statement and parameter
+ * values. A counter is created and seeded on its first read. The DAOs report
+ * deltas and stale marks by statement, which costs nothing for statements
+ * nobody reads.
+ *
+ * A daemon thread runs the queued stale refreshes and, every
+ * db.counters.reconcileMillis, re-runs every counter against the database.
+ * Counters not read for db.counters.idleMillis are dropped, so counters for
+ * parameter values that are no longer asked for, such as a past day, do not
+ * pile up.
+ *
+ * A write that adds deltas is bracketed by beginWrite() and
+ * {@link PendingWrite#end()}, so a refresh that runs while the write's row is
+ * committed but its delta not yet added knows it may count the row twice.
+ */
+public final class MaterializedCounters {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MaterializedCounters.class);
+    
+    private static final Map<List<Object>, MaterializedCounter> COUNTERS = new ConcurrentHashMap<>();
+    // One per counter statement; never removed, there are only as many as there are statements
+    private static final Map<String, MaterializedCounter.Writes> WRITES = new ConcurrentHashMap<>();
+    
+    private static volatile ScheduledExecutorService scheduler;
+    
+    private MaterializedCounters() {}
+    
+    /**
+     * The counter for a SELECT COUNT(*) statement with these parameters.
+     */
+    public static MaterializedCounter count(String sql, Object... params) {
+        return counter(sql, 0, params);
+    }
+    
+    /**
+     * The counter for a SELECT SUM() statement whose values have the given
+     * number of decimal places.
+     */
+    public static MaterializedCounter sum(String sql, int scale, Object... params) {
+        return counter(sql, scale, params);
+    }
+    
+    /**
+     * Adds a delta to the counter for the statement and parameters, if anyone has read it.
+     */
+    public static void add(String sql, long delta, Object... params) {
+        MaterializedCounter counter = COUNTERS.get(key(sql, params));
+        if (counter != null) {
+            counter.add(delta);
+        }
+    }
+    
+    public static void add(String sql, BigDecimal amount, Object... params) {
+        MaterializedCounter counter = COUNTERS.get(key(sql, params));
+        if (counter != null && amount != null) {
+            counter.add(amount);
+        }
+    }
+    
+    /**
+     * Registers a write whose deltas will go to counters of the given
+     * statements. Call it before executing the write, and end the result in
+     * a finally block after the deltas are added.
+     */
+    public static PendingWrite beginWrite(String... sqls) {
+        MaterializedCounter.Writes[] writes = new MaterializedCounter.Writes[sqls.length];
+        for (int i = 0; i < sqls.length; i++) {
+            writes[i] = writes(sqls[i]);
+            writes[i].begin();
+        }
+        return new PendingWrite(writes);
+    }
+    
+    /**
+     * Marks every counter for the statement stale, whatever its parameters.
+     */
+    public static void markStale(String sql) {
+        for (MaterializedCounter counter : COUNTERS.values()) {
+            if (counter.matches(sql, null)) {
+                counter.markStale();
+            }
+        }
+    }
+    
+    public static List<MaterializedCounter> getAll() {
+        return new ArrayList<>(COUNTERS.values());
+    }
+    
+    /**
+     * Drops idle counters and re-runs the query of every other one.
+     */
+    public static void reconcile() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getCounterIdleMillis());
+        long now = System.nanoTime();
+        for (Map.Entry<List<Object>, MaterializedCounter> entry : COUNTERS.entrySet()) {
+            MaterializedCounter counter = entry.getValue();
+            if (now - counter.getLastReadNanos() > idleNanos) {
+                COUNTERS.remove(entry.getKey(), counter);
+            } else if (counter.isSeeded()) {
+                refreshQuietly(counter);
+            }
+        }
+    }
+    
+    static void refreshLater(MaterializedCounter counter) {
+        scheduler().execute(() -> refreshQuietly(counter));
+    }
+    
+    private static MaterializedCounter counter(String sql, int scale, Object... params) {
+        MaterializedCounter counter = COUNTERS.computeIfAbsent(key(sql, params),
+            k -> new MaterializedCounter(sql, scale, writes(sql), params));
+        scheduler();
+        return counter;
+    }
+    
+    private static MaterializedCounter.Writes writes(String sql) {
+        return WRITES.computeIfAbsent(sql, k -> new MaterializedCounter.Writes());
+    }
+    
+    private static List<Object> key(String sql, Object[] params) {
+        List<Object> key = new ArrayList<>(params.length + 1);
+        key.add(sql);
+        key.addAll(Arrays.asList(params));
+        return key;
+    }
+    
+    private static void refreshQuietly(MaterializedCounter counter) {
+        try {
+            counter.refresh();
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Could not refresh counter {}", counter.getName(), e);
+        }
+    }
+    
+    private static ScheduledExecutorService scheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            synchronized (MaterializedCounters.class) {
+                current = scheduler;
+                if (current == null) {
+                    current = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread t = new Thread(r, "counter-refresh");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    long interval = DatabaseConfig.getCounterReconcileMillis();
+                    if (interval > 0) {
+                        current.scheduleWithFixedDelay(MaterializedCounters::reconcile, interval, interval,
+                            TimeUnit.MILLISECONDS);
+                    }
+                    scheduler = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * A write registered with beginWrite(). Inside a transaction it ends once
+     * the transaction completes, after the deltas it queued have been added.
+     */
+    public static final class PendingWrite {
+        private final MaterializedCounter.Writes[] writes;
+        private final AtomicBoolean ended = new AtomicBoolean();
+        
+        private PendingWrite(MaterializedCounter.Writes[] writes) {
+            this.writes = writes;
+        }
+        
+        public void end() {
+            Transaction tx = ConnectionManager.currentTransaction();
+            if (tx != null) {
+                tx.afterCompletion(this::endNow);
+            } else {
+                endNow();
+            }
+        }
+        
+        private void endNow() {
+            if (ended.compareAndSet(false, true)) {
+                for (MaterializedCounter.Writes write : writes) {
+                    write.end();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. The continuation token is opaque;
+ * pass it back to the same listing method to fetch the following page.
+ */
+public class Page<T> {
+    
+    private final List<T> items;
+    private final String nextToken;
+    
+    public Page(List<T> items, String nextToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+    }
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    /**
+     * Token for the next page, or null when this is the last page.
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+    
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs narrow queries that select a column or two, mapping them to small
+ * values instead of full entity beans. ID lists come back as a long[] so a
+ * million ids cost one array rather than a million boxed Longs in a list.
+ */
+public class Projections {
+    
+    private static final int INITIAL_CAPACITY = 64;
+    
+    private Projections() {}
+    
+    /**
+     * Reads the first column of every row as a long; SQL NULL reads as 0.
+     */
+    public static long[] longs(String sql, Object... params) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = prepare(conn, sql, params);
+            rs = stmt.executeQuery();
+            long[] values = new long[INITIAL_CAPACITY];
+            int size = 0;
+            while (rs.next()) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = rs.getLong(1);
+            }
+            return size == values.length ? values : Arrays.copyOf(values, size);
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Reads the first column of every row as a String.
+     */
+    public static List<String> strings(String sql, Object... params) throws SQLException {
+        return list(sql, rs -> rs.getString(1), params);
+    }
+    
+    /**
+     * Maps every row, typically to a record built from column positions.
+     */
+    public static <T> List<T> list(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<T> results = new ArrayList<>();
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = prepare(conn, sql, params);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                results.add(mapper.mapRow(rs));
+            }
+            return results;
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    private static PreparedStatement prepare(Connection conn, String sql, Object[] params) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+        return stmt;
+    }
+}
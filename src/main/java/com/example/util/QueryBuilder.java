@@ -0,0 +1,251 @@
+package com.example.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds and runs a parameterized SELECT over one table from typed columns,
+ * instead of a SELECT_BY_* constant for every combination of filters:
+ *
+ * <pre>
+ * List&lt;Customer&gt; rows = customerDAO.query()
+ *     .select(CustomerColumns.CUSTOMER_ID, CustomerColumns.EMAIL)
+ *     .where(CustomerColumns.STATE.eq("CA"), CustomerColumns.STATUS.eq("ACTIVE"))
+ *     .orderByDesc(CustomerColumns.CREDIT_LIMIT)
+ *     .first(50)
+ *     .list();
+ * </pre>
+ *
+ * The SQL is canonical so that equivalent queries share one entry in the
+ * per-connection statement cache: selected columns and AND-ed conditions
+ * are emitted in table column order whatever order they were given in, the
+ * row limit is bound as FIRST ?, and IN lists are padded to a power of two
+ * by repeating their last value. Only the ORDER BY keeps the caller's order.
+ *
+ * Rows are mapped with the entity's ColumnMapper, which leaves the fields of
+ * columns that were not selected unset.
+ */
+public class QueryBuilder<T> {
+    
+    private static final Comparator<Condition<?>> CANONICAL_ORDER =
+        Comparator.<Condition<?>>comparingInt(c -> c.column.getOrdinal()).thenComparing(c -> c.operator);
+    
+    private final Table<T> table;
+    private final RowMapper<T> mapper;
+    private final boolean[] selected;
+    private boolean anySelected;
+    private final List<Condition<T>> conditions = new ArrayList<>();
+    private final List<String> orderBy = new ArrayList<>();
+    private int first;
+    
+    private QueryBuilder(Table<T> table, RowMapper<T> mapper) {
+        this.table = table;
+        this.mapper = mapper;
+        this.selected = new boolean[table.getColumns().size()];
+    }
+    
+    public static <T> QueryBuilder<T> from(Table<T> table, RowMapper<T> mapper) {
+        return new QueryBuilder<>(table, mapper);
+    }
+    
+    /**
+     * Restricts the query to these columns. Without a select() every column is read.
+     */
+    @SafeVarargs
+    public final QueryBuilder<T> select(Column<T, ?>... columns) {
+        for (Column<T, ?> column : columns) {
+            checkTable(column);
+            selected[column.getOrdinal()] = true;
+            anySelected = true;
+        }
+        return this;
+    }
+    
+    @SafeVarargs
+    public final QueryBuilder<T> where(Condition<T>... added) {
+        for (Condition<T> condition : added) {
+            checkTable(condition.column);
+            conditions.add(condition);
+        }
+        return this;
+    }
+    
+    public QueryBuilder<T> orderBy(Column<T, ?> column) {
+        checkTable(column);
+        orderBy.add(column.getName());
+        return this;
+    }
+    
+    public QueryBuilder<T> orderByDesc(Column<T, ?> column) {
+        checkTable(column);
+        orderBy.add(column.getName() + " DESC");
+        return this;
+    }
+    
+    /**
+     * Returns at most n rows. Pass 0 for no limit.
+     */
+    public QueryBuilder<T> first(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Row limit must not be negative: " + n);
+        }
+        this.first = n;
+        return this;
+    }
+    
+    public String toSql() {
+        return build(false).sql;
+    }
+    
+    /**
+     * The bind values of toSql(), in parameter order.
+     */
+    public List<Object> getParameters() {
+        return Collections.unmodifiableList(build(false).params);
+    }
+    
+    public List<T> list() throws SQLException {
+        Built query = build(false);
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<T> results = new ArrayList<>();
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(query.sql);
+            bind(stmt, query.params);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                results.add(mapper.mapRow(rs));
+            }
+            return results;
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Counts the matching rows. The selected columns, ordering and row limit are ignored.
+     */
+    public int count() throws SQLException {
+        Built query = build(true);
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(query.sql);
+            bind(stmt, query.params);
+            rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Generates the SQL, and names it for the metrics after its shape, e.g.
+     * "customer.query[state =,status =;first]".
+     */
+    private Built build(boolean count) {
+        StringBuilder sql = new StringBuilder(256);
+        StringBuilder shape = new StringBuilder(table.getName()).append(count ? ".count[" : ".query[");
+        List<Object> params = new ArrayList<>();
+        sql.append("SELECT ");
+        if (count) {
+            sql.append("COUNT(*)");
+        } else {
+            if (first > 0) {
+                sql.append("FIRST ? ");
+                params.add(first);
+            }
+            boolean comma = false;
+            for (Column<T, ?> column : table.getColumns()) {
+                if (!anySelected || selected[column.getOrdinal()]) {
+                    sql.append(comma ? ", " : "").append(column.getName());
+                    comma = true;
+                }
+            }
+        }
+        sql.append(" FROM ").append(table.getName());
+        List<Condition<T>> sorted = new ArrayList<>(conditions);
+        sorted.sort(CANONICAL_ORDER);
+        for (int i = 0; i < sorted.size(); i++) {
+            Condition<T> condition = sorted.get(i);
+            sql.append(i == 0 ? " WHERE " : " AND ");
+            shape.append(i == 0 ? "" : ",").append(condition);
+            if (condition.operator == Condition.Operator.IN) {
+                appendIn(sql, params, condition);
+            } else {
+                sql.append(condition.column.getName()).append(condition.operator.sql);
+                params.addAll(Arrays.asList(condition.values));
+            }
+        }
+        if (!count) {
+            for (int i = 0; i < orderBy.size(); i++) {
+                sql.append(i == 0 ? " ORDER BY " : ", ").append(orderBy.get(i));
+            }
+            shape.append(";").append(String.join(",", orderBy)).append(first > 0 ? ";first" : "");
+        }
+        String text = sql.toString();
+        SqlCatalog.alias(text, shape.append(']').toString());
+        return new Built(text, params);
+    }
+    
+    private static void appendIn(StringBuilder sql, List<Object> params, Condition<?> condition) {
+        Object[] values = condition.values;
+        if (values.length == 0) {
+            sql.append("1 = 0");
+            return;
+        }
+        int bucket = Integer.highestOneBit(values.length);
+        if (bucket < values.length) {
+            bucket <<= 1;
+        }
+        sql.append(condition.column.getName()).append(" IN (");
+        for (int i = 0; i < bucket; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            params.add(values[Math.min(i, values.length - 1)]);
+        }
+        sql.append(')');
+    }
+    
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object value = params.get(i);
+            if (value instanceof Date && !(value instanceof java.sql.Date) && !(value instanceof Timestamp)) {
+                value = new Timestamp(((Date) value).getTime());
+            }
+            stmt.setObject(i + 1, value);
+        }
+    }
+    
+    private void checkTable(Column<?, ?> column) {
+        if (column.getTable() != table) {
+            throw new IllegalArgumentException(column + " is not a column of " + table.getName());
+        }
+    }
+    
+    private static final class Built {
+        final String sql;
+        final List<Object> params;
+        
+        Built(String sql, List<Object> params) {
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+}
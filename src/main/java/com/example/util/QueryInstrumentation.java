@@ -0,0 +1,73 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of the statement instrumentation. Every execution on a pooled
+ * connection is timed and reported to the installed {@link QueryMetrics}
+ * under the statement's SqlCatalog name. Executions slower than
+ * db.slowQuery.thresholdMillis are also written to the "com.example.sql.slow"
+ * logger with the types of their bind values but never the values themselves.
+ */
+public class QueryInstrumentation {
+    
+    private static final Logger slowLog = LoggerFactory.getLogger("com.example.sql.slow");
+    
+    private static final boolean enabled = DatabaseConfig.isQueryMetricsEnabled();
+    private static final boolean countRows = DatabaseConfig.isQueryMetricsRowCountEnabled();
+    private static final long slowThresholdNanos =
+        TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getSlowQueryThresholdMillis());
+    
+    private static volatile QueryMetrics metrics = new HistogramQueryMetrics();
+    
+    private QueryInstrumentation() {}
+    
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    public static QueryMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Replaces the metrics sink, e.g. with an adapter to a monitoring system.
+     */
+    public static void setMetrics(QueryMetrics replacement) {
+        if (replacement == null) {
+            throw new IllegalArgumentException("metrics must not be null");
+        }
+        metrics = replacement;
+    }
+    
+    static boolean isCountingRows() {
+        return enabled && countRows;
+    }
+    
+    // Probes also run for Flight Recorder alone, so both of these check that metrics are on
+    static void executed(String statement, String sql, long elapsedNanos, long rows, StatementProbe probe) {
+        if (!enabled) {
+            return;
+        }
+        metrics.recordExecution(statement, elapsedNanos, rows);
+        if (elapsedNanos >= slowThresholdNanos && slowLog.isWarnEnabled()) {
+            slowLog.warn("Slow query {} took {} ms, rows={}, binds={}: {}",
+                statement, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows, probe.describeBinds(), sql);
+        }
+    }
+    
+    static void failed(String statement, String sql, long elapsedNanos, Throwable error, StatementProbe probe) {
+        if (!enabled) {
+            return;
+        }
+        metrics.recordError(statement, elapsedNanos, error);
+        if (elapsedNanos >= slowThresholdNanos && slowLog.isWarnEnabled()) {
+            slowLog.warn("Slow query {} failed after {} ms, binds={}: {} ({})",
+                statement, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), probe.describeBinds(), sql, error.toString());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.util;
+
+/**
+ * Receives one callback per statement execution from the JDBC layer.
+ * Statements are identified by the name SqlCatalog assigns to their SQL
+ * text, e.g. "CustomerDAO.SELECT_BY_ID". Implementations must be thread safe
+ * and cheap; they run on the calling thread after every execution.
+ */
+public interface QueryMetrics {
+    
+    /**
+     * @param rows rows read or affected, or -1 when unknown
+     */
+    void recordExecution(String statement, long elapsedNanos, long rows);
+    
+    void recordError(String statement, long elapsedNanos, Throwable error);
+}
@@ -0,0 +1,107 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs long report queries side by side, so one slow report does not hold up
+ * the others:
+ *
+ * <pre>
+ * ReportEngine engine = new ReportEngine();
+ * ReportTask aging = engine.submit(invoiceDAO.agingReport(), csvSink);
+ * ReportTask inventory = engine.submit(productDAO.inventoryReport(), RowSink.mapping(mapper, rows::add));
+ * aging.await();
+ * </pre>
+ *
+ * At most maxConcurrency reports run at once, each on its own pooled
+ * connection; the rest wait in submission order. Every statement gets a
+ * query timeout and rows are pushed to the report's {@link RowSink} as the
+ * cursor reaches them, fetchSize at a time, instead of being collected first.
+ */
+public class ReportEngine {
+    
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    
+    private final AsyncExecutor executor;
+    private final int timeoutSeconds;
+    private final Set<ReportTask> active = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * An engine built from the db.reports.* settings.
+     */
+    public ReportEngine() {
+        this(DatabaseConfig.getReportMaxConcurrency(), DatabaseConfig.getReportTimeoutSeconds());
+    }
+    
+    public ReportEngine(int maxConcurrency, int timeoutSeconds) {
+        if (timeoutSeconds < 0) {
+            throw new IllegalArgumentException("Invalid report timeout: " + timeoutSeconds);
+        }
+        ExecutorService threads = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "report-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor = new AsyncExecutor(threads, maxConcurrency);
+        this.timeoutSeconds = timeoutSeconds;
+    }
+    
+    /**
+     * Queues the report and returns at once.
+     */
+    public ReportTask submit(ReportQuery query, RowSink sink) {
+        int timeout = query.timeoutSeconds() > 0 ? query.timeoutSeconds() : timeoutSeconds;
+        ReportTask task = new ReportTask(query, sink, timeout, DatabaseConfig.getFetchSize());
+        CompletableFuture<Long> future = executor.submit(task::run);
+        task.start(future);
+        active.add(task);
+        future.whenComplete((rows, e) -> active.remove(task));
+        return task;
+    }
+    
+    /**
+     * Submits every report with its sink, in map order.
+     */
+    public List<ReportTask> submitAll(Map<ReportQuery, RowSink> reports) {
+        List<ReportTask> tasks = new ArrayList<>(reports.size());
+        for (Map.Entry<ReportQuery, RowSink> entry : reports.entrySet()) {
+            tasks.add(submit(entry.getKey(), entry.getValue()));
+        }
+        return tasks;
+    }
+    
+    /**
+     * Reports queued or running.
+     */
+    public List<ReportTask> getActive() {
+        return new ArrayList<>(active);
+    }
+    
+    public void cancelAll() {
+        for (ReportTask task : active) {
+            task.cancel();
+        }
+    }
+    
+    public int getMaxConcurrency() {
+        return executor.getMaxConcurrency();
+    }
+    
+    public int getRunningCount() {
+        return executor.getActiveCount();
+    }
+    
+    public int getQueuedCount() {
+        return executor.getQueuedCount();
+    }
+}
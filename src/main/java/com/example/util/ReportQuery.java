@@ -0,0 +1,40 @@
+package com.example.util;
+
+/**
+ * A named report statement and its parameters, for {@link ReportEngine}. A
+ * timeout of 0 means the engine's db.reports.timeoutSeconds.
+ */
+public record ReportQuery(String name, String sql, int timeoutSeconds, Object... params) {
+    
+    public ReportQuery {
+        if (sql == null) {
+            throw new IllegalArgumentException("Report SQL is required");
+        }
+        if (timeoutSeconds < 0) {
+            throw new IllegalArgumentException("Invalid report timeout: " + timeoutSeconds);
+        }
+        name = name != null ? name : SqlCatalog.nameOf(sql);
+        params = params != null ? params.clone() : new Object[0];
+    }
+    
+    /**
+     * A report named after the constant that holds its SQL.
+     */
+    public static ReportQuery of(String sql, Object... params) {
+        return new ReportQuery(null, sql, 0, params);
+    }
+    
+    @Override
+    public Object[] params() {
+        return params.clone();
+    }
+    
+    public ReportQuery withTimeout(int seconds) {
+        return new ReportQuery(name, sql, seconds, params);
+    }
+    
+    @Override
+    public String toString() {
+        return "ReportQuery[" + name + "]";
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One report submitted to a {@link ReportEngine}. The future completes with
+ * the number of rows delivered to the sink, fails with the SQLException the
+ * report threw (a SQLTimeoutException once its query timeout passes), or is
+ * cancelled.
+ */
+public class ReportTask {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportTask.class);
+    
+    private final ReportQuery query;
+    private final RowSink sink;
+    private final int timeoutSeconds;
+    private final int fetchSize;
+    private final LongAdder rows = new LongAdder();
+    private volatile CompletableFuture<Long> future;
+    // The statement while it runs, so that another thread can cancel it
+    private volatile Statement statement;
+    private volatile boolean cancelled;
+    
+    ReportTask(ReportQuery query, RowSink sink, int timeoutSeconds, int fetchSize) {
+        this.query = query;
+        this.sink = sink;
+        this.timeoutSeconds = timeoutSeconds;
+        this.fetchSize = fetchSize;
+    }
+    
+    void start(CompletableFuture<Long> future) {
+        this.future = future;
+    }
+    
+    public String getName() {
+        return query.name();
+    }
+    
+    public ReportQuery getQuery() {
+        return query;
+    }
+    
+    public CompletableFuture<Long> getFuture() {
+        return future;
+    }
+    
+    /**
+     * Rows delivered so far; can be polled while the report runs.
+     */
+    public long getRowCount() {
+        return rows.sum();
+    }
+    
+    public boolean isDone() {
+        return future.isDone();
+    }
+    
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    /**
+     * Stops the report. A queued report never starts; a running one has its
+     * statement cancelled on the database and stops before the next row.
+     */
+    public void cancel() {
+        cancelled = true;
+        Statement running = statement;
+        if (running != null) {
+            try {
+                running.cancel();
+            } catch (SQLException e) {
+                logger.warn("Could not cancel report {}", getName(), e);
+            }
+        }
+        future.cancel(false);
+    }
+    
+    /**
+     * Waits for the report and returns its row count.
+     */
+    public long await() throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for report " + getName(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("Report " + getName() + " failed", cause);
+        }
+    }
+    
+    long run() throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            checkCancelled();
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(query.sql());
+            stmt.setQueryTimeout(timeoutSeconds);
+            stmt.setFetchSize(fetchSize);
+            Object[] params = query.params();
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            statement = stmt;
+            // cancel() may have run before the statement was visible to it
+            checkCancelled();
+            rs = stmt.executeQuery();
+            sink.begin(rs.getMetaData());
+            while (rs.next()) {
+                checkCancelled();
+                sink.row(rs);
+                rows.increment();
+            }
+            long count = rows.sum();
+            sink.end(count);
+            return count;
+        } catch (SQLException e) {
+            if (cancelled) {
+                // The driver reports a cancelled statement as an error
+                throw new CancellationException("Report " + getName() + " cancelled");
+            }
+            throw e;
+        } finally {
+            statement = null;
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+        }
+    }
+    
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Report " + getName() + " cancelled");
+        }
+    }
+    
+    @Override
+    public String toString() {
+        String state = future == null || !future.isDone() ? "running" : cancelled ? "cancelled"
+            : future.isCompletedExceptionally() ? "failed" : "done";
+        return "ReportTask[" + getName() + ", " + state + ", rows=" + getRowCount() + "]";
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Exposes a query as a lazily consumed Stream backed by an open cursor.
+ * Rows are fetched from Informix fetchSize at a time and mapped only when the
+ * stream pulls them, so memory use does not grow with the table. The
+ * connection stays checked out until the stream is closed or exhausted;
+ * always use it in try-with-resources.
+ */
+public class ResultSetStream {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ResultSetStream.class);
+    
+    private ResultSetStream() {}
+    
+    public static <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        return stream(sql, DatabaseConfig.getFetchSize(), mapper, params);
+    }
+    
+    /**
+     * Opens the cursor and returns a stream over it. Parameters are bound
+     * in order with setObject.
+     */
+    public static <T> Stream<T> stream(String sql, int fetchSize, RowMapper<T> mapper,
+                                       Object... params) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionManager.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            rs = stmt.executeQuery();
+            Cursor<T> cursor = new Cursor<>(conn, stmt, rs, mapper);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+            ConnectionManager.closeConnection(conn);
+            throw e;
+        }
+    }
+    
+    private static class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+        private boolean closed;
+        
+        Cursor(Connection conn, PreparedStatement stmt, ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.conn = conn;
+            this.stmt = stmt;
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!rs.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(mapper.mapRow(rs));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new UncheckedSQLException("Error reading streamed result set", e);
+            }
+        }
+        
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                rs.close();
+                stmt.close();
+            } catch (SQLException e) {
+                logger.error("Error closing streamed result set", e);
+            } finally {
+                ConnectionManager.closeConnection(conn);
+            }
+        }
+    }
+}
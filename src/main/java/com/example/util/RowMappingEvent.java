@@ -0,0 +1,36 @@
+package com.example.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for the rows of one result set turned into objects
+ * by a ColumnMapper. The event spans from the first mapped row to the close
+ * of the result set; mappingTime is the part of that spent in the mapper
+ * itself rather than in next() and the driver.
+ */
+@Name("com.example.RowMapping")
+@Label("Row Mapping")
+@Category({ "Application", "Database" })
+@Description("Rows of a result set mapped to entities")
+@StackTrace(false)
+class RowMappingEvent extends Event {
+    
+    @Label("SQL Name")
+    String sqlName;
+    
+    @Label("Mapped Type")
+    String mappedType;
+    
+    @Label("Rows")
+    long rows;
+    
+    @Label("Mapping Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long mappingTime;
+}
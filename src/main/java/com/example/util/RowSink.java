@@ -0,0 +1,32 @@
+package com.example.util;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Receives a report's rows as the cursor reaches them, on the thread running
+ * the report. The result set must not be kept past the call.
+ */
+@FunctionalInterface
+public interface RowSink {
+    
+    default void begin(ResultSetMetaData metaData) throws SQLException {
+    }
+    
+    void row(ResultSet rs) throws SQLException;
+    
+    /**
+     * Called once every row has been delivered, not after a failure or cancellation.
+     */
+    default void end(long rowCount) throws SQLException {
+    }
+    
+    /**
+     * A sink that maps each row and hands it to the consumer.
+     */
+    static <T> RowSink mapping(RowMapper<T> mapper, Consumer<? super T> consumer) {
+        return rs -> consumer.accept(mapper.mapRow(rs));
+    }
+}
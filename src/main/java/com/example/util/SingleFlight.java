@@ -0,0 +1,174 @@
+package com.example.util;
+
+import com.example.config.DatabaseConfig;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces identical concurrent reads. While one thread is running a query
+ * for a given SQL constant and set of bind values, other threads asking for
+ * the same thing wait for that execution and share its result instead of
+ * issuing their own round trip. Nothing is kept once the execution finishes;
+ * this is not a cache.
+ *
+ * Reads inside a transaction are never shared, since they must see the
+ * transaction's own uncommitted writes. The DAO calls invalidate() after
+ * every write, and a read never joins one that started before it.
+ */
+public class SingleFlight {
+    
+    private final boolean enabled;
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    // Part of every key, so reads on either side of a write are never shared
+    private final AtomicLong generation = new AtomicLong();
+    
+    public SingleFlight() {
+        this(true);
+    }
+    
+    private SingleFlight(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Builds the instance for a DAO from db.singleFlight.&lt;name&gt;.enabled.
+     * A disabled instance runs every read itself.
+     */
+    public static SingleFlight fromConfig(String name) {
+        return new SingleFlight(DatabaseConfig.isSingleFlightEnabled(name));
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Runs the read, or waits for an identical one already running. Threads
+     * that share another thread's result get it through the copier, if one is
+     * given, so a mutable entity is never handed to two callers.
+     */
+    public <T> T execute(String sql, Loader<T> loader, UnaryOperator<T> copier, Object... params) throws SQLException {
+        if (!enabled || ConnectionManager.isInTransaction()) {
+            return loader.load();
+        }
+        Key key = new Key(sql, params, generation.get());
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            @SuppressWarnings("unchecked")
+            T shared = (T) await(running);
+            return shared != null && copier != null ? copier.apply(shared) : shared;
+        }
+        executions.increment();
+        try {
+            T result = loader.load();
+            inFlight.remove(key, mine);
+            mine.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Stops later reads from joining any read already running. Inside a
+     * transaction this happens again once it completes, when the write
+     * becomes visible to other connections.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        Transaction tx = ConnectionManager.currentTransaction();
+        if (tx != null) {
+            tx.afterCompletion(generation::incrementAndGet);
+        }
+    }
+    
+    /**
+     * Reads that ran against the database.
+     */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+    
+    /**
+     * Reads that were answered by another thread's execution.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+    
+    private static Object await(CompletableFuture<Object> running) throws SQLException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a shared query", e);
+        } catch (CancellationException e) {
+            throw new SQLException("Shared query was cancelled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                // A fresh exception so this caller's stack trace is recorded too
+                throw new SQLException(cause.getMessage(), ((SQLException) cause).getSQLState(),
+                    ((SQLException) cause).getErrorCode(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException("Shared query failed", cause);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+    
+    private static final class Key {
+        private final String sql;
+        private final Object[] params;
+        private final long generation;
+        private final int hash;
+        
+        Key(String sql, Object[] params, long generation) {
+            this.sql = sql;
+            this.params = params;
+            this.generation = generation;
+            this.hash = 31 * (31 * sql.hashCode() + Arrays.hashCode(params)) + Long.hashCode(generation);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && generation == other.generation && sql.equals(other.sql)
+                && Arrays.equals(params, other.params);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
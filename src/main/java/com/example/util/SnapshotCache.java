@@ -0,0 +1,126 @@
+package com.example.util;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds an immutable snapshot built from the database, such as a whole
+ * table arranged as a tree. Readers share the current snapshot without
+ * locking. Writers either drop it, to be rebuilt by the next reader, or swap
+ * in a changed copy. A snapshot loaded while a write was in progress is not
+ * kept, and inside a transaction nothing is cached or patched, since the
+ * transaction's writes may still roll back.
+ *
+ * Writes made outside the owning DAO, by another process or plain SQL, are
+ * only picked up when the snapshot is rebuilt, so a snapshot can be given a
+ * time to live after which the next reader rebuilds it.
+ */
+public class SnapshotCache<T> {
+    
+    private final Loader<T> loader;
+    // Zero for a snapshot that is kept until invalidated
+    private final long ttlNanos;
+    private final AtomicReference<Snapshot<T>> current = new AtomicReference<>();
+    // Bumped by every invalidation so a load that raced with a write is not kept
+    private final AtomicLong generation = new AtomicLong();
+    
+    public SnapshotCache(Loader<T> loader) {
+        this(loader, 0L);
+    }
+    
+    /**
+     * A cache whose snapshot is rebuilt by the first read after it is
+     * ttlMillis old; 0 keeps it until invalidated.
+     */
+    public SnapshotCache(Loader<T> loader, long ttlMillis) {
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("Snapshot TTL must not be negative: " + ttlMillis);
+        }
+        this.loader = loader;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+    
+    /**
+     * The current snapshot, loading it if there is none or it has expired.
+     */
+    public T get() throws SQLException {
+        Snapshot<T> snapshot = current.get();
+        if (snapshot != null) {
+            if (ttlNanos == 0 || System.nanoTime() - snapshot.loadedAt < ttlNanos) {
+                return snapshot.value;
+            }
+            current.compareAndSet(snapshot, null);
+        }
+        long stamp = generation.get();
+        T loaded = loader.load();
+        if (generation.get() == stamp && !ConnectionManager.isInTransaction()) {
+            Snapshot<T> stored = new Snapshot<>(loaded, System.nanoTime());
+            // An invalidation bumps the generation before clearing, so if one
+            // landed after the check above, either it clears this or this sees it
+            if (current.compareAndSet(null, stored) && generation.get() != stamp) {
+                current.compareAndSet(stored, null);
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * The current snapshot, or null if none is loaded.
+     */
+    public T peek() {
+        Snapshot<T> snapshot = current.get();
+        return snapshot != null ? snapshot.value : null;
+    }
+    
+    /**
+     * Drops the snapshot. Inside a transaction it is dropped again once the
+     * transaction completes, so a reader cannot cache the pre-commit state.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        current.set(null);
+        Transaction tx = ConnectionManager.currentTransaction();
+        if (tx != null) {
+            tx.afterCompletion(() -> {
+                generation.incrementAndGet();
+                current.set(null);
+            });
+        }
+    }
+    
+    /**
+     * Swaps in a copy of the snapshot with a committed change applied, e.g.
+     * one row moved. The change must return a new snapshot, not modify its
+     * argument, or null if it cannot be applied and the snapshot should be
+     * rebuilt. Inside a transaction the snapshot is invalidated instead.
+     */
+    public void update(UnaryOperator<T> change) {
+        if (ConnectionManager.isInTransaction()) {
+            invalidate();
+            return;
+        }
+        generation.incrementAndGet();
+        Snapshot<T> snapshot;
+        Snapshot<T> changed;
+        do {
+            snapshot = current.get();
+            if (snapshot == null) {
+                return;
+            }
+            T value = change.apply(snapshot.value);
+            // A patched snapshot is no fresher than the one it was patched from
+            changed = value != null ? new Snapshot<>(value, snapshot.loadedAt) : null;
+        } while (!current.compareAndSet(snapshot, changed));
+    }
+    
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+    
+    private record Snapshot<T>(T value, long loadedAt) {
+    }
+}
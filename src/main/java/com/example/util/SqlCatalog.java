@@ -0,0 +1,63 @@
+package com.example.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Names SQL text after the constant that holds it, e.g. the text of
+ * CustomerDAO.SELECT_BY_ID becomes "CustomerDAO.SELECT_BY_ID". Each DAO
+ * registers its class once; metrics and the slow-query log then report by
+ * name instead of by raw SQL.
+ */
+public class SqlCatalog {
+    
+    private static final int UNNAMED_PREFIX_LENGTH = 60;
+    
+    private static final Map<String, String> names = new ConcurrentHashMap<>();
+    
+    private SqlCatalog() {}
+    
+    /**
+     * Adds every static final String field of the class. When two constants
+     * share the same text, the first one registered keeps the name.
+     */
+    public static void register(Class<?> owner) {
+        for (Field field : owner.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                String sql = (String) field.get(null);
+                if (sql != null) {
+                    names.putIfAbsent(sql, owner.getSimpleName() + "." + field.getName());
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                // Not a SQL constant we can read; skip it
+            }
+        }
+    }
+    
+    /**
+     * Names SQL text that is built at run time from a registered constant.
+     */
+    public static void alias(String sql, String name) {
+        names.putIfAbsent(sql, name);
+    }
+    
+    public static String nameOf(String sql) {
+        if (sql == null) {
+            return "unknown";
+        }
+        String name = names.get(sql);
+        if (name != null) {
+            return name;
+        }
+        String collapsed = sql.replaceAll("\\s+", " ").trim();
+        return collapsed.length() <= UNNAMED_PREFIX_LENGTH
+            ? collapsed : collapsed.substring(0, UNNAMED_PREFIX_LENGTH) + "...";
+    }
+}
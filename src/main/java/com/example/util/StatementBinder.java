@@ -0,0 +1,13 @@
+package com.example.util;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds the parameters of a prepared statement from one item.
+ */
+@FunctionalInterface
+public interface StatementBinder<T> {
+    
+    void bind(PreparedStatement stmt, T item) throws SQLException;
+}
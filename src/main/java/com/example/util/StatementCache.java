@@ -0,0 +1,204 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text.
+ * Callers get a proxy whose close() clears the parameters and hands the
+ * statement back to the cache, so the DAOs keep their usual
+ * prepare/close pattern while Informix only parses each statement once
+ * per connection.
+ */
+class StatementCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+    
+    private final Connection raw;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, CachedStatement> statements;
+    
+    StatementCache(Connection raw, int maxSize, LongAdder hits, LongAdder misses) {
+        this.raw = raw;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    
+    /**
+     * Returns a cached statement for the SQL, preparing it on a miss. If the
+     * cached statement is still open by another caller on this connection a
+     * throwaway statement is prepared instead.
+     */
+    synchronized PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            return cached.lease(owner);
+        }
+        misses.increment();
+        PreparedStatement stmt = raw.prepareStatement(sql);
+        if (cached != null || maxSize <= 0) {
+            return (PreparedStatement) StatementProbe.wrap(stmt, sql);
+        }
+        cached = new CachedStatement(sql, stmt);
+        statements.put(sql, cached);
+        evictOverflow();
+        return cached.lease(owner);
+    }
+    
+    synchronized void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.evicted = true;
+            if (!cached.inUse) {
+                cached.closeQuietly();
+            }
+        }
+        statements.clear();
+    }
+    
+    private void evictOverflow() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement eldest = it.next();
+            it.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closeQuietly();
+            }
+        }
+    }
+    
+    private synchronized void giveBack(CachedStatement cached) {
+        cached.inUse = false;
+        if (cached.evicted) {
+            statements.remove(cached.sql, cached);
+            cached.closeQuietly();
+        }
+    }
+    
+    private class CachedStatement {
+        final String sql;
+        final PreparedStatement stmt;
+        boolean inUse;
+        boolean evicted;
+        
+        CachedStatement(String sql, PreparedStatement stmt) {
+            this.sql = sql;
+            this.stmt = stmt;
+        }
+        
+        PreparedStatement lease(Connection owner) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new Lease(this, owner));
+        }
+        
+        void closeQuietly() {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing cached statement", e);
+            }
+        }
+    }
+    
+    /**
+     * One checkout of a cached statement. Per-execution settings changed
+     * during the checkout are put back before the statement is reused.
+     */
+    private class Lease implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        // Null when instrumentation is off
+        private final StatementProbe probe;
+        private boolean closed;
+        private boolean settingsChanged;
+        
+        Lease(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+            this.probe = StatementProbe.isActive() ? new StatementProbe(cached.sql) : null;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        if (probe != null) {
+                            probe.close();
+                        }
+                        reset();
+                        giveBack(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.stmt.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.stmt + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    if (probe != null) {
+                        if (StatementProbe.isExecute(name)) {
+                            return probe.execute(cached.stmt, method, args, (PreparedStatement) proxy);
+                        }
+                        if (StatementProbe.isBind(name, args)) {
+                            probe.bind(name, args);
+                        } else if (name.equals("clearParameters")) {
+                            probe.clearBinds();
+                        }
+                    }
+                    if (name.equals("setFetchSize") || name.equals("setQueryTimeout") || name.equals("setMaxRows")) {
+                        settingsChanged = true;
+                    }
+                    try {
+                        return method.invoke(cached.stmt, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+        
+        private void reset() {
+            try {
+                cached.stmt.clearParameters();
+                cached.stmt.clearBatch();
+                if (settingsChanged) {
+                    cached.stmt.setFetchSize(0);
+                    cached.stmt.setQueryTimeout(0);
+                    cached.stmt.setMaxRows(0);
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not reset cached statement, dropping it", e);
+                cached.evicted = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one statement execution. For queries the event
+ * lasts until the result set is closed, so it covers fetching the rows.
+ */
+@Name("com.example.StatementExecute")
+@Label("Statement Execute")
+@Category({ "Application", "Database" })
+@Description("A statement executed on a pooled connection, named after its SQL constant")
+class StatementExecuteEvent extends Event {
+    
+    @Label("SQL Name")
+    String sqlName;
+    
+    @Label("Method")
+    String method;
+    
+    @Label("Rows")
+    @Description("Rows read or affected, -1 when unknown")
+    long rows;
+    
+    @Label("Bytes Bound")
+    @Description("Approximate size of the bind values sent with the execution")
+    @DataAmount
+    long bytesBound;
+    
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,335 @@
+package com.example.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Times the executions of one statement checkout for QueryInstrumentation
+ * and the Flight Recorder statement and row mapping events. Bind values are
+ * remembered by type only. A query is reported when its result set is
+ * closed, so its time includes fetching the rows, and its row count is the
+ * number of rows the caller read.
+ */
+final class StatementProbe {
+    
+    private static final String NULL_BIND = "null";
+    
+    // Null for plain statements, which pass their SQL to execute()
+    private final String sql;
+    private String[] bindTypes = new String[8];
+    private int bindCount;
+    // Since the last execution, so a batch counts every row it bound
+    private long boundBytes;
+    
+    private Query pending;
+    
+    StatementProbe(String sql) {
+        this.sql = sql;
+    }
+    
+    /**
+     * True if executions need a probe: query metrics are on, or Flight
+     * Recorder is recording statement or row mapping events. Checked per
+     * checkout, so a recording started later is picked up.
+     */
+    static boolean isActive() {
+        return QueryInstrumentation.isEnabled() || isRecording();
+    }
+    
+    private static boolean isRecording() {
+        return new StatementExecuteEvent().isEnabled() || new RowMappingEvent().isEnabled();
+    }
+    
+    /**
+     * Wraps a statement that is not served from the statement cache, or
+     * returns it unchanged when instrumentation is off.
+     */
+    static Statement wrap(Statement stmt, String sql) {
+        if (stmt == null || !isActive()) {
+            return stmt;
+        }
+        Class<?> type = stmt instanceof CallableStatement ? CallableStatement.class
+            : stmt instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+            StatementProbe.class.getClassLoader(),
+            new Class<?>[] { type },
+            new Handler(stmt, new StatementProbe(sql)));
+    }
+    
+    static boolean isExecute(String method) {
+        return method.startsWith("execute");
+    }
+    
+    static boolean isBind(String method, Object[] args) {
+        return args != null && args.length >= 2 && args[0] instanceof Integer && method.startsWith("set");
+    }
+    
+    void bind(String method, Object[] args) {
+        int index = (Integer) args[0] - 1;
+        if (index < 0) {
+            return;
+        }
+        if (index >= bindTypes.length) {
+            bindTypes = Arrays.copyOf(bindTypes, Math.max(index + 1, bindTypes.length * 2));
+        }
+        Object value = args[1];
+        bindTypes[index] = method.equals("setNull") || value == null ? NULL_BIND : value.getClass().getSimpleName();
+        bindCount = Math.max(bindCount, index + 1);
+        boundBytes += sizeOf(value);
+    }
+    
+    void clearBinds() {
+        Arrays.fill(bindTypes, 0, bindCount, null);
+        bindCount = 0;
+        boundBytes = 0;
+    }
+    
+    /**
+     * Runs an execute* method on the target and reports it.
+     */
+    Object execute(Object target, Method method, Object[] args, Statement statementProxy) throws Throwable {
+        finishPending();
+        String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+        String name = SqlCatalog.nameOf(text);
+        long bytes = boundBytes;
+        boundBytes = 0;
+        StatementExecuteEvent event = new StatementExecuteEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable error = e.getCause();
+            QueryInstrumentation.failed(name, text, System.nanoTime() - start, error, this);
+            commit(event, name, method.getName(), -1, bytes, true);
+            throw error;
+        }
+        long rows;
+        switch (method.getName()) {
+            case "executeQuery":
+                // Row mapping events are only produced through the counting result set
+                if (QueryInstrumentation.isCountingRows() || isRecording()) {
+                    pending = new Query(name, text, start, event, bytes);
+                    return new CountingResultSet((ResultSet) result, statementProxy, pending);
+                }
+                rows = -1;
+                break;
+            case "executeUpdate":
+            case "executeLargeUpdate":
+                rows = ((Number) result).longValue();
+                break;
+            case "executeBatch":
+                rows = sum((int[]) result);
+                break;
+            case "executeLargeBatch":
+                rows = sum((long[]) result);
+                break;
+            default:
+                rows = -1;
+                break;
+        }
+        QueryInstrumentation.executed(name, text, System.nanoTime() - start, rows, this);
+        commit(event, name, method.getName(), rows, bytes, false);
+        return result;
+    }
+    
+    /**
+     * Reports a query whose result set was never closed by the caller.
+     */
+    void close() {
+        finishPending();
+    }
+    
+    private void finishPending() {
+        if (pending != null) {
+            Query query = pending;
+            pending = null;
+            query.finish();
+        }
+    }
+    
+    /**
+     * The bind value types of the current execution, e.g. "[Long, String, null]".
+     */
+    String describeBinds() {
+        return Arrays.toString(Arrays.copyOf(bindTypes, bindCount));
+    }
+    
+    private static void commit(StatementExecuteEvent event, String name, String method, long rows, long bytes,
+                               boolean failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.sqlName = name;
+            event.method = method;
+            event.rows = rows;
+            event.bytesBound = bytes;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Approximate wire size of a bind value. Strings count one byte per
+     * character, which is right for the single-byte code sets these tables use.
+     */
+    private static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof BigDecimal) {
+            // Informix DECIMAL packs two digits per byte after a one-byte exponent
+            return ((BigDecimal) value).precision() / 2 + 2;
+        }
+        if (value instanceof Boolean || value instanceof Byte) {
+            return 1;
+        }
+        if (value instanceof Short) {
+            return 2;
+        }
+        if (value instanceof Integer || value instanceof Float) {
+            return 4;
+        }
+        return 8;
+    }
+    
+    private static long sum(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                total += count;
+            }
+        }
+        return total;
+    }
+    
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                total += count;
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * An open result set being counted by a {@link CountingResultSet}.
+     */
+    final class Query {
+        final String name;
+        final String text;
+        final long start;
+        final StatementExecuteEvent event;
+        final long bytesBound;
+        long rows;
+        private RowMappingEvent mapping;
+        private boolean mappingChecked;
+        private boolean finished;
+        
+        Query(String name, String text, long start, StatementExecuteEvent event, long bytesBound) {
+            this.name = name;
+            this.text = text;
+            this.start = start;
+            this.event = event;
+            this.bytesBound = bytesBound;
+        }
+        
+        /**
+         * The mapping event for this result set, or null when Flight Recorder
+         * is not recording it. Decided once, by the first mapper to ask.
+         */
+        RowMappingEvent mappingEvent(String mappedType) {
+            if (!mappingChecked) {
+                mappingChecked = true;
+                RowMappingEvent candidate = new RowMappingEvent();
+                if (candidate.isEnabled()) {
+                    candidate.sqlName = name;
+                    candidate.mappedType = mappedType;
+                    candidate.begin();
+                    mapping = candidate;
+                }
+            }
+            return mapping;
+        }
+        
+        void closed() {
+            if (pending == this) {
+                pending = null;
+            }
+            finish();
+        }
+        
+        void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            QueryInstrumentation.executed(name, text, System.nanoTime() - start, rows, StatementProbe.this);
+            commit(event, name, "executeQuery", rows, bytesBound, false);
+            if (mapping != null) {
+                mapping.end();
+                if (mapping.shouldCommit()) {
+                    mapping.commit();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Instruments a statement that the statement cache does not manage.
+     */
+    private static class Handler implements InvocationHandler {
+        private final Statement stmt;
+        private final StatementProbe probe;
+        
+        Handler(Statement stmt, StatementProbe probe) {
+            this.stmt = stmt;
+            this.probe = probe;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (isExecute(name)) {
+                return probe.execute(stmt, method, args, (Statement) proxy);
+            }
+            switch (name) {
+                case "close":
+                    probe.close();
+                    break;
+                case "clearParameters":
+                    probe.clearBinds();
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (isBind(name, args)) {
+                        probe.bind(name, args);
+                    }
+                    break;
+            }
+            try {
+                return method.invoke(stmt, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.util;
+
+/**
+ * Point-in-time summary of one named statement, as collected by
+ * {@link HistogramQueryMetrics}.
+ */
+public class StatementStats {
+    
+    private final String statement;
+    private final long executions;
+    private final long errors;
+    private final long rows;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+    
+    StatementStats(String statement, long executions, long errors, long rows, LatencyHistogram latency) {
+        this.statement = statement;
+        this.executions = executions;
+        this.errors = errors;
+        this.rows = rows;
+        this.meanMillis = latency.getMeanMillis();
+        this.p50Millis = latency.getPercentileMillis(50);
+        this.p95Millis = latency.getPercentileMillis(95);
+        this.p99Millis = latency.getPercentileMillis(99);
+        this.maxMillis = latency.getMaxMillis();
+    }
+    
+    public String getStatement() { return statement; }
+    
+    public long getExecutions() { return executions; }
+    
+    public long getErrors() { return errors; }
+    
+    public long getRows() { return rows; }
+    
+    public double getMeanMillis() { return meanMillis; }
+    
+    public double getP50Millis() { return p50Millis; }
+    
+    public double getP95Millis() { return p95Millis; }
+    
+    public double getP99Millis() { return p99Millis; }
+    
+    public double getMaxMillis() { return maxMillis; }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: n=%d errors=%d rows=%d mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms",
+            statement, executions, errors, rows, meanMillis, p50Millis, p95Millis, p99Millis, maxMillis);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A table's typed columns for {@link QueryBuilder}. Columns are numbered in
+ * declaration order, and that order is what makes generated SQL canonical.
+ */
+public final class Table<T> {
+    
+    private final String name;
+    private final List<Column<T, ?>> columns = new ArrayList<>();
+    
+    public Table(String name) {
+        this.name = name;
+    }
+    
+    public <V> Column<T, V> column(String columnName, Class<V> type) {
+        Column<T, V> column = new Column<>(this, columnName, type, columns.size());
+        columns.add(column);
+        return column;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public List<Column<T, ?>> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+}
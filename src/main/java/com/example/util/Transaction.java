@@ -0,0 +1,125 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A unit of work started by {@link TransactionTemplate}. While it is active,
+ * ConnectionManager.getConnection() on the owning thread returns this
+ * transaction's connection, so every DAO call joins it. Closing that
+ * connection is a no-op; commit and rollback belong to the template.
+ */
+public class Transaction {
+    
+    private static final Logger logger = LoggerFactory.getLogger(Transaction.class);
+    
+    private final Connection connection;
+    private final Connection scoped;
+    private final List<Runnable> completionCallbacks = new ArrayList<>();
+    private boolean rollbackOnly;
+    // The first exception thrown out of a nested execute(), even if the caller caught it
+    private Throwable nestedFailure;
+    private boolean committed;
+    
+    Transaction(Connection connection) {
+        this.connection = connection;
+        this.scoped = (Connection) Proxy.newProxyInstance(
+            Transaction.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        return null;
+                    case "commit":
+                    case "setAutoCommit":
+                        throw new SQLException(method.getName() + "() is managed by TransactionTemplate");
+                    case "rollback":
+                        if (args == null) {
+                            throw new SQLException("rollback() is managed by TransactionTemplate; use setRollbackOnly()");
+                        }
+                        break;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "TransactionConnection[" + connection + "]";
+                    default:
+                        break;
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+    
+    /**
+     * The connection shared by every DAO call in this transaction.
+     */
+    public Connection getConnection() {
+        return scoped;
+    }
+    
+    /**
+     * Makes the transaction roll back instead of committing when the outermost
+     * callback returns.
+     */
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+    
+    public boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+    
+    void nestedCallFailed(Throwable failure) {
+        rollbackOnly = true;
+        if (nestedFailure == null) {
+            nestedFailure = failure;
+        }
+    }
+    
+    Throwable getNestedFailure() {
+        return nestedFailure;
+    }
+    
+    /**
+     * True once the transaction has committed, so a completion callback can
+     * tell a commit from a rollback.
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+    
+    void markCommitted() {
+        committed = true;
+    }
+    
+    /**
+     * Registers a callback to run once the transaction has committed or
+     * rolled back and its connection has gone back to the pool.
+     */
+    public void afterCompletion(Runnable callback) {
+        completionCallbacks.add(callback);
+    }
+    
+    void complete() {
+        for (Runnable callback : completionCallbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                logger.warn("Transaction completion callback failed", e);
+            }
+        }
+        completionCallbacks.clear();
+    }
+}
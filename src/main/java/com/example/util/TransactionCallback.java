@@ -0,0 +1,12 @@
+package com.example.util;
+
+import java.sql.SQLException;
+
+/**
+ * Work to run inside a transaction; see {@link TransactionTemplate}.
+ */
+@FunctionalInterface
+public interface TransactionCallback<T> {
+    
+    T doInTransaction(Transaction tx) throws SQLException;
+}
@@ -0,0 +1,77 @@
+package com.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Runs a block of DAO calls as one transaction on one pooled connection.
+ * <pre>
+ * TransactionTemplate.execute(tx -&gt; {
+ *     orderDAO.insert(order);
+ *     orderItemDAO.insertAll(items);
+ *     return null;
+ * });
+ * </pre>
+ * The connection is bound to the calling thread, so the DAOs pick it up
+ * through ConnectionManager.getConnection() without any changes. The work
+ * commits once when the callback returns, and rolls back if it throws or
+ * calls setRollbackOnly(). A nested execute() joins the outer transaction;
+ * if it throws, the whole transaction rolls back, and the outer execute()
+ * throws even when its callback caught the exception and returned.
+ */
+public class TransactionTemplate {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionTemplate.class);
+    
+    private TransactionTemplate() {}
+    
+    public static <T> T execute(TransactionCallback<T> callback) throws SQLException {
+        Transaction current = ConnectionManager.currentTransaction();
+        if (current != null) {
+            try {
+                return callback.doInTransaction(current);
+            } catch (Throwable e) {
+                current.nestedCallFailed(e);
+                throw e;
+            }
+        }
+        // No transaction is bound yet, so this borrows from the pool and records the acquire event
+        Connection conn = ConnectionManager.getConnection();
+        Transaction tx = new Transaction(conn);
+        try {
+            conn.setAutoCommit(false);
+            ConnectionManager.bind(tx);
+            T result = callback.doInTransaction(tx);
+            if (tx.getNestedFailure() != null) {
+                // Returning the result would hide that none of the work was kept
+                throw new SQLException("Transaction rolled back because a nested call failed", tx.getNestedFailure());
+            }
+            if (tx.isRollbackOnly()) {
+                conn.rollback();
+            } else {
+                conn.commit();
+                tx.markCommitted();
+            }
+            return result;
+        } catch (Throwable e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        } finally {
+            ConnectionManager.unbind();
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.warn("Could not restore auto-commit", e);
+            }
+            ConnectionManager.closeConnection(conn);
+            tx.complete();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.util;
+
+import java.sql.SQLException;
+
+/**
+ * Wraps a SQLException thrown where a checked exception cannot be declared,
+ * such as inside a Stream pipeline.
+ */
+public class UncheckedSQLException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public UncheckedSQLException(String message, SQLException cause) {
+        super(message, cause);
+    }
+    
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}